@@ -1,9 +1,12 @@
 package com.yash.notification.client;
 
+import com.yash.notification.dto.DeviceTokenInvalidationRequest;
 import com.yash.notification.dto.UserDto;
 import com.yash.notification.dto.UserDeviceDto;
 import com.yash.notification.dto.UserPage;
+import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.PathVariable;
 import io.micronaut.http.client.annotation.Client;
 import io.micronaut.http.annotation.QueryValue;
@@ -30,4 +33,7 @@ public interface UserClient {
     
     @Get("/api/users/{userId}/devices")
     Flux<UserDeviceDto> getUserDevices(@PathVariable UUID userId, @Header("Authorization") String authorization);
+
+    @Post("/api/users/devices/invalidate")
+    Mono<Void> invalidateDeviceTokens(@Body DeviceTokenInvalidationRequest request, @Header("Authorization") String authorization);
 } 
\ No newline at end of file
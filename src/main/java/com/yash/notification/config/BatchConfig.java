@@ -0,0 +1,32 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+@ConfigurationProperties("notifications.batch")
+public class BatchConfig {
+
+    private int maxItems = 10_000;
+    private int writeConcurrency = 4;
+
+    /**
+     * Items accepted per request; the rest of a longer body is rejected.
+     */
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * BatchWriteItem calls in flight per request.
+     */
+    public int getWriteConcurrency() {
+        return writeConcurrency;
+    }
+
+    public void setWriteConcurrency(int writeConcurrency) {
+        this.writeConcurrency = writeConcurrency;
+    }
+}
@@ -0,0 +1,22 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+@ConfigurationProperties("notifications.blocking-io")
+public class BlockingIoConfig {
+
+    public enum Mode {
+        BOUNDED_ELASTIC,
+        VIRTUAL_THREADS
+    }
+
+    private Mode mode = Mode.BOUNDED_ELASTIC;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+}
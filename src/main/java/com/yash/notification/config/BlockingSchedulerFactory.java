@@ -0,0 +1,67 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.Factory;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides the scheduler that blocking SDK calls (DynamoDB, Firebase, SendGrid)
+ * are offloaded to. {@code bounded-elastic} caps threads at 10x cores and queues
+ * the rest; {@code virtual-threads} gives every call its own virtual thread and
+ * leaves concurrency to the delivery limiters. Virtual threads need Java 21
+ * (build with {@code -PjavaVersion=21}); on older runtimes the factory falls
+ * back to bounded-elastic.
+ */
+@Factory
+public class BlockingSchedulerFactory {
+
+    public static final String BLOCKING_IO = "blocking-io";
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlockingSchedulerFactory.class);
+
+    @Singleton
+    @Named(BLOCKING_IO)
+    @Bean(preDestroy = "dispose")
+    public Scheduler blockingIoScheduler(BlockingIoConfig config) {
+        return create(config.getMode());
+    }
+
+    public static Scheduler create(BlockingIoConfig.Mode mode) {
+        if (mode == BlockingIoConfig.Mode.VIRTUAL_THREADS) {
+            ExecutorService executor = newVirtualThreadExecutor();
+            if (executor != null) {
+                LOG.info("Running blocking I/O on virtual threads");
+                return Schedulers.fromExecutorService(executor, BLOCKING_IO);
+            }
+            LOG.warn("Virtual threads need Java 21, running on Java {}; using bounded-elastic",
+                    Runtime.version().feature());
+        }
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, BLOCKING_IO);
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    // Looked up reflectively so the default Java 17 build still compiles
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (!virtualThreadsAvailable()) {
+            return null;
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOG.warn("Could not create virtual thread executor: {}", e.getMessage());
+            return null;
+        }
+    }
+}
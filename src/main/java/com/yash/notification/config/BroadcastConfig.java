@@ -0,0 +1,52 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.broadcast")
+public class BroadcastConfig {
+
+    private int chunkSize = 500;
+    private int maxPartitionAttempts = 5;
+    private Duration partitionRetryBackoff = Duration.ofSeconds(30);
+    private Duration partitionRetryMaxBackoff = Duration.ofMinutes(10);
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Failed runs of one partition after which the whole job is marked FAILED.
+     */
+    public int getMaxPartitionAttempts() {
+        return maxPartitionAttempts;
+    }
+
+    public void setMaxPartitionAttempts(int maxPartitionAttempts) {
+        this.maxPartitionAttempts = maxPartitionAttempts;
+    }
+
+    /**
+     * Wait before a failed partition runs again, doubled with every failure.
+     */
+    public Duration getPartitionRetryBackoff() {
+        return partitionRetryBackoff;
+    }
+
+    public void setPartitionRetryBackoff(Duration partitionRetryBackoff) {
+        this.partitionRetryBackoff = partitionRetryBackoff;
+    }
+
+    public Duration getPartitionRetryMaxBackoff() {
+        return partitionRetryMaxBackoff;
+    }
+
+    public void setPartitionRetryMaxBackoff(Duration partitionRetryMaxBackoff) {
+        this.partitionRetryMaxBackoff = partitionRetryMaxBackoff;
+    }
+}
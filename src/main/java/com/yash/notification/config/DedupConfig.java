@@ -0,0 +1,55 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.dedup")
+public class DedupConfig {
+
+    private boolean enabled = true;
+    private Duration window = Duration.ofMinutes(10);
+    private int filterSlices = 4;
+    private int expectedItems = 100_000;
+    private double falsePositiveRate = 0.01;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getFilterSlices() {
+        return filterSlices;
+    }
+
+    public void setFilterSlices(int filterSlices) {
+        this.filterSlices = filterSlices;
+    }
+
+    public int getExpectedItems() {
+        return expectedItems;
+    }
+
+    public void setExpectedItems(int expectedItems) {
+        this.expectedItems = expectedItems;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+}
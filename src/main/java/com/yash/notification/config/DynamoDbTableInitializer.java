@@ -1,5 +1,7 @@
 package com.yash.notification.config;
 
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
 import io.micronaut.context.annotation.Context;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
@@ -8,6 +10,9 @@ import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Context
 public class DynamoDbTableInitializer {
     private static final Logger LOG = LoggerFactory.getLogger(DynamoDbTableInitializer.class);
@@ -17,13 +22,169 @@ public class DynamoDbTableInitializer {
 
     @PostConstruct
     public void initializeTables() {
-        createNotificationsTable();
+        createTable("notifications");
+        enableStream("notifications");
+        ensureIndex(Notification.SEND_AT_INDEX, "sendAtBucket", "sendAtMillis", ScalarAttributeType.N);
+        ensureIndex(Notification.USER_INDEX, "userId", "createdAt", ScalarAttributeType.S);
+        if (ensureIndex(Notification.OUTBOX_INDEX, "deliveryStatus", "dueAt", ScalarAttributeType.N)) {
+            backfillDueAt();
+        }
+        createTable("broadcast_jobs");
+        createTable("partition_leases");
+        createTable("notification_dedup");
+        enableTimeToLive("notification_dedup", "expiresAt");
+        createTable("idempotency_keys");
+        enableTimeToLive("idempotency_keys", "expiresAt");
+        createTable("inbox_versions");
     }
 
-    private void createNotificationsTable() {
+    /**
+     * Streams old and new images of every change; the inbox relay reads them to
+     * reach clients connected to other instances.
+     */
+    private void enableStream(String tableName) {
         try {
-            CreateTableRequest request = CreateTableRequest.builder()
+            StreamSpecification current = dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                    .tableName(tableName)
+                    .build()).table().streamSpecification();
+            if (current != null && Boolean.TRUE.equals(current.streamEnabled())) {
+                return;
+            }
+            dynamoDbClient.updateTable(UpdateTableRequest.builder()
+                    .tableName(tableName)
+                    .streamSpecification(StreamSpecification.builder()
+                            .streamEnabled(true)
+                            .streamViewType(StreamViewType.NEW_AND_OLD_IMAGES)
+                            .build())
+                    .build());
+            LOG.info("Stream enabled on {}", tableName);
+        } catch (Exception e) {
+            LOG.error("Error enabling stream on {}", tableName, e);
+        }
+    }
+
+    private void enableTimeToLive(String tableName, String attributeName) {
+        try {
+            TimeToLiveDescription ttl = dynamoDbClient.describeTimeToLive(DescribeTimeToLiveRequest.builder()
+                    .tableName(tableName)
+                    .build()).timeToLiveDescription();
+            if (ttl.timeToLiveStatus() == TimeToLiveStatus.ENABLED
+                    || ttl.timeToLiveStatus() == TimeToLiveStatus.ENABLING) {
+                return;
+            }
+            dynamoDbClient.updateTimeToLive(UpdateTimeToLiveRequest.builder()
+                    .tableName(tableName)
+                    .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                            .attributeName(attributeName)
+                            .enabled(true)
+                            .build())
+                    .build());
+            LOG.info("Time to live enabled on {}.{}", tableName, attributeName);
+        } catch (Exception e) {
+            LOG.error("Error enabling time to live on {}", tableName, e);
+        }
+    }
+
+    /**
+     * Adds a global index on the notifications table: the sparse time-bucket
+     * index used for scheduled sends, the per-user index behind the inbox, or
+     * the sparse outbox index of open deliveries. Done with UpdateTable so tables
+     * created before the index existed get it too. Returns whether it was added.
+     */
+    private boolean ensureIndex(String indexName, String hashKey, String rangeKey, ScalarAttributeType rangeType) {
+        try {
+            TableDescription table = dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                    .tableName("notifications")
+                    .build()).table();
+            if (table.hasGlobalSecondaryIndexes() && table.globalSecondaryIndexes().stream()
+                    .anyMatch(index -> indexName.equals(index.indexName()))) {
+                return false;
+            }
+            dynamoDbClient.updateTable(UpdateTableRequest.builder()
                     .tableName("notifications")
+                    .attributeDefinitions(
+                            AttributeDefinition.builder()
+                                    .attributeName(hashKey)
+                                    .attributeType(ScalarAttributeType.S)
+                                    .build(),
+                            AttributeDefinition.builder()
+                                    .attributeName(rangeKey)
+                                    .attributeType(rangeType)
+                                    .build()
+                    )
+                    .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                            .create(CreateGlobalSecondaryIndexAction.builder()
+                                    .indexName(indexName)
+                                    .keySchema(
+                                            KeySchemaElement.builder()
+                                                    .attributeName(hashKey)
+                                                    .keyType(KeyType.HASH)
+                                                    .build(),
+                                            KeySchemaElement.builder()
+                                                    .attributeName(rangeKey)
+                                                    .keyType(KeyType.RANGE)
+                                                    .build()
+                                    )
+                                    .projection(Projection.builder()
+                                            .projectionType(ProjectionType.ALL)
+                                            .build())
+                                    .provisionedThroughput(
+                                            ProvisionedThroughput.builder()
+                                                    .readCapacityUnits(5L)
+                                                    .writeCapacityUnits(5L)
+                                                    .build()
+                                    )
+                                    .build())
+                            .build())
+                    .build());
+            LOG.info("Index {} created successfully", indexName);
+            return true;
+        } catch (Exception e) {
+            LOG.error("Error creating index {}", indexName, e);
+            return false;
+        }
+    }
+
+    /**
+     * Gives open deliveries written before the outbox index existed a
+     * {@code dueAt}, so they show up in it. They are made due now; a claim still
+     * checks the lease or backoff, so an early pick-up is harmless.
+     */
+    private void backfillDueAt() {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":pending", AttributeValue.builder().s(DeliveryStatus.PENDING.name()).build());
+        values.put(":inFlight", AttributeValue.builder().s(DeliveryStatus.IN_FLIGHT.name()).build());
+        values.put(":retry", AttributeValue.builder().s(DeliveryStatus.RETRY_SCHEDULED.name()).build());
+        values.put(":dead", AttributeValue.builder().s(DeliveryStatus.DEAD_LETTER.name()).build());
+        Map<String, AttributeValue> dueNow = Map.of(":now",
+                AttributeValue.builder().n(String.valueOf(System.currentTimeMillis())).build());
+        try {
+            long updated = dynamoDbClient.scanPaginator(ScanRequest.builder()
+                            .tableName("notifications")
+                            .projectionExpression("id")
+                            .filterExpression("deliveryStatus IN (:pending, :inFlight, :retry, :dead) "
+                                    + "AND attribute_not_exists(dueAt)")
+                            .expressionAttributeValues(values)
+                            .build())
+                    .items()
+                    .stream()
+                    .peek(item -> dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                            .tableName("notifications")
+                            .key(Map.of("id", item.get("id")))
+                            .updateExpression("SET dueAt = if_not_exists(dueAt, :now)")
+                            .expressionAttributeValues(dueNow)
+                            .build()))
+                    .count();
+            LOG.info("Backfilled dueAt on {} open notifications", updated);
+        } catch (Exception e) {
+            LOG.error("Error backfilling dueAt", e);
+        }
+    }
+
+    private void createTable(String tableName) {
+        try {
+            CreateTableRequest request = CreateTableRequest.builder()
+                    .tableName(tableName)
                     .keySchema(
                             KeySchemaElement.builder()
                                     .attributeName("id")
@@ -45,11 +206,11 @@ public class DynamoDbTableInitializer {
                     .build();
 
             dynamoDbClient.createTable(request);
-            LOG.info("Notifications table created successfully");
+            LOG.info("Table {} created successfully", tableName);
         } catch (ResourceInUseException e) {
-            LOG.info("Notifications table already exists");
+            LOG.info("Table {} already exists", tableName);
         } catch (Exception e) {
-            LOG.error("Error creating notifications table", e);
+            LOG.error("Error creating table {}", tableName, e);
         }
     }
 } 
\ No newline at end of file
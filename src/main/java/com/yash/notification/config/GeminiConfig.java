@@ -3,10 +3,16 @@ package com.yash.notification.config;
 import io.micronaut.context.annotation.ConfigurationProperties;
 import jakarta.inject.Singleton;
 
+import java.time.Duration;
+
 @Singleton
 @ConfigurationProperties("micronaut.gemini")
 public class GeminiConfig {
     private String apiKey;
+    private int cacheSize = 1_000;
+    private Duration cacheTtl = Duration.ofHours(1);
+    private int maxInFlight = 4;
+    private Duration timeout = Duration.ofSeconds(15);
 
     public String getApiKey() {
         return apiKey;
@@ -15,4 +21,46 @@ public class GeminiConfig {
     public void setApiKey(String apiKey) {
         this.apiKey = apiKey;
     }
-}
\ No newline at end of file
+
+    /**
+     * Generated messages kept, least recently used first out. Expired entries
+     * stay until evicted, as the fallback when Gemini fails.
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * How long a generated message is reused for the same prompt.
+     */
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Gemini calls in flight; generations beyond it are answered from the fallback.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,56 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.inbox")
+public class InboxConfig {
+
+    private int connectionBuffer = 256;
+    private int replaySize = 100;
+    private Duration heartbeatInterval = Duration.ofSeconds(25);
+    private Duration retention = Duration.ofMinutes(5);
+
+    /**
+     * Events queued per connection before a client that is not reading is
+     * disconnected.
+     */
+    public int getConnectionBuffer() {
+        return connectionBuffer;
+    }
+
+    public void setConnectionBuffer(int connectionBuffer) {
+        this.connectionBuffer = connectionBuffer;
+    }
+
+    /**
+     * Recent events kept per user so a reconnecting client can resume.
+     */
+    public int getReplaySize() {
+        return replaySize;
+    }
+
+    public void setReplaySize(int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * How long a user's recent events are kept after their last connection closed.
+     */
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,89 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.lanes")
+public class LaneConfig {
+
+    private int capacity = 64;
+    private int reservedCapacity = 16;
+    private int urgentWeight = 8;
+    private int highWeight = 4;
+    private int mediumWeight = 2;
+    private int lowWeight = 1;
+    private Duration mediumTtl = Duration.ofHours(6);
+    private Duration lowTtl = Duration.ofHours(1);
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getReservedCapacity() {
+        return reservedCapacity;
+    }
+
+    public void setReservedCapacity(int reservedCapacity) {
+        this.reservedCapacity = reservedCapacity;
+    }
+
+    public int getUrgentWeight() {
+        return urgentWeight;
+    }
+
+    public void setUrgentWeight(int urgentWeight) {
+        this.urgentWeight = urgentWeight;
+    }
+
+    public int getHighWeight() {
+        return highWeight;
+    }
+
+    public void setHighWeight(int highWeight) {
+        this.highWeight = highWeight;
+    }
+
+    public int getMediumWeight() {
+        return mediumWeight;
+    }
+
+    public void setMediumWeight(int mediumWeight) {
+        this.mediumWeight = mediumWeight;
+    }
+
+    public int getLowWeight() {
+        return lowWeight;
+    }
+
+    public void setLowWeight(int lowWeight) {
+        this.lowWeight = lowWeight;
+    }
+
+    /**
+     * How long a MEDIUM notification is worth delivering: its lane expires it
+     * after this, and its push payload carries it as the FCM/APNs TTL.
+     */
+    public Duration getMediumTtl() {
+        return mediumTtl;
+    }
+
+    public void setMediumTtl(Duration mediumTtl) {
+        this.mediumTtl = mediumTtl;
+    }
+
+    /**
+     * Same as {@link #getMediumTtl()} for LOW notifications.
+     */
+    public Duration getLowTtl() {
+        return lowTtl;
+    }
+
+    public void setLowTtl(Duration lowTtl) {
+        this.lowTtl = lowTtl;
+    }
+}
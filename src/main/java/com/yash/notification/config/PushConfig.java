@@ -0,0 +1,37 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.push")
+public class PushConfig {
+
+    private int deadTokenCacheSize = 100_000;
+    private Duration deadTokenTtl = Duration.ofDays(30);
+    private int invalidationBatchSize = 100;
+
+    public int getDeadTokenCacheSize() {
+        return deadTokenCacheSize;
+    }
+
+    public void setDeadTokenCacheSize(int deadTokenCacheSize) {
+        this.deadTokenCacheSize = deadTokenCacheSize;
+    }
+
+    public Duration getDeadTokenTtl() {
+        return deadTokenTtl;
+    }
+
+    public void setDeadTokenTtl(Duration deadTokenTtl) {
+        this.deadTokenTtl = deadTokenTtl;
+    }
+
+    public int getInvalidationBatchSize() {
+        return invalidationBatchSize;
+    }
+
+    public void setInvalidationBatchSize(int invalidationBatchSize) {
+        this.invalidationBatchSize = invalidationBatchSize;
+    }
+}
@@ -0,0 +1,118 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.rate-limit")
+public class RateLimitConfig {
+
+    public enum Action {
+        REJECT,
+        DIGEST
+    }
+
+    private boolean enabled = true;
+    private Action action = Action.DIGEST;
+    private Duration period = Duration.ofMinutes(1);
+    private int urgentLimit = 60;
+    private int highLimit = 30;
+    private int mediumLimit = 10;
+    private int lowLimit = 10;
+    private int digestLimit = 100;
+    private int stripes = 64;
+    private int maxTrackedBuckets = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(Duration period) {
+        this.period = period;
+    }
+
+    public int getUrgentLimit() {
+        return urgentLimit;
+    }
+
+    public void setUrgentLimit(int urgentLimit) {
+        this.urgentLimit = urgentLimit;
+    }
+
+    public int getHighLimit() {
+        return highLimit;
+    }
+
+    public void setHighLimit(int highLimit) {
+        this.highLimit = highLimit;
+    }
+
+    public int getMediumLimit() {
+        return mediumLimit;
+    }
+
+    public void setMediumLimit(int mediumLimit) {
+        this.mediumLimit = mediumLimit;
+    }
+
+    public int getLowLimit() {
+        return lowLimit;
+    }
+
+    public void setLowLimit(int lowLimit) {
+        this.lowLimit = lowLimit;
+    }
+
+    /**
+     * Notifications per period that may be downgraded into one user's digest;
+     * beyond that they are rejected even in DIGEST mode.
+     */
+    public int getDigestLimit() {
+        return digestLimit;
+    }
+
+    public void setDigestLimit(int digestLimit) {
+        this.digestLimit = digestLimit;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getMaxTrackedBuckets() {
+        return maxTrackedBuckets;
+    }
+
+    public void setMaxTrackedBuckets(int maxTrackedBuckets) {
+        this.maxTrackedBuckets = maxTrackedBuckets;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
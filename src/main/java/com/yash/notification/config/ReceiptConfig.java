@@ -0,0 +1,44 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+@ConfigurationProperties("notifications.receipts")
+public class ReceiptConfig {
+
+    private boolean enabled = true;
+    private int queueCapacity = 10_000;
+    private int batchSize = 500;
+    private int writeConcurrency = 8;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWriteConcurrency() {
+        return writeConcurrency;
+    }
+
+    public void setWriteConcurrency(int writeConcurrency) {
+        this.writeConcurrency = writeConcurrency;
+    }
+}
@@ -0,0 +1,92 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.retry")
+public class RetryConfig {
+
+    private int maxAttempts = 6;
+    private Duration initialBackoff = Duration.ofSeconds(30);
+    private Duration maxBackoff = Duration.ofMinutes(30);
+    private double multiplier = 2.0;
+    private double jitter = 0.5;
+    private int batchSize = 50;
+    // Sends made directly for a request are retried in memory, so their content is never stored
+    private int directMaxAttempts = 4;
+    private Duration directInitialBackoff = Duration.ofSeconds(2);
+    private Duration directMaxBackoff = Duration.ofSeconds(30);
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getDirectMaxAttempts() {
+        return directMaxAttempts;
+    }
+
+    public void setDirectMaxAttempts(int directMaxAttempts) {
+        this.directMaxAttempts = directMaxAttempts;
+    }
+
+    public Duration getDirectInitialBackoff() {
+        return directInitialBackoff;
+    }
+
+    public void setDirectInitialBackoff(Duration directInitialBackoff) {
+        this.directInitialBackoff = directInitialBackoff;
+    }
+
+    public Duration getDirectMaxBackoff() {
+        return directMaxBackoff;
+    }
+
+    public void setDirectMaxBackoff(Duration directMaxBackoff) {
+        this.directMaxBackoff = directMaxBackoff;
+    }
+}
@@ -0,0 +1,64 @@
+package com.yash.notification.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("notifications.send-at")
+public class SendAtConfig {
+
+    private Duration tick = Duration.ofSeconds(1);
+    private int wheelSize = 60;
+    private int wheelLevels = 3;
+    private Duration bucketWidth = Duration.ofMinutes(5);
+    private Duration horizon = Duration.ofMinutes(15);
+    private Duration recoveryWindow = Duration.ofHours(24);
+
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+
+    public int getWheelLevels() {
+        return wheelLevels;
+    }
+
+    public void setWheelLevels(int wheelLevels) {
+        this.wheelLevels = wheelLevels;
+    }
+
+    public Duration getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public void setBucketWidth(Duration bucketWidth) {
+        this.bucketWidth = bucketWidth;
+    }
+
+    public Duration getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(Duration horizon) {
+        this.horizon = horizon;
+    }
+
+    public Duration getRecoveryWindow() {
+        return recoveryWindow;
+    }
+
+    public void setRecoveryWindow(Duration recoveryWindow) {
+        this.recoveryWindow = recoveryWindow;
+    }
+}
@@ -0,0 +1,57 @@
+package com.yash.notification.controller;
+
+import com.yash.notification.delivery.InboxHub;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.websocket.CloseReason;
+import io.micronaut.websocket.WebSocketSession;
+import io.micronaut.websocket.annotation.OnClose;
+import io.micronaut.websocket.annotation.OnMessage;
+import io.micronaut.websocket.annotation.OnOpen;
+import io.micronaut.websocket.annotation.ServerWebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Live inbox of one user over WebSocket. Sends {@code InboxEvent}s as JSON;
+ * a client reconnecting passes the id of the last event it saw as
+ * {@code ?lastEventId=} to resume. Clients are not expected to send anything.
+ */
+@ServerWebSocket("/ws/notifications/{userId}")
+public class InboxWebSocket {
+    private static final Logger LOG = LoggerFactory.getLogger(InboxWebSocket.class);
+
+    private static final String SUBSCRIPTION = "inbox-subscription";
+
+    private final InboxHub inboxHub;
+
+    public InboxWebSocket(InboxHub inboxHub) {
+        this.inboxHub = inboxHub;
+    }
+
+    @OnOpen
+    public void onOpen(UUID userId, WebSocketSession session, HttpRequest<?> request) {
+        String lastEventId = request.getParameters().get("lastEventId");
+        Disposable subscription = inboxHub.stream(userId, lastEventId)
+                // One send at a time, so a slow socket fills the connection's buffer
+                .concatMap(event -> Mono.from(session.send(event)))
+                .subscribe(event -> { }, e -> {
+                    LOG.info("[INBOX] Closing live inbox of user {}: {}", userId, e.getMessage());
+                    session.close(CloseReason.TRY_AGAIN_LATER);
+                });
+        session.put(SUBSCRIPTION, subscription);
+    }
+
+    @OnMessage
+    public void onMessage(String message, WebSocketSession session) {
+        // Nothing to do: the channel is server to client only
+    }
+
+    @OnClose
+    public void onClose(WebSocketSession session) {
+        session.get(SUBSCRIPTION, Disposable.class).ifPresent(Disposable::dispose);
+    }
+}
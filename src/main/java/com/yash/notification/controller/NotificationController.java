@@ -3,10 +3,30 @@ package com.yash.notification.controller;
 import com.yash.notification.model.Notification;
 import com.yash.notification.model.NotificationPriority;
 import com.yash.notification.service.NotificationService;
+import com.yash.notification.delivery.BatchIngestor;
+import com.yash.notification.delivery.BroadcastJobRunner;
+import com.yash.notification.delivery.ChannelRouter;
+import com.yash.notification.delivery.DuplicateFilter;
+import com.yash.notification.delivery.IdempotencyStore;
+import com.yash.notification.delivery.InboxHub;
+import com.yash.notification.delivery.InboxVersions;
+import com.yash.notification.delivery.RetryQueue;
+import com.yash.notification.delivery.UserRateLimiter;
+import com.yash.notification.dto.BatchItemResult;
+import com.yash.notification.dto.BroadcastJobResponse;
 import com.yash.notification.dto.BroadcastNotificationRequest;
+import com.yash.notification.dto.DeliveryReportResponse;
+import com.yash.notification.dto.InboxEvent;
+import com.yash.notification.dto.NotificationSummary;
+import com.yash.notification.exception.ValidationException;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.*;
+import io.micronaut.http.sse.Event;
+import io.micronaut.json.tree.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -20,8 +40,11 @@ import jakarta.inject.Named;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import com.yash.notification.dto.CreateNotificationRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Controller("/api/notifications")
@@ -31,33 +54,86 @@ public class NotificationController {
     private final NotificationService emailNotificationService;
     private final NotificationService pushNotificationService;
     private final GeminiService geminiService;
+    private final BroadcastJobRunner broadcastJobRunner;
+    private final RetryQueue retryQueue;
+    private final ChannelRouter channelRouter;
+    private final UserRateLimiter userRateLimiter;
+    private final DuplicateFilter duplicateFilter;
+    private final IdempotencyStore idempotencyStore;
+    private final InboxHub inboxHub;
+    private final InboxVersions inboxVersions;
+    private final BatchIngestor batchIngestor;
 
     public NotificationController(
             @Named("email") NotificationService emailNotificationService,
             @Named("push") NotificationService pushNotificationService,
-            GeminiService geminiService) {
+            GeminiService geminiService,
+            BroadcastJobRunner broadcastJobRunner,
+            RetryQueue retryQueue,
+            ChannelRouter channelRouter,
+            UserRateLimiter userRateLimiter,
+            DuplicateFilter duplicateFilter,
+            IdempotencyStore idempotencyStore,
+            InboxHub inboxHub,
+            InboxVersions inboxVersions,
+            BatchIngestor batchIngestor) {
         this.emailNotificationService = emailNotificationService;
         this.pushNotificationService = pushNotificationService;
         this.geminiService = geminiService;
+        this.broadcastJobRunner = broadcastJobRunner;
+        this.retryQueue = retryQueue;
+        this.channelRouter = channelRouter;
+        this.userRateLimiter = userRateLimiter;
+        this.duplicateFilter = duplicateFilter;
+        this.idempotencyStore = idempotencyStore;
+        this.inboxHub = inboxHub;
+        this.inboxVersions = inboxVersions;
+        this.batchIngestor = batchIngestor;
     }
 
     @Post
     @Operation(summary = "Create a new notification")
-    public Mono<HttpResponse<Notification>> createNotification(@Body @Valid Notification notification) {
+    public Mono<HttpResponse<Notification>> createNotification(@Body @Valid Notification notification,
+            @Nullable @Header(IdempotencyStore.HEADER) String idempotencyKey) {
         LOG.info("Creating new notification");
-        return emailNotificationService.createNotification(notification)
-                .map(HttpResponse::created);
+        // Keyed on the request as sent, before any rate-limit downgrade
+        String dedupKey = duplicateFilter.keyFor(notification);
+        return idempotencyStore.execute("create", idempotencyKey, IdempotencyStore.fingerprint(notification),
+                Notification.class,
+                // Duplicates are turned away before they use up the user's rate limit
+                () -> duplicateFilter.guard(dedupKey,
+                                () -> Mono.fromCallable(() -> userRateLimiter.admit(notification))
+                                        .flatMap(admitted -> admitted.getChannels() != null
+                                                && !admitted.getChannels().isEmpty()
+                                                ? channelRouter.send(admitted, admitted.getChannels())
+                                                : emailNotificationService.createNotification(admitted)))
+                        .map(HttpResponse::created));
+    }
+
+    @Post(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_JSON_STREAM, BatchIngestor.NDJSON},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_JSON_STREAM})
+    @Operation(summary = "Create notifications from a JSON array or NDJSON stream, with a result per item")
+    public Flux<BatchItemResult> createNotifications(@Body Flux<JsonNode> notifications) {
+        LOG.info("Creating notifications in batch");
+        return batchIngestor.ingest(notifications);
     }
 
     @Post("/user-creation")
-    public Mono<HttpResponse<Notification>> createUserNotification(@Body @Valid CreateNotificationRequest request) {
+    public Mono<HttpResponse<Notification>> createUserNotification(@Body @Valid CreateNotificationRequest request,
+            @Nullable @Header(IdempotencyStore.HEADER) String idempotencyKey) {
         Notification notification = new Notification();
         notification.setUserId(request.getUserId());
         notification.setTitle(request.getTitle());
         notification.setMessage(request.getMessage());
         notification.setPriority(NotificationPriority.HIGH); // or whatever default
-        return emailNotificationService.createNotification(notification)
-                .map(HttpResponse::created);
+        notification.setSendAt(request.getSendAt());
+        String dedupKey = duplicateFilter.keyFor(notification);
+        return idempotencyStore.execute("user-creation", idempotencyKey, request, Notification.class,
+                () -> duplicateFilter.guard(dedupKey,
+                                () -> Mono.fromCallable(() -> userRateLimiter.admit(notification))
+                                        .flatMap(emailNotificationService::createNotification))
+                        .map(HttpResponse::created));
     }
 
     @Get
@@ -73,23 +149,77 @@ public class NotificationController {
 
     @Get("/{id}")
     @Operation(summary = "Get notification by ID")
-    public Mono<MutableHttpResponse<Notification>> getNotificationById(@PathVariable String id) {
-        LOG.info("Fetching notification with id: {}", id);
+    public Mono<MutableHttpResponse<Notification>> getNotificationById(@PathVariable String id,
+            @Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        // The tag is the owner's inbox version and the id, so any change to the inbox revalidates it
+        return inboxVersions.currentTag(ifNoneMatch, id)
+                .map(current -> HttpResponse.<Notification>notModified().header(HttpHeaders.ETAG, current))
+                .switchIfEmpty(Mono.defer(() -> {
+                    LOG.info("Fetching notification with id: {}", id);
+                    return emailNotificationService.getNotificationById(id)
+                            .flatMap(notification -> notification.getUserId() != null
+                                    ? inboxVersions.etag(notification.getUserId(), id)
+                                            .map(etag -> HttpResponse.ok(notification).header(HttpHeaders.ETAG, etag))
+                                    : Mono.just(HttpResponse.ok(notification)))
+                            .defaultIfEmpty(HttpResponse.notFound((Notification) null));
+                }));
+    }
+
+    @Get("/{id}/delivery")
+    @Operation(summary = "Get per-device and per-recipient delivery receipts of a notification")
+    public Mono<MutableHttpResponse<DeliveryReportResponse>> getDeliveryReport(@PathVariable String id) {
         return emailNotificationService.getNotificationById(id)
-                .map(HttpResponse::ok)
-                .defaultIfEmpty(HttpResponse.notFound((Notification) null));
+                .map(notification -> HttpResponse.ok(DeliveryReportResponse.from(notification)))
+                .defaultIfEmpty(HttpResponse.notFound((DeliveryReportResponse) null));
     }
 
+    /**
+     * With {@code fields} (e.g. {@code fields=summary} or {@code fields=id,title,read})
+     * the page holds {@link NotificationSummary} items with only those fields,
+     * and only their attributes are read from DynamoDB.
+     */
     @Get("/user/{userId}")
     @Operation(summary = "Get notifications by user ID")
-    public Mono<HttpResponse<Page<Notification>>> getNotificationsByUserId(
+    public Mono<HttpResponse<Page<?>>> getNotificationsByUserId(
             @QueryValue(defaultValue = "0") int page,
             @QueryValue(defaultValue = "2") int size,
-            @PathVariable UUID userId) {
-        LOG.info("Fetching notifications for user: {}", userId);
-        Pageable pageable = Pageable.from(page, size);
-        return emailNotificationService.getNotificationsByUserId(pageable, userId)
-                .map(HttpResponse::ok);
+            @PathVariable UUID userId,
+            @Nullable @QueryValue String fields,
+            @Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        Set<String> projection;
+        try {
+            projection = fields != null ? NotificationSummary.parseFields(fields) : null;
+        } catch (ValidationException e) {
+            return Mono.error(e);
+        }
+        // Taken before reading, so a change that races with the read shows up on the next poll
+        return inboxVersions.etag(userId).flatMap(etag -> {
+            if (inboxVersions.matches(ifNoneMatch, etag)) {
+                return Mono.just(HttpResponse.<Page<?>>notModified().header(HttpHeaders.ETAG, etag));
+            }
+            LOG.info("Fetching notifications for user: {}", userId);
+            Pageable pageable = Pageable.from(page, size);
+            Mono<? extends Page<?>> result = projection != null
+                    ? emailNotificationService.getNotificationSummariesByUserId(pageable, userId, projection)
+                    : emailNotificationService.getNotificationsByUserId(pageable, userId);
+            return result.map(body -> HttpResponse.<Page<?>>ok(body).header(HttpHeaders.ETAG, etag));
+        });
+    }
+
+    /**
+     * Server-sent events fallback for the live inbox WebSocket. Browsers resend
+     * the last event id on reconnect, which resumes the stream.
+     */
+    @Get(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM)
+    @Operation(summary = "Stream inbox changes of a user as server-sent events")
+    public Flux<Event<InboxEvent>> streamInbox(@PathVariable UUID userId,
+            @Nullable @Header("Last-Event-ID") String lastEventId) {
+        return inboxHub.stream(userId, lastEventId)
+                .map(inboxEvent -> {
+                    Event<InboxEvent> event = Event.of(inboxEvent).name(inboxEvent.getType().name().toLowerCase());
+                    // Heartbeats carry no id, so they do not move the client's resume point
+                    return inboxEvent.getId() != null ? event.id(inboxEvent.getId()) : event;
+                });
     }
 
     // Uncomment and refactor if needed
@@ -130,17 +260,57 @@ public class NotificationController {
     }
 
     @Post("/broadcast")
-    @Operation(summary = "Broadcast notification to all users")
-    public Mono<HttpResponse<Void>> broadcastNotification(@Body @Valid BroadcastNotificationRequest request) {
+    @Operation(summary = "Start a broadcast job to all users")
+    public Mono<HttpResponse<BroadcastJobResponse>> broadcastNotification(
+            @Body @Valid BroadcastNotificationRequest request,
+            @Nullable @Header(IdempotencyStore.HEADER) String idempotencyKey) {
         if (!"push".equalsIgnoreCase(request.getChannel()) && !"email".equalsIgnoreCase(request.getChannel())) {
             return Mono.just(HttpResponse.badRequest());
         }
-        NotificationService notificationService = "push".equalsIgnoreCase(request.getChannel())
-                ? pushNotificationService
-                : emailNotificationService;
-        return notificationService
-                .broadcastNotification(request.getTitle(), request.getMessage(), request.getPriority())
-                .thenReturn(HttpResponse.accepted());
+        String dedupKey = duplicateFilter.keyForBroadcast(request.getChannel(), request.getTitle(),
+                request.getMessage());
+        return idempotencyStore.execute("broadcast", idempotencyKey, request, BroadcastJobResponse.class,
+                () -> duplicateFilter.guard(dedupKey, () -> broadcastJobRunner
+                                .start(request.getChannel(), request.getTitle(), request.getMessage(),
+                                        request.getPriority()))
+                        .map(job -> HttpResponse.accepted().body(BroadcastJobResponse.from(job))));
+    }
+
+    @Get("/broadcast/{jobId}")
+    @Operation(summary = "Get broadcast job progress")
+    public Mono<MutableHttpResponse<BroadcastJobResponse>> getBroadcastJob(@PathVariable String jobId) {
+        return broadcastJobRunner.findById(jobId)
+                .map(job -> HttpResponse.ok(BroadcastJobResponse.from(job)))
+                .defaultIfEmpty(HttpResponse.notFound((BroadcastJobResponse) null));
+    }
+
+    @Delete("/broadcast/{jobId}")
+    @Operation(summary = "Cancel a running broadcast job")
+    public Mono<MutableHttpResponse<BroadcastJobResponse>> cancelBroadcastJob(@PathVariable String jobId) {
+        LOG.info("Cancelling broadcast job: {}", jobId);
+        return broadcastJobRunner.cancel(jobId)
+                .map(job -> HttpResponse.ok(BroadcastJobResponse.from(job)))
+                .defaultIfEmpty(HttpResponse.notFound((BroadcastJobResponse) null));
+    }
+
+    @Get("/dead-letters")
+    @Operation(summary = "List notifications that exhausted their delivery retries")
+    public Flux<Notification> getDeadLetters() {
+        return retryQueue.deadLetters();
+    }
+
+    @Post("/dead-letters/replay")
+    @Operation(summary = "Replay all dead-lettered notifications")
+    public Mono<HttpResponse<Map<String, Long>>> replayDeadLetters() {
+        return retryQueue.replayAll()
+                .map(count -> HttpResponse.accepted().body(Map.of("replayed", count)));
+    }
+
+    @Post("/dead-letters/{id}/replay")
+    @Operation(summary = "Replay one dead-lettered notification")
+    public Mono<HttpResponse<Void>> replayDeadLetter(@PathVariable String id) {
+        return retryQueue.replay(id)
+                .map(requeued -> requeued ? HttpResponse.<Void>accepted() : HttpResponse.<Void>notFound());
     }
 
     @Post("/test/welcome")
@@ -0,0 +1,217 @@
+package com.yash.notification.delivery;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * AIMD concurrency limiter for a single downstream provider.
+ * <p>
+ * The in-flight limit grows by roughly one per round trip while latency stays
+ * within {@code latencyTolerance} of the observed baseline, shrinks gently when
+ * latency drifts above it, and is cut by {@code backoffRatio} whenever a call
+ * fails with an overload signal (429, 5xx, timeout, throttling).
+ * Decreases are applied at most once per sampling window: a call only cuts the
+ * limit if no other decrease happened since it started, so a burst of
+ * timeouts from calls that were in flight together counts as one signal.
+ * Callers over the limit wait in a FIFO queue instead of hitting the provider.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final Predicate<Throwable> overloadClassifier;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private double limit;
+    private int inFlight;
+    private double baselineRttNanos;
+    private double smoothedRttNanos;
+    // Bumped on every decrease; a call samples the window it started in
+    private long window;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+            double backoffRatio, double latencyTolerance, Predicate<Throwable> overloadClassifier) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.overloadClassifier = overloadClassifier;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return waiters.size();
+    }
+
+    /**
+     * Runs {@code call} once a slot is available. Errors are fed to the
+     * overload classifier and propagated unchanged.
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return execute(call, result -> false);
+    }
+
+    /**
+     * Variant for providers that report failure through their result rather
+     * than an error signal; results matching {@code overloaded} count as a drop.
+     */
+    public <T> Mono<T> execute(Mono<T> call, Predicate<? super T> overloaded) {
+        return Mono.usingWhen(acquire(),
+                permit -> {
+                    long start = System.nanoTime();
+                    return call
+                            .doOnSuccess(result -> {
+                                if (result != null && overloaded.test(result)) {
+                                    onDrop(permit);
+                                } else {
+                                    onSample(permit, System.nanoTime() - start);
+                                }
+                            })
+                            .doOnError(e -> {
+                                if (overloadClassifier.test(e)) {
+                                    onDrop(permit);
+                                }
+                            });
+                },
+                permit -> Mono.fromRunnable(permit::release),
+                (permit, e) -> Mono.fromRunnable(permit::release),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+            synchronized (this) {
+                if (inFlight < (int) limit && waiters.isEmpty()) {
+                    inFlight++;
+                    sink.success(new Permit(window));
+                    return;
+                }
+                Waiter waiter = new Waiter(sink);
+                sink.onCancel(() -> {
+                    if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+                        waiters.remove(waiter);
+                    }
+                });
+                waiters.add(waiter);
+            }
+            drain();
+        }).doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    private void drain() {
+        List<Waiter> granted = new ArrayList<>();
+        long grantedWindow;
+        synchronized (this) {
+            while (inFlight < (int) limit) {
+                Waiter waiter = waiters.poll();
+                if (waiter == null) {
+                    break;
+                }
+                if (waiter.state.compareAndSet(WAITING, GRANTED)) {
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+            grantedWindow = window;
+        }
+        for (Waiter waiter : granted) {
+            waiter.sink.success(new Permit(grantedWindow));
+        }
+    }
+
+    private synchronized void onSample(Permit permit, long rttNanos) {
+        if (baselineRttNanos == 0) {
+            baselineRttNanos = rttNanos;
+            smoothedRttNanos = rttNanos;
+        } else {
+            smoothedRttNanos += SMOOTHING * (rttNanos - smoothedRttNanos);
+            baselineRttNanos = rttNanos < baselineRttNanos
+                    ? rttNanos
+                    : baselineRttNanos + BASELINE_DRIFT * (rttNanos - baselineRttNanos);
+        }
+
+        if (smoothedRttNanos > baselineRttNanos * latencyTolerance) {
+            decrease(permit, LATENCY_BACKOFF);
+        } else if (inFlight * 2 >= (int) limit) {
+            // Only grow when the limit is actually being used, otherwise an idle
+            // provider would ratchet the limit up without any evidence.
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private synchronized void onDrop(Permit permit) {
+        decrease(permit, backoffRatio);
+    }
+
+    private void decrease(Permit permit, double ratio) {
+        if (permit.window != window) {
+            // Started before the last decrease, which already reacted to this window
+            return;
+        }
+        limit = Math.max(minLimit, limit * ratio);
+        window++;
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private final long window;
+
+        Permit(long window) {
+            this.window = window;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimiter.this.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.BatchConfig;
+import com.yash.notification.dto.BatchItemResult;
+import com.yash.notification.exception.RateLimitExceededException;
+import com.yash.notification.exception.ValidationException;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.json.tree.JsonNode;
+import jakarta.inject.Singleton;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Creates notifications from a streamed batch request.
+ * <p>
+ * Items are parsed, validated and rate limited one at a time as they arrive,
+ * written {@link NotificationRepository#MAX_BATCH_WRITE} at a time with at most
+ * {@code writeConcurrency} writes in flight, and handed to the outbox like
+ * single creates. Demand flows back to the request body, so a large batch is
+ * never held in memory. Results come out in request order, one per item.
+ */
+@Singleton
+public class BatchIngestor {
+    private static final Logger LOG = LoggerFactory.getLogger(BatchIngestor.class);
+
+    /**
+     * Newline-delimited JSON; read like {@code application/x-json-stream} via the
+     * JSON codec's additional types.
+     */
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final String DEFAULT_CHANNEL = "email";
+
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final UserRateLimiter userRateLimiter;
+    private final ChannelRouter channelRouter;
+    private final SendAtScheduler sendAtScheduler;
+    private final NotificationRepository notificationRepository;
+    private final BatchConfig batchConfig;
+    private final Counter accepted;
+    private final Counter rejected;
+
+    public BatchIngestor(JsonMapper jsonMapper,
+            Validator validator,
+            UserRateLimiter userRateLimiter,
+            ChannelRouter channelRouter,
+            SendAtScheduler sendAtScheduler,
+            NotificationRepository notificationRepository,
+            BatchConfig batchConfig,
+            MeterRegistry meterRegistry) {
+        this.jsonMapper = jsonMapper;
+        this.validator = validator;
+        this.userRateLimiter = userRateLimiter;
+        this.channelRouter = channelRouter;
+        this.sendAtScheduler = sendAtScheduler;
+        this.notificationRepository = notificationRepository;
+        this.batchConfig = batchConfig;
+        this.accepted = itemCounter("accepted", meterRegistry);
+        this.rejected = itemCounter("rejected", meterRegistry);
+    }
+
+    private static Counter itemCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("notification.batch.items")
+                .description("Items of batch create requests, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public Flux<BatchItemResult> ingest(Flux<JsonNode> items) {
+        int maxItems = batchConfig.getMaxItems();
+        return items.index()
+                // One item past the limit is read to report it; the rest of the body is not
+                .takeUntil(item -> item.getT1() >= maxItems)
+                .map(item -> item.getT1() >= maxItems
+                        ? Item.rejected(item.getT1(), "A batch is limited to " + maxItems + " items")
+                        : prepare(item.getT1(), item.getT2()))
+                .buffer(NotificationRepository.MAX_BATCH_WRITE)
+                .flatMapSequential(this::write, batchConfig.getWriteConcurrency())
+                .doOnNext(result -> (result.getStatus() == BatchItemResult.Status.ACCEPTED ? accepted : rejected)
+                        .increment());
+    }
+
+    private Item prepare(long index, JsonNode node) {
+        Notification notification;
+        try {
+            notification = jsonMapper.readValueFromTree(node, Notification.class);
+        } catch (IOException | RuntimeException e) {
+            return Item.rejected(index, "Malformed notification: " + e.getMessage());
+        }
+        Set<ConstraintViolation<Notification>> violations = validator.validate(notification);
+        if (!violations.isEmpty()) {
+            return Item.rejected(index, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        try {
+            Notification admitted = userRateLimiter.admit(notification);
+            // Same set-up as a single create, except that nothing is saved yet. Both paths end in
+            // SendAtScheduler.prepare, which drops any delivery state the item carried
+            if (admitted.getChannels() != null && !admitted.getChannels().isEmpty()) {
+                channelRouter.prepare(admitted, admitted.getChannels());
+            } else {
+                admitted.setChannel(DEFAULT_CHANNEL);
+                sendAtScheduler.prepare(admitted);
+            }
+            // Ids are always the server's, whatever the item or the channel set-up carried,
+            // so an item can never overwrite a stored notification
+            admitted.setId(UUID.randomUUID().toString());
+            admitted.setRead(false);
+            admitted.setCreatedAt(LocalDateTime.now());
+            return new Item(index, admitted, null);
+        } catch (RateLimitExceededException | ValidationException e) {
+            return Item.rejected(index, e.getMessage());
+        }
+    }
+
+    private Flux<BatchItemResult> write(List<Item> chunk) {
+        List<Notification> notifications = new ArrayList<>();
+        chunk.stream()
+                .filter(item -> item.notification != null)
+                .forEach(item -> notifications.add(item.notification));
+        return notificationRepository.saveAll(notifications)
+                .onErrorResume(e -> {
+                    LOG.error("[BATCH] Could not write {} notifications: {}", notifications.size(), e.getMessage(), e);
+                    return Mono.just(notifications);
+                })
+                .flatMapIterable(unwritten -> {
+                    Set<String> failed = new HashSet<>();
+                    unwritten.forEach(notification -> failed.add(notification.getId()));
+                    List<BatchItemResult> results = new ArrayList<>(chunk.size());
+                    for (Item item : chunk) {
+                        if (item.notification == null) {
+                            results.add(BatchItemResult.rejected(item.index, item.error));
+                        } else if (failed.contains(item.notification.getId())) {
+                            results.add(BatchItemResult.rejected(item.index, "Could not be stored, retry the item"));
+                        } else {
+                            sendAtScheduler.submit(item.notification);
+                            results.add(BatchItemResult.accepted(item.index, item.notification.getId()));
+                        }
+                    }
+                    return results;
+                });
+    }
+
+    private static final class Item {
+        final long index;
+        final Notification notification;
+        final String error;
+
+        Item(long index, Notification notification, String error) {
+            this.index = index;
+            this.notification = notification;
+            this.error = error;
+        }
+
+        static Item rejected(long index, String error) {
+            return new Item(index, null, error);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.BroadcastConfig;
+import com.yash.notification.dto.UserDto;
+import com.yash.notification.model.BroadcastJob;
+import com.yash.notification.model.BroadcastJobStatus;
+import com.yash.notification.model.NotificationPriority;
+import com.yash.notification.repository.BroadcastJobRepository;
+import com.yash.notification.service.NotificationService;
+import com.yash.notification.service.UserService;
+import io.micronaut.context.BeanContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Runs broadcast jobs spread over every instance of the service.
+ * <p>
+ * A job's audience is split into the partitions of the
+ * {@link PartitionLeaseManager}, by user id. Each instance runs the partitions
+ * it currently holds the lease for, for every running job, so throughput grows
+ * with the number of instances. A partition walks its users in id order and
+ * checkpoints its cursor after each chunk; when a partition changes owner, the
+ * new owner picks the job up on its next poll and continues from that cursor,
+ * and the old owner stops at its next checkpoint. A chunk resumed that way
+ * skips the recipients whose notification for the job already has a delivered
+ * outcome, so it only reaches the rest. A partition that fails, including a
+ * chunk that fails, is retried from its cursor after a backoff that doubles
+ * with every failed run; once one partition has failed
+ * {@code maxPartitionAttempts} times the job is marked FAILED. Cancellation
+ * takes effect at each partition's next checkpoint. A shutdown stops every partition
+ * at its next checkpoint, or cancels it at the drain deadline, which leaves the
+ * same cursor for the new owner.
+ */
+@Singleton
+public class BroadcastJobRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(BroadcastJobRunner.class);
+
+    private final BroadcastJobRepository broadcastJobRepository;
+    private final UserService userService;
+    private final BeanContext beanContext;
+    private final BroadcastConfig broadcastConfig;
+    private final PartitionLeaseManager partitionLeaseManager;
+    private final DeliveryTracker deliveryTracker;
+    private final Set<String> runningPartitions = ConcurrentHashMap.newKeySet();
+
+    public BroadcastJobRunner(BroadcastJobRepository broadcastJobRepository,
+            UserService userService,
+            BeanContext beanContext,
+            BroadcastConfig broadcastConfig,
+            PartitionLeaseManager partitionLeaseManager,
+            DeliveryTracker deliveryTracker) {
+        this.broadcastJobRepository = broadcastJobRepository;
+        this.userService = userService;
+        this.beanContext = beanContext;
+        this.broadcastConfig = broadcastConfig;
+        this.partitionLeaseManager = partitionLeaseManager;
+        this.deliveryTracker = deliveryTracker;
+    }
+
+    public Mono<BroadcastJob> start(String channel, String title, String message, NotificationPriority priority) {
+        BroadcastJob job = new BroadcastJob();
+        job.setChannel(channel.toLowerCase());
+        job.setTitle(title);
+        job.setMessage(message);
+        job.setPriority(priority);
+        job.setJobStatus(BroadcastJobStatus.RUNNING);
+        job.setPartitionCount(partitionLeaseManager.getPartitionCount());
+        return broadcastJobRepository.save(job)
+                .doOnNext(saved -> {
+                    LOG.info("[BROADCAST JOB] Started job {} on channel {} over {} partitions", saved.getId(),
+                            saved.getChannel(), saved.getPartitionCount());
+                    // Other instances start their partitions on their next poll
+                    runOwnedPartitions(saved);
+                });
+    }
+
+    public Mono<BroadcastJob> findById(String id) {
+        return broadcastJobRepository.findById(id);
+    }
+
+    /**
+     * Marks the job cancelled and emits its latest state; empty if it does not exist.
+     */
+    public Mono<BroadcastJob> cancel(String id) {
+        return broadcastJobRepository.cancel(id)
+                .doOnNext(cancelled -> {
+                    if (cancelled) {
+                        LOG.info("[BROADCAST JOB] Cancelled job {}", id);
+                    }
+                })
+                .then(broadcastJobRepository.findById(id));
+    }
+
+    @Scheduled(fixedDelay = "${notifications.broadcast.poll-interval:5s}", initialDelay = "15s")
+    public void pollJobs() {
+        if (!deliveryTracker.isAccepting() || partitionLeaseManager.ownedPartitions().isEmpty()) {
+            return;
+        }
+        broadcastJobRepository.findRunning()
+                .subscribe(this::runOwnedPartitions,
+                        e -> LOG.error("[BROADCAST JOB] Job poll failed: {}", e.getMessage(), e));
+    }
+
+    private void runOwnedPartitions(BroadcastJob job) {
+        Set<String> completed = job.getCompletedPartitions() != null ? job.getCompletedPartitions() : Set.of();
+        Map<String, Long> retryAt = job.getPartitionRetryAt() != null ? job.getPartitionRetryAt() : Map.of();
+        long now = System.currentTimeMillis();
+        List<Integer> partitions = partitionLeaseManager.ownedPartitions().stream()
+                .filter(partition -> partition < job.getPartitionCount())
+                .filter(partition -> !completed.contains(Integer.toString(partition)))
+                .filter(partition -> retryAt.getOrDefault(Integer.toString(partition), 0L) <= now)
+                .filter(partition -> runningPartitions.add(taskKey(job, partition)))
+                .toList();
+        if (partitions.isEmpty()) {
+            return;
+        }
+        NotificationService channel = beanContext.getBean(NotificationService.class,
+                Qualifiers.byName(job.getChannel()));
+        // The user service has no partitioned or cursor paging, so each instance
+        // fetches the audience once per job poll and keeps its own partitions.
+        Mono<Void> work = userService.getAllUsers()
+                .filter(user -> user.getId() != null)
+                .collectList()
+                .flatMapMany(users -> {
+                    Map<Integer, List<UserDto>> byPartition = users.stream()
+                            .sorted(Comparator.comparing(user -> user.getId().toString()))
+                            .collect(Collectors.groupingBy(user -> PartitionLeaseManager.partitionOf(user.getId(),
+                                    job.getPartitionCount())));
+                    return broadcastJobRepository.recordTotal(job.getId(), users.size())
+                            .thenMany(Flux.fromIterable(partitions))
+                            .flatMap(partition -> runPartition(job, partition,
+                                    byPartition.getOrDefault(partition, List.of()), channel)
+                                    .onErrorResume(e -> partitionFailed(job, partition, e)));
+                })
+                .then()
+                .onErrorResume(e -> Flux.fromIterable(partitions)
+                        .concatMap(partition -> partitionFailed(job, partition, e))
+                        .then())
+                .doFinally(signal -> partitions.forEach(
+                        partition -> runningPartitions.remove(taskKey(job, partition))));
+        // Cursors are checkpointed after every chunk and the drain flushes receipts of the current
+        // one, so whoever resumes it skips the recipients already reached
+        if (!deliveryTracker.submit("broadcast job " + job.getId() + " partitions " + partitions, work,
+                Mono::empty)) {
+            partitions.forEach(partition -> runningPartitions.remove(taskKey(job, partition)));
+        }
+    }
+
+    private Mono<Void> runPartition(BroadcastJob job, int partition, List<UserDto> users,
+            NotificationService channel) {
+        String startCursor = job.getPartitionCursors() != null
+                ? job.getPartitionCursors().get(Integer.toString(partition))
+                : null;
+        AtomicReference<String> cursor = new AtomicReference<>(startCursor);
+        return Flux.fromIterable(users)
+                .filter(user -> startCursor == null || user.getId().toString().compareTo(startCursor) > 0)
+                .buffer(broadcastConfig.getChunkSize())
+                .concatMap(chunk -> {
+                    if (!partitionLeaseManager.owns(partition) || !deliveryTracker.isAccepting()) {
+                        return Mono.just(false);
+                    }
+                    // A failed chunk fails the partition, which runs it again after a backoff
+                    return channel.broadcastToUsers(chunk, job.getTitle(), job.getMessage(), job.getPriority(),
+                                    job.getId())
+                            .flatMap(reached -> {
+                                String last = lastUserId(chunk);
+                                return broadcastJobRepository.checkpoint(job.getId(), partition, cursor.get(), last,
+                                                reached, chunk.size() - reached)
+                                        .doOnNext(advanced -> {
+                                            if (advanced) {
+                                                cursor.set(last);
+                                            }
+                                        });
+                            });
+                })
+                .all(advanced -> advanced)
+                .flatMap(finished -> {
+                    if (!finished) {
+                        LOG.info("[BROADCAST JOB] Job {} partition {} stopped", job.getId(), partition);
+                        return Mono.empty();
+                    }
+                    return broadcastJobRepository.completePartition(job.getId(), partition)
+                            .doOnNext(jobDone -> {
+                                if (jobDone) {
+                                    LOG.info("[BROADCAST JOB] Job {} completed", job.getId());
+                                }
+                            });
+                })
+                .then();
+    }
+
+    /**
+     * Counts a failed run of the partition and schedules the next one, or fails
+     * the job once the partition is out of attempts.
+     */
+    private Mono<Void> partitionFailed(BroadcastJob job, int partition, Throwable error) {
+        int failedBefore = job.getPartitionAttempts() != null
+                ? job.getPartitionAttempts().getOrDefault(Integer.toString(partition), 0)
+                : 0;
+        long backoffMillis = Math.min(broadcastConfig.getPartitionRetryMaxBackoff().toMillis(),
+                broadcastConfig.getPartitionRetryBackoff().toMillis() << Math.min(failedBefore, 20));
+        LOG.error("[BROADCAST JOB] Job {} partition {} failed, retrying in {} ms: {}", job.getId(), partition,
+                backoffMillis, error.getMessage(), error);
+        return broadcastJobRepository.recordPartitionFailure(job.getId(), partition,
+                        System.currentTimeMillis() + backoffMillis)
+                .flatMap(attempts -> {
+                    if (attempts < broadcastConfig.getMaxPartitionAttempts()) {
+                        return Mono.empty();
+                    }
+                    return broadcastJobRepository.finish(job.getId(), BroadcastJobStatus.FAILED)
+                            .doOnNext(failed -> {
+                                if (failed) {
+                                    LOG.error("[BROADCAST JOB] Job {} failed: partition {} failed {} times",
+                                            job.getId(), partition, attempts);
+                                }
+                            });
+                })
+                .onErrorResume(e -> {
+                    LOG.error("[BROADCAST JOB] Could not record failure of job {} partition {}: {}", job.getId(),
+                            partition, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static String taskKey(BroadcastJob job, int partition) {
+        return job.getId() + "#" + partition;
+    }
+
+    private static String lastUserId(List<UserDto> chunk) {
+        return chunk.get(chunk.size() - 1).getId().toString();
+    }
+}
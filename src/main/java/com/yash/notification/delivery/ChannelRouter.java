@@ -0,0 +1,137 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.exception.ValidationException;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.NotificationRepository;
+import com.yash.notification.service.NotificationService;
+import com.yash.notification.service.UserService;
+import io.micronaut.context.BeanContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Sends one notification on several channels. The item is persisted once with a
+ * PENDING status per channel and handed to the outbox; on delivery the user and
+ * device lookups are shared through a {@link DeliveryContext} and the channels
+ * run in parallel. Channels are the {@code @Named} {@link NotificationService}
+ * beans, so adding a bean adds a channel.
+ * <p>
+ * A retry only re-sends the channels that have not succeeded yet.
+ */
+@Singleton
+public class ChannelRouter {
+    private static final Logger LOG = LoggerFactory.getLogger(ChannelRouter.class);
+
+    private final NotificationRepository notificationRepository;
+    private final UserService userService;
+    private final BeanContext beanContext;
+    private final SendAtScheduler sendAtScheduler;
+
+    public ChannelRouter(NotificationRepository notificationRepository,
+            UserService userService,
+            BeanContext beanContext,
+            SendAtScheduler sendAtScheduler) {
+        this.notificationRepository = notificationRepository;
+        this.userService = userService;
+        this.beanContext = beanContext;
+        this.sendAtScheduler = sendAtScheduler;
+    }
+
+    public Mono<Notification> send(Notification notification, Collection<String> channels) {
+        try {
+            prepare(notification, channels);
+        } catch (ValidationException e) {
+            return Mono.error(e);
+        }
+        return notificationRepository.save(notification)
+                .doOnNext(sendAtScheduler::submit);
+    }
+
+    /**
+     * Sets up a new notification for delivery on {@code channels} without saving
+     * it; the caller saves it and hands it to {@link SendAtScheduler#submit}.
+     *
+     * @throws ValidationException if a channel is unknown or none is given
+     */
+    public void prepare(Notification notification, Collection<String> channels) {
+        TreeSet<String> requested = new TreeSet<>();
+        for (String channel : channels) {
+            String name = channel.toLowerCase();
+            if (!beanContext.containsBean(NotificationService.class, Qualifiers.byName(name))) {
+                throw new ValidationException("Unknown channel: " + channel);
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            throw new ValidationException("At least one channel is required");
+        }
+        Map<String, DeliveryStatus> statuses = new HashMap<>();
+        requested.forEach(channel -> statuses.put(channel, DeliveryStatus.PENDING));
+        notification.setId(UUID.randomUUID().toString());
+        notification.setRead(false);
+        notification.setCreatedAt(LocalDateTime.now());
+        notification.setChannel(null);
+        notification.setChannels(new ArrayList<>(requested));
+        notification.setChannelStatuses(statuses);
+        sendAtScheduler.prepare(notification);
+    }
+
+    /**
+     * Delivers on every channel that has not succeeded yet and records each
+     * outcome. Emits FAILED if any channel failed, so the outbox retries it; a
+     * channel that was SKIPPED for lack of targets counts as settled.
+     */
+    public Mono<DeliveryStatus> deliver(Notification notification) {
+        DeliveryContext context = DeliveryContext.forUser(notification.getUserId(), userService);
+        Map<String, DeliveryStatus> statuses = notification.getChannelStatuses() != null
+                ? new HashMap<>(notification.getChannelStatuses())
+                : new HashMap<>();
+        return Flux.fromIterable(notification.getChannels())
+                .filter(channel -> !isSettled(statuses.get(channel)))
+                .flatMap(channel -> beanContext.getBean(NotificationService.class, Qualifiers.byName(channel))
+                        .deliver(notification, context)
+                        .defaultIfEmpty(DeliveryStatus.FAILED)
+                        .onErrorResume(e -> {
+                            LOG.error("[ROUTER] {} delivery failed for notification {}: {}", channel,
+                                    notification.getId(), e.getMessage(), e);
+                            notification.setLastError(channel + ": " + e.getMessage());
+                            return Mono.just(DeliveryStatus.FAILED);
+                        })
+                        .map(status -> Map.entry(channel, status)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(outcomes -> {
+                    statuses.putAll(outcomes);
+                    notification.setChannelStatuses(statuses);
+                    return notificationRepository.recordChannelStatuses(notification.getId(), outcomes)
+                            .thenReturn(overall(statuses.values()));
+                });
+    }
+
+    private static boolean isSettled(DeliveryStatus status) {
+        return status == DeliveryStatus.SENT || status == DeliveryStatus.DIGESTED
+                || status == DeliveryStatus.SKIPPED;
+    }
+
+    private static DeliveryStatus overall(Collection<DeliveryStatus> statuses) {
+        if (statuses.stream().anyMatch(status -> !isSettled(status))) {
+            return DeliveryStatus.FAILED;
+        }
+        if (statuses.contains(DeliveryStatus.SENT)) {
+            return DeliveryStatus.SENT;
+        }
+        return statuses.contains(DeliveryStatus.DIGESTED) ? DeliveryStatus.DIGESTED : DeliveryStatus.SKIPPED;
+    }
+}
@@ -0,0 +1,39 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.dto.UserDeviceDto;
+import com.yash.notification.dto.UserDto;
+import com.yash.notification.service.UserService;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Recipient lookups for one delivery attempt. Both lookups are lazy and cached,
+ * so channels delivering the same notification share a single user-service call
+ * each, and a channel that does not need devices never fetches them.
+ */
+public class DeliveryContext {
+
+    private final Mono<UserDto> user;
+    private final Mono<List<UserDeviceDto>> devices;
+
+    private DeliveryContext(Mono<UserDto> user, Mono<List<UserDeviceDto>> devices) {
+        this.user = user;
+        this.devices = devices;
+    }
+
+    public static DeliveryContext forUser(UUID userId, UserService userService) {
+        return new DeliveryContext(
+                Mono.defer(() -> userService.getUserById(userId)).cache(),
+                Mono.defer(() -> userService.getUserDevices(userId).collectList()).cache());
+    }
+
+    public Mono<UserDto> user() {
+        return user;
+    }
+
+    public Mono<List<UserDeviceDto>> devices() {
+        return devices;
+    }
+}
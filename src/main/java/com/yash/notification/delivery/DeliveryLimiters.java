@@ -0,0 +1,85 @@
+package com.yash.notification.delivery;
+
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.yash.notification.config.LimiterConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.client.exceptions.ReadTimeoutException;
+import jakarta.inject.Singleton;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per delivery provider, with current
+ * limit, in-flight and queued counts published as gauges tagged by provider.
+ */
+@Singleton
+public class DeliveryLimiters {
+
+    private final Map<DeliveryProvider, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(DeliveryProvider.class);
+
+    public DeliveryLimiters(LimiterConfig config, MeterRegistry meterRegistry) {
+        for (DeliveryProvider provider : DeliveryProvider.values()) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                    provider.name().toLowerCase(),
+                    config.getInitialLimit(),
+                    config.getMinLimit(),
+                    config.getMaxLimit(),
+                    config.getBackoffRatio(),
+                    config.getLatencyTolerance(),
+                    DeliveryLimiters::isOverload);
+            limiters.put(provider, limiter);
+            Gauge.builder("notification.delivery.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("provider", limiter.getName())
+                    .register(meterRegistry);
+            Gauge.builder("notification.delivery.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("provider", limiter.getName())
+                    .register(meterRegistry);
+            Gauge.builder("notification.delivery.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                    .tag("provider", limiter.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter get(DeliveryProvider provider) {
+        return limiters.get(provider);
+    }
+
+    /**
+     * Errors that mean "slow down": throttling, server errors and timeouts.
+     * Client errors such as a bad token or address do not affect the limit.
+     */
+    static boolean isOverload(Throwable e) {
+        if (e instanceof TimeoutException
+                || e instanceof ReadTimeoutException
+                || e instanceof ApiCallTimeoutException
+                || e instanceof ApiCallAttemptTimeoutException) {
+            return true;
+        }
+        if (e instanceof HttpClientResponseException) {
+            return isOverloadStatus(((HttpClientResponseException) e).getStatus().getCode());
+        }
+        if (e instanceof SdkServiceException) {
+            SdkServiceException sdk = (SdkServiceException) e;
+            return sdk.isThrottlingException() || isOverloadStatus(sdk.statusCode());
+        }
+        if (e instanceof FirebaseMessagingException) {
+            MessagingErrorCode code = ((FirebaseMessagingException) e).getMessagingErrorCode();
+            return code == MessagingErrorCode.QUOTA_EXCEEDED
+                    || code == MessagingErrorCode.UNAVAILABLE
+                    || code == MessagingErrorCode.INTERNAL;
+        }
+        return false;
+    }
+
+    static boolean isOverloadStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+}
@@ -0,0 +1,7 @@
+package com.yash.notification.delivery;
+
+public enum DeliveryProvider {
+    FCM,
+    SENDGRID,
+    DYNAMODB
+}
@@ -0,0 +1,115 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.model.DeliveryOutcome;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The provider's answer for one device or recipient. Stored on the notification
+ * as {@code target -> "D|reference|epochSeconds"} (or {@code F|...} for a
+ * failure), where the reference is the FCM message id, the SendGrid message id
+ * or status code, or the error code of a failure.
+ */
+public class DeliveryReceipt {
+    private static final String DELIVERED = "D";
+    private static final String FAILED = "F";
+
+    private final String target;
+    private final boolean delivered;
+    private final String reference;
+    private final long timestamp;
+
+    public DeliveryReceipt(String target, boolean delivered, String reference, long timestamp) {
+        this.target = target;
+        this.delivered = delivered;
+        this.reference = reference;
+        this.timestamp = timestamp;
+    }
+
+    public static DeliveryReceipt delivered(String target, String reference) {
+        return new DeliveryReceipt(target, true, reference, System.currentTimeMillis() / 1000);
+    }
+
+    public static DeliveryReceipt failed(String target, String reason) {
+        return new DeliveryReceipt(target, false, reason, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Receipt target for a device. Tokens are long and sensitive, so only a
+     * short hash is kept.
+     */
+    public static String deviceTarget(String fcmToken) {
+        return "device:" + shortHash(fcmToken);
+    }
+
+    /**
+     * Receipt target for an email recipient. Like device tokens, addresses are
+     * personal data and are only kept as a short hash, of the address in lower
+     * case.
+     */
+    public static String emailTarget(String email) {
+        return "email:" + shortHash(email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String shortHash(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static DeliveryReceipt decode(String target, String encoded) {
+        String[] parts = encoded.split("\\|", 3);
+        long timestamp = parts.length > 2 ? Long.parseLong(parts[2]) : 0;
+        return new DeliveryReceipt(target, DELIVERED.equals(parts[0]), parts.length > 1 ? parts[1] : "", timestamp);
+    }
+
+    /**
+     * Whether the stored receipts show {@code target} already accepted this
+     * notification, so a resent delivery can skip it.
+     */
+    public static boolean deliveredTo(Map<String, String> receipts, String target) {
+        if (receipts == null) {
+            return false;
+        }
+        String receipt = receipts.get(target);
+        return receipt != null && receipt.startsWith(DELIVERED + "|");
+    }
+
+    public static DeliveryOutcome outcomeOf(Collection<String> encodedReceipts) {
+        long delivered = encodedReceipts.stream().filter(receipt -> receipt.startsWith(DELIVERED + "|")).count();
+        if (delivered == 0) {
+            return DeliveryOutcome.FAILED;
+        }
+        return delivered == encodedReceipts.size() ? DeliveryOutcome.DELIVERED : DeliveryOutcome.PARTIAL;
+    }
+
+    public String encode() {
+        return (delivered ? DELIVERED : FAILED) + "|" + (reference != null ? reference.replace('|', '/') : "") + "|"
+                + timestamp;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public boolean isDelivered() {
+        return delivered;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,114 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.ReceiptConfig;
+import com.yash.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes delivery receipts off the send path. Senders only enqueue; a periodic
+ * flush drains the queue, merges everything queued for the same notification
+ * and writes it with one update per notification. When the queue is full new
+ * receipts are dropped and counted rather than slowing delivery down.
+ */
+@Singleton
+public class DeliveryReceiptRecorder {
+    private static final Logger LOG = LoggerFactory.getLogger(DeliveryReceiptRecorder.class);
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final NotificationRepository notificationRepository;
+    private final ReceiptConfig receiptConfig;
+    private final BlockingQueue<Pending> queue;
+    private final Counter recorded;
+    private final Counter dropped;
+
+    public DeliveryReceiptRecorder(NotificationRepository notificationRepository, ReceiptConfig receiptConfig,
+            MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.receiptConfig = receiptConfig;
+        this.queue = new ArrayBlockingQueue<>(receiptConfig.getQueueCapacity());
+        this.recorded = Counter.builder("notification.receipts.recorded")
+                .description("Delivery receipts written to notifications")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("notification.receipts.dropped")
+                .description("Delivery receipts dropped because the receipt queue was full")
+                .register(meterRegistry);
+    }
+
+    public void record(String notificationId, Collection<DeliveryReceipt> receipts) {
+        if (!receiptConfig.isEnabled() || notificationId == null || receipts.isEmpty()) {
+            return;
+        }
+        if (!queue.offer(new Pending(notificationId, List.copyOf(receipts)))) {
+            dropped.increment(receipts.size());
+        }
+    }
+
+    @Scheduled(fixedDelay = "${notifications.receipts.flush-interval:1s}")
+    public void flush() {
+        // Only what is queued now, so a steady stream of receipts cannot keep one flush going
+        int remaining = queue.size();
+        while (remaining > 0) {
+            List<Pending> batch = new ArrayList<>();
+            remaining -= queue.drainTo(batch, Math.min(remaining, receiptConfig.getBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            write(batch).block();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        List<Pending> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        write(batch).block(SHUTDOWN_FLUSH_TIMEOUT);
+    }
+
+    private Mono<Void> write(List<Pending> batch) {
+        // Later receipts for the same target replace earlier ones
+        Map<String, Map<String, String>> byNotification = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            Map<String, String> receipts = byNotification.computeIfAbsent(pending.notificationId,
+                    id -> new LinkedHashMap<>());
+            pending.receipts.forEach(receipt -> receipts.put(receipt.getTarget(), receipt.encode()));
+        }
+        return Flux.fromIterable(byNotification.entrySet())
+                .flatMap(entry -> notificationRepository.recordReceipts(entry.getKey(), entry.getValue())
+                                .doOnSuccess(v -> recorded.increment(entry.getValue().size()))
+                                .onErrorResume(e -> {
+                                    LOG.error("[RECEIPTS] Could not record receipts for {}: {}", entry.getKey(),
+                                            e.getMessage(), e);
+                                    return Mono.empty();
+                                }),
+                        receiptConfig.getWriteConcurrency())
+                .then();
+    }
+
+    private static final class Pending {
+        final String notificationId;
+        final List<DeliveryReceipt> receipts;
+
+        Pending(String notificationId, List<DeliveryReceipt> receipts) {
+            this.notificationId = notificationId;
+            this.receipts = receipts;
+        }
+    }
+}
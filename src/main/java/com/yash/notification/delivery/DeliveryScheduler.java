@@ -0,0 +1,217 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.LaneConfig;
+import com.yash.notification.exception.StaleDeliveryException;
+import com.yash.notification.model.NotificationPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs delivery work in per-priority lanes sharing a fixed number of slots.
+ * <p>
+ * Lanes are served by smooth weighted round robin, so a large LOW backlog only
+ * gets its share of slots. LOW and MEDIUM together may never occupy the slots
+ * reserved for URGENT/HIGH. Work that waited past its lane's TTL is failed with
+ * {@link StaleDeliveryException} instead of being run.
+ */
+@Singleton
+public class DeliveryScheduler {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final Map<NotificationPriority, Lane> lanes = new EnumMap<>(NotificationPriority.class);
+    private final int capacity;
+    private final int bulkCapacity;
+    private int inFlight;
+    private int inFlightBulk;
+
+    public DeliveryScheduler(LaneConfig config, MeterRegistry meterRegistry) {
+        this.capacity = config.getCapacity();
+        this.bulkCapacity = Math.max(1, config.getCapacity() - config.getReservedCapacity());
+        addLane(NotificationPriority.URGENT, config.getUrgentWeight(), Duration.ZERO, false, meterRegistry);
+        addLane(NotificationPriority.HIGH, config.getHighWeight(), Duration.ZERO, false, meterRegistry);
+        addLane(NotificationPriority.MEDIUM, config.getMediumWeight(), config.getMediumTtl(), true, meterRegistry);
+        addLane(NotificationPriority.LOW, config.getLowWeight(), config.getLowTtl(), true, meterRegistry);
+    }
+
+    private void addLane(NotificationPriority priority, int weight, Duration ttl, boolean bulk,
+            MeterRegistry meterRegistry) {
+        String tag = priority.name().toLowerCase();
+        Lane lane = new Lane(weight, ttl.toMillis(), bulk,
+                Timer.builder("notification.delivery.lane.wait")
+                        .description("Time delivery work waited for a slot")
+                        .tag("lane", tag)
+                        .register(meterRegistry),
+                Counter.builder("notification.delivery.lane.expired")
+                        .description("Delivery work dropped after exceeding the lane TTL")
+                        .tag("lane", tag)
+                        .register(meterRegistry));
+        lanes.put(priority, lane);
+        Gauge.builder("notification.delivery.lane.depth", this, scheduler -> scheduler.depth(lane))
+                .description("Delivery work queued in the lane")
+                .tag("lane", tag)
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> schedule(NotificationPriority priority, Mono<T> task) {
+        return schedule(priority, System.currentTimeMillis(), task);
+    }
+
+    /**
+     * Runs {@code task} once its lane is granted a slot. The lane TTL is measured
+     * from {@code createdAtMillis}, so work recovered after a restart keeps its age.
+     */
+    public <T> Mono<T> schedule(NotificationPriority priority, long createdAtMillis, Mono<T> task) {
+        Lane lane = lanes.get(priority != null ? priority : NotificationPriority.MEDIUM);
+        return Mono.usingWhen(acquire(lane, createdAtMillis),
+                slot -> task,
+                slot -> Mono.fromRunnable(slot::release),
+                (slot, e) -> Mono.fromRunnable(slot::release),
+                slot -> Mono.fromRunnable(slot::release));
+    }
+
+    private Mono<Slot> acquire(Lane lane, long createdAtMillis) {
+        return Mono.<Slot>create(sink -> {
+            Waiter waiter = new Waiter(sink, createdAtMillis);
+            sink.onCancel(() -> {
+                if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+                    synchronized (this) {
+                        lane.queue.remove(waiter);
+                    }
+                }
+            });
+            synchronized (this) {
+                lane.queue.add(waiter);
+            }
+            drain();
+        }).doOnDiscard(Slot.class, Slot::release);
+    }
+
+    private void release(Lane lane) {
+        synchronized (this) {
+            inFlight--;
+            if (lane.bulk) {
+                inFlightBulk--;
+            }
+        }
+        drain();
+    }
+
+    private void drain() {
+        List<Runnable> signals = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            while (inFlight < capacity) {
+                Lane lane = nextLane();
+                if (lane == null) {
+                    break;
+                }
+                Waiter waiter = lane.queue.poll();
+                if (!waiter.state.compareAndSet(WAITING, GRANTED)) {
+                    continue;
+                }
+                lane.waitTimer.record(Duration.ofMillis(now - waiter.enqueuedAt));
+                if (lane.ttlMillis > 0 && now - waiter.createdAt > lane.ttlMillis) {
+                    lane.expired.increment();
+                    signals.add(() -> waiter.sink.error(
+                            new StaleDeliveryException("Delivery exceeded lane TTL of " + lane.ttlMillis + "ms")));
+                    continue;
+                }
+                inFlight++;
+                if (lane.bulk) {
+                    inFlightBulk++;
+                }
+                Slot slot = new Slot(lane);
+                signals.add(() -> waiter.sink.success(slot));
+            }
+        }
+        signals.forEach(Runnable::run);
+    }
+
+    /**
+     * Smooth weighted round robin over lanes that have work and may take a slot.
+     */
+    private Lane nextLane() {
+        Lane best = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.queue.isEmpty() || (lane.bulk && inFlightBulk >= bulkCapacity)) {
+                continue;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (best == null || lane.currentWeight > best.currentWeight) {
+                best = lane;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return best;
+    }
+
+    private synchronized int depth(Lane lane) {
+        return lane.queue.size();
+    }
+
+    private static final class Lane {
+        final int weight;
+        final long ttlMillis;
+        final boolean bulk;
+        final Timer waitTimer;
+        final Counter expired;
+        final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        int currentWeight;
+
+        Lane(int weight, long ttlMillis, boolean bulk, Timer waitTimer, Counter expired) {
+            this.weight = weight;
+            this.ttlMillis = ttlMillis;
+            this.bulk = bulk;
+            this.waitTimer = waitTimer;
+            this.expired = expired;
+        }
+    }
+
+    private static final class Waiter {
+        final MonoSink<Slot> sink;
+        final long createdAt;
+        final long enqueuedAt = System.currentTimeMillis();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(MonoSink<Slot> sink, long createdAt) {
+            this.sink = sink;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final class Slot {
+        private final Lane lane;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        Slot(Lane lane) {
+            this.lane = lane;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                DeliveryScheduler.this.release(lane);
+            }
+        }
+    }
+}
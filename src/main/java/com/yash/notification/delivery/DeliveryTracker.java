@@ -0,0 +1,177 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.ShutdownConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.event.ShutdownEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Owns the subscriptions of delivery work so a shutdown can drain it.
+ * <p>
+ * On shutdown the tracker stops accepting work, then waits up to
+ * {@code drainTimeout} for what is running to finish. Work still running at
+ * the deadline is cancelled, the receipts it recorded so far are flushed, and
+ * then its checkpoint is run, which puts it back where another instance picks
+ * it up; the flushed receipts let that instance skip targets that were already
+ * reached. Work that is refused while draining is simply left in its stored
+ * state for the same reason.
+ * <p>
+ * Sends made directly for a request, outside the outbox, are {@link #track
+ * tracked} too, so the drain waits for them; one cut off at the deadline fails
+ * its request.
+ */
+@Singleton
+public class DeliveryTracker {
+    private static final Logger LOG = LoggerFactory.getLogger(DeliveryTracker.class);
+
+    private static final Duration CHECKPOINT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ShutdownConfig shutdownConfig;
+    private final DeliveryReceiptRecorder receiptRecorder;
+    private final Map<Long, Tracked> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object drained = new Object();
+    private final Counter abandoned;
+    private volatile boolean accepting = true;
+
+    public DeliveryTracker(ShutdownConfig shutdownConfig, DeliveryReceiptRecorder receiptRecorder,
+            MeterRegistry meterRegistry) {
+        this.shutdownConfig = shutdownConfig;
+        this.receiptRecorder = receiptRecorder;
+        Gauge.builder("notification.delivery.in.flight", inFlight, Map::size)
+                .description("Delivery work currently running on this instance")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("notification.delivery.shutdown.abandoned")
+                .description("Delivery work cancelled and checkpointed because it outlived the shutdown drain")
+                .register(meterRegistry);
+    }
+
+    public boolean isAccepting() {
+        return accepting;
+    }
+
+    /**
+     * Runs {@code work} and tracks it until it terminates. Returns false without
+     * running it if the instance is draining. {@code checkpoint} is only run if
+     * the work is cancelled at the drain deadline.
+     */
+    public boolean submit(String name, Mono<?> work, Supplier<Mono<Void>> checkpoint) {
+        if (!accepting) {
+            return false;
+        }
+        long id = sequence.incrementAndGet();
+        Disposable.Swap subscription = Disposables.swap();
+        // Registered before subscribing, so work that completes synchronously is removed again
+        inFlight.put(id, new Tracked(name, subscription, checkpoint));
+        subscription.update(work
+                .doFinally(signal -> finished(id))
+                .subscribe(v -> { }, e -> LOG.error("[DRAIN] {} failed: {}", name, e.getMessage(), e)));
+        return true;
+    }
+
+    /**
+     * Tracks work that a caller subscribes to itself, such as a send made for a
+     * request. It is tracked while subscribed, also while draining since the
+     * request is already under way, and fails if still running at the drain
+     * deadline.
+     */
+    public <T> Mono<T> track(String name, Mono<T> work) {
+        return Mono.defer(() -> {
+            long id = sequence.incrementAndGet();
+            Sinks.Empty<T> cutOff = Sinks.empty();
+            inFlight.put(id, new Tracked(name,
+                    () -> cutOff.tryEmitError(new IllegalStateException("Shut down before " + name + " finished")),
+                    Mono::empty));
+            return Mono.firstWithSignal(work, cutOff.asMono())
+                    .doFinally(signal -> finished(id));
+        });
+    }
+
+    private void finished(long id) {
+        inFlight.remove(id);
+        if (!accepting) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    @EventListener
+    public void onShutdown(ShutdownEvent event) {
+        drain();
+    }
+
+    public void drain() {
+        if (!accepting) {
+            return;
+        }
+        accepting = false;
+        LOG.info("[DRAIN] Waiting up to {} for {} in-flight deliveries", shutdownConfig.getDrainTimeout(),
+                inFlight.size());
+        long deadline = System.nanoTime() + shutdownConfig.getDrainTimeout().toNanos();
+        synchronized (drained) {
+            long remainingNanos;
+            while (!inFlight.isEmpty() && (remainingNanos = deadline - System.nanoTime()) > 0) {
+                try {
+                    drained.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        List<Tracked> remaining = new ArrayList<>(inFlight.values());
+        if (remaining.isEmpty()) {
+            LOG.info("[DRAIN] All in-flight deliveries finished");
+            return;
+        }
+        LOG.warn("[DRAIN] Checkpointing {} deliveries still in flight", remaining.size());
+        remaining.forEach(tracked -> tracked.subscription.dispose());
+        abandoned.increment(remaining.size());
+        // Before the claims go back, so whoever takes them over sees what was delivered
+        try {
+            receiptRecorder.flush();
+        } catch (RuntimeException e) {
+            LOG.error("[DRAIN] Could not flush delivery receipts: {}", e.getMessage(), e);
+        }
+        Flux.fromIterable(remaining)
+                .flatMap(tracked -> Mono.defer(tracked.checkpoint)
+                        .onErrorResume(e -> {
+                            LOG.error("[DRAIN] Could not checkpoint {}: {}", tracked.name, e.getMessage(), e);
+                            return Mono.empty();
+                        }))
+                .then()
+                .block(CHECKPOINT_TIMEOUT);
+    }
+
+    private static final class Tracked {
+        final String name;
+        final Disposable subscription;
+        final Supplier<Mono<Void>> checkpoint;
+
+        Tracked(String name, Disposable subscription, Supplier<Mono<Void>> checkpoint) {
+            this.name = name;
+            this.subscription = subscription;
+            this.checkpoint = checkpoint;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.DedupConfig;
+import com.yash.notification.exception.DuplicateResourceException;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.DedupMarkerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Suppresses identical requests arriving within the dedup window, typically
+ * producer retries after a timeout. Requests are keyed by a SHA-256 of user,
+ * title, message and channel.
+ * <p>
+ * Each instance keeps a {@link TimeBucketedBloomFilter} of the keys it has
+ * seen, which is consulted first. A key it has not seen is claimed with the
+ * conditional marker in DynamoDB, since a copy may have landed on another
+ * instance. A key it reports as seen is most likely a retry to this instance;
+ * it is only confirmed by reading the marker, so the copy costs a read rather
+ * than a rejected write, and a false positive goes on to claim the marker as
+ * usual. If the marker table cannot be reached the filter decides alone, so
+ * retry storms are still absorbed locally while DynamoDB is degraded. A
+ * request that fails after claiming its key releases it, so the producer's
+ * retry is not mistaken for a duplicate.
+ */
+@Singleton
+public class DuplicateFilter {
+    private static final Logger LOG = LoggerFactory.getLogger(DuplicateFilter.class);
+
+    private static final String DEFAULT_CHANNEL = "email";
+
+    private final DedupMarkerRepository dedupMarkerRepository;
+    private final DedupConfig dedupConfig;
+    private final TimeBucketedBloomFilter seen;
+    private final Counter suppressedByMarker;
+    private final Counter suppressedByFilter;
+    private final Counter filterFalsePositives;
+
+    public DuplicateFilter(DedupMarkerRepository dedupMarkerRepository, DedupConfig dedupConfig,
+            MeterRegistry meterRegistry) {
+        this.dedupMarkerRepository = dedupMarkerRepository;
+        this.dedupConfig = dedupConfig;
+        this.seen = new TimeBucketedBloomFilter(dedupConfig.getWindow().toMillis(), dedupConfig.getFilterSlices(),
+                dedupConfig.getExpectedItems(), dedupConfig.getFalsePositiveRate());
+        this.suppressedByMarker = suppressedCounter("marker", meterRegistry);
+        this.suppressedByFilter = suppressedCounter("filter", meterRegistry);
+        this.filterFalsePositives = Counter.builder("notification.dedup.filter.false.positives")
+                .description("Requests the local filter reported as seen that had no live marker")
+                .register(meterRegistry);
+    }
+
+    public String keyFor(Notification notification) {
+        String channel;
+        if (notification.getChannels() != null && !notification.getChannels().isEmpty()) {
+            TreeSet<String> channels = new TreeSet<>();
+            notification.getChannels().forEach(name -> channels.add(name.toLowerCase()));
+            channel = String.join(",", channels);
+        } else {
+            channel = notification.getChannel() != null ? notification.getChannel().toLowerCase() : DEFAULT_CHANNEL;
+        }
+        return contentHash(String.valueOf(notification.getUserId()), notification.getTitle(),
+                notification.getMessage(), channel);
+    }
+
+    public String keyForBroadcast(String channel, String title, String message) {
+        return contentHash("broadcast", title, message, channel.toLowerCase());
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already claimed inside the
+     * window, in which case it fails with {@link DuplicateResourceException}
+     * before anything is persisted or sent.
+     */
+    public <T> Mono<T> guard(String key, Supplier<Mono<T>> action) {
+        if (!dedupConfig.isEnabled()) {
+            return Mono.defer(action);
+        }
+        return claim(key)
+                .flatMap(first -> {
+                    if (!first) {
+                        return Mono.<T>error(new DuplicateResourceException(
+                                "Duplicate request suppressed within the dedup window"));
+                    }
+                    return Mono.defer(action)
+                            .onErrorResume(e -> release(key).then(Mono.error(e)));
+                });
+    }
+
+    private Mono<Boolean> claim(String key) {
+        long h1 = Long.parseUnsignedLong(key.substring(0, 16), 16);
+        long h2 = Long.parseUnsignedLong(key.substring(16, 32), 16);
+        long now = System.currentTimeMillis();
+        boolean seenLocally = seen.mightContain(h1, h2, now);
+        seen.put(h1, h2, now);
+        Mono<Boolean> confirmed = seenLocally
+                ? dedupMarkerRepository.exists(key, now)
+                : Mono.just(false);
+        return confirmed
+                .flatMap(duplicate -> {
+                    if (duplicate) {
+                        suppressedByFilter.increment();
+                        LOG.info("[DEDUP] Suppressed duplicate request {}", key);
+                        return Mono.just(false);
+                    }
+                    if (seenLocally) {
+                        filterFalsePositives.increment();
+                    }
+                    return dedupMarkerRepository.putIfAbsent(key, now, now + dedupConfig.getWindow().toMillis())
+                            .doOnNext(first -> {
+                                if (!first) {
+                                    suppressedByMarker.increment();
+                                    LOG.info("[DEDUP] Suppressed duplicate request {}", key);
+                                }
+                            });
+                })
+                .onErrorResume(e -> {
+                    LOG.warn("[DEDUP] Marker table unavailable, using local filter for {}: {}", key, e.getMessage());
+                    if (seenLocally) {
+                        suppressedByFilter.increment();
+                    }
+                    return Mono.just(!seenLocally);
+                });
+    }
+
+    private Mono<Void> release(String key) {
+        return dedupMarkerRepository.delete(key)
+                .onErrorResume(e -> {
+                    LOG.warn("[DEDUP] Could not release key {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private static Counter suppressedCounter(String source, MeterRegistry meterRegistry) {
+        return Counter.builder("notification.dedup.suppressed")
+                .description("Duplicate requests suppressed inside the dedup window")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private static String contentHash(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                // Separator so ("ab", "c") and ("a", "bc") hash differently
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
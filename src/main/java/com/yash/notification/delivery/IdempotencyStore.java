@@ -0,0 +1,227 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.IdempotencyConfig;
+import com.yash.notification.exception.DuplicateResourceException;
+import com.yash.notification.exception.ValidationException;
+import com.yash.notification.model.IdempotencyRecord;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Makes create endpoints safe to retry under an {@code Idempotency-Key}.
+ * <p>
+ * The first request with a key locks it with a conditional write, runs, and
+ * stores its status and body; later requests with the same key get that
+ * response back without running anything. Recent responses are also kept in a
+ * small in-memory LRU so most retries never reach DynamoDB. A key reused with a
+ * different request is rejected, and a request that fails releases its key so
+ * the client can retry it. A lock left by an instance that died mid-request
+ * expires after {@code lockTimeout}; an attempt that loses its lock that way
+ * cannot store or release over the attempt that took it over.
+ * <p>
+ * Requests are compared by what the client sent: for notifications see
+ * {@link #fingerprint(Notification)}, since the bound object carries generated
+ * ids and timestamps.
+ */
+@Singleton
+public class IdempotencyStore {
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final IdempotencyConfig idempotencyConfig;
+    private final JsonMapper jsonMapper;
+    private final Map<String, CachedResponse> cache;
+    private final Counter replayedFromCache;
+    private final Counter replayedFromStore;
+
+    public IdempotencyStore(IdempotencyRepository idempotencyRepository,
+            IdempotencyConfig idempotencyConfig,
+            JsonMapper jsonMapper,
+            MeterRegistry meterRegistry) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.idempotencyConfig = idempotencyConfig;
+        this.jsonMapper = jsonMapper;
+        int cacheSize = idempotencyConfig.getCacheSize();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.replayedFromCache = replayedCounter("cache", meterRegistry);
+        this.replayedFromStore = replayedCounter("store", meterRegistry);
+    }
+
+    /**
+     * The fields of a notification that come from the client, to pass as the
+     * {@code request} of {@link #execute}.
+     */
+    public static Map<String, String> fingerprint(Notification notification) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("userId", String.valueOf(notification.getUserId()));
+        fields.put("title", notification.getTitle());
+        fields.put("message", notification.getMessage());
+        fields.put("priority", String.valueOf(notification.getPriority()));
+        fields.put("channel", notification.getChannel());
+        fields.put("channels", String.valueOf(notification.getChannels()));
+        fields.put("sendAt", String.valueOf(notification.getSendAt()));
+        return fields;
+    }
+
+    /**
+     * Runs {@code action} once per {@code scope} and key. Without a key the
+     * action simply runs.
+     */
+    public <T> Mono<HttpResponse<T>> execute(String scope, @Nullable String key, Object request, Class<T> bodyType,
+            Supplier<Mono<HttpResponse<T>>> action) {
+        if (key == null || key.isBlank()) {
+            return Mono.defer(action);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new ValidationException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+        String id = scope + ":" + key;
+        String requestHash = requestHash(request);
+        long now = System.currentTimeMillis();
+        CachedResponse cached = cache.get(id);
+        if (cached != null && cached.expiresAtMillis > now) {
+            return replay(id, cached, requestHash, bodyType, replayedFromCache);
+        }
+        String lockToken = UUID.randomUUID().toString();
+        return idempotencyRepository.lock(id, lockToken, requestHash, now,
+                        now + idempotencyConfig.getLockTimeout().toMillis(), now + idempotencyConfig.getTtl().toMillis())
+                .flatMap(locked -> locked
+                        ? run(id, lockToken, requestHash, now, bodyType, action)
+                        : idempotencyRepository.findById(id)
+                                .switchIfEmpty(Mono.error(() -> inProgress(key)))
+                                .flatMap(record -> {
+                                    if (!record.isCompleted()) {
+                                        return Mono.error(inProgress(key));
+                                    }
+                                    CachedResponse stored = new CachedResponse(record.getStatusCode(),
+                                            record.getResponseBody(), record.getRequestHash(),
+                                            record.getExpiresAt() * 1000);
+                                    cache.put(id, stored);
+                                    return replay(id, stored, requestHash, bodyType, replayedFromStore);
+                                }));
+    }
+
+    private <T> Mono<HttpResponse<T>> run(String id, String lockToken, String requestHash, long startedAt,
+            Class<T> bodyType, Supplier<Mono<HttpResponse<T>>> action) {
+        return Mono.defer(action)
+                .flatMap(response -> {
+                    String body = response.getBody().map(this::toJson).orElse(null);
+                    int statusCode = response.getStatus().getCode();
+                    return idempotencyRepository.complete(id, lockToken, statusCode, body)
+                            .doOnNext(stored -> {
+                                if (stored) {
+                                    cache.put(id, new CachedResponse(statusCode, body, requestHash,
+                                            startedAt + idempotencyConfig.getTtl().toMillis()));
+                                } else {
+                                    LOG.warn("[IDEMPOTENCY] Lost the lock on {} before storing the response", id);
+                                }
+                            })
+                            .onErrorResume(e -> {
+                                // The request itself succeeded; at worst a retry runs into the lock timeout
+                                LOG.error("[IDEMPOTENCY] Could not store response for {}: {}", id, e.getMessage(), e);
+                                return Mono.empty();
+                            })
+                            .thenReturn(response);
+                })
+                .onErrorResume(e -> idempotencyRepository.release(id, lockToken)
+                        .onErrorResume(deleteError -> {
+                            LOG.warn("[IDEMPOTENCY] Could not release {}: {}", id, deleteError.getMessage());
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(e)));
+    }
+
+    private <T> Mono<HttpResponse<T>> replay(String id, CachedResponse cached, String requestHash,
+            Class<T> bodyType, Counter replayed) {
+        if (!cached.requestHash.equals(requestHash)) {
+            return Mono.error(new ValidationException(HEADER + " was already used for a different request"));
+        }
+        replayed.increment();
+        LOG.debug("[IDEMPOTENCY] Replaying stored response for {}", id);
+        MutableHttpResponse<T> response = HttpResponse.<T>status(HttpStatus.valueOf(cached.statusCode))
+                .header(REPLAYED_HEADER, "true");
+        if (cached.body != null) {
+            try {
+                response = response.body(jsonMapper.readValue(cached.body, bodyType));
+            } catch (IOException e) {
+                return Mono.error(new UncheckedIOException(e));
+            }
+        }
+        return Mono.just(response);
+    }
+
+    private String requestHash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(jsonMapper.writeValueAsBytes(request)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return jsonMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DuplicateResourceException inProgress(String key) {
+        return new DuplicateResourceException("A request with " + HEADER + " " + key + " is still in progress");
+    }
+
+    private static Counter replayedCounter(String source, MeterRegistry meterRegistry) {
+        return Counter.builder("notification.idempotency.replayed")
+                .description("Requests answered with the stored response for their Idempotency-Key")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private static final class CachedResponse {
+        final int statusCode;
+        final String body;
+        final String requestHash;
+        final long expiresAtMillis;
+
+        CachedResponse(int statusCode, String body, String requestHash, long expiresAtMillis) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.requestHash = requestHash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.InboxConfig;
+import com.yash.notification.dto.InboxEvent;
+import com.yash.notification.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans inbox changes out to the live connections of each user, so clients do
+ * not have to poll.
+ * <p>
+ * Every connection has its own bounded buffer; a client that stops reading is
+ * disconnected once its buffer is full instead of holding events in memory.
+ * The last {@code replaySize} events of each user are kept while the user has
+ * been connected within {@code retention}, so a client that reconnects with the
+ * id of the last event it saw gets what it missed. If that is no longer
+ * possible it gets a RESYNC event and reloads the list instead.
+ * <p>
+ * Changes are fanned out at once on the instance that made them; the
+ * {@link InboxRelay} brings changes made on other instances here from the
+ * table's stream, so a client only hears about those one relay poll later.
+ * Scheduled notifications are announced when they come due.
+ */
+@Singleton
+public class InboxHub {
+    private static final InboxEvent HEARTBEAT = new InboxEvent(null, InboxEvent.Type.HEARTBEAT, null, null);
+    private static final long LOCAL_CHANGE_RETENTION_MILLIS = 60_000;
+
+    private final InboxConfig inboxConfig;
+    // Ids are only meaningful on the instance that issued them
+    private final String instancePrefix = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<UUID, UserInbox> inboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    // Changes fanned out here, so their relayed copy is dropped; by time published
+    private final Map<String, Long> localChanges = new ConcurrentHashMap<>();
+    private final Counter slowClientsDisconnected;
+
+    public InboxHub(InboxConfig inboxConfig, MeterRegistry meterRegistry) {
+        this.inboxConfig = inboxConfig;
+        Gauge.builder("notification.inbox.connections", connections, AtomicInteger::get)
+                .description("Open live inbox connections on this instance")
+                .register(meterRegistry);
+        this.slowClientsDisconnected = Counter.builder("notification.inbox.slow.clients.disconnected")
+                .description("Live inbox connections closed because the client fell behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Announces a notification that has become visible: when created, or when
+     * its send time comes for a scheduled one.
+     */
+    public void notificationCreated(Notification notification) {
+        publish(notification.getUserId(), InboxEvent.Type.CREATED, notification.getId(), notification);
+    }
+
+    public void notificationRead(UUID userId, String notificationId) {
+        publish(userId, InboxEvent.Type.READ, notificationId, null);
+    }
+
+    public void notificationDeleted(UUID userId, String notificationId) {
+        publish(userId, InboxEvent.Type.DELETED, notificationId, null);
+    }
+
+    /**
+     * A change read back from the table's stream. Dropped if this instance made
+     * it and already fanned it out.
+     */
+    public void relay(@Nullable UUID userId, InboxEvent.Type type, String notificationId,
+            @Nullable Notification notification) {
+        if (userId == null || localChanges.remove(changeKey(type, notificationId)) != null) {
+            return;
+        }
+        fanOut(userId, type, notificationId, notification);
+    }
+
+    /**
+     * The user's inbox changes from now on, preceded by what was missed since
+     * {@code lastEventId} if given, with a heartbeat every
+     * {@code heartbeatInterval}. Fails if the client falls behind by more than
+     * its buffer.
+     */
+    public Flux<InboxEvent> stream(UUID userId, @Nullable String lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.Many<InboxEvent> connection = Sinks.many().unicast()
+                    .onBackpressureBuffer(new ArrayBlockingQueue<>(inboxConfig.getConnectionBuffer()));
+            // Replay and registration happen under the map's lock for this user,
+            // so no event is missed or sent twice in between
+            inboxes.compute(userId, (id, existing) -> {
+                UserInbox inbox = existing != null ? existing : new UserInbox(sequence.get());
+                List<InboxEvent> missed = lastEventId != null ? inbox.eventsAfter(lastEventId) : List.of();
+                if (missed == null || missed.size() >= inboxConfig.getConnectionBuffer()) {
+                    connection.tryEmitNext(new InboxEvent(nextId(), InboxEvent.Type.RESYNC, null, null));
+                } else {
+                    missed.forEach(connection::tryEmitNext);
+                }
+                inbox.connections.add(connection);
+                return inbox;
+            });
+            connections.incrementAndGet();
+            Flux<InboxEvent> heartbeats = Flux.interval(inboxConfig.getHeartbeatInterval())
+                    .map(tick -> HEARTBEAT);
+            return Flux.merge(connection.asFlux(), heartbeats)
+                    .doFinally(signal -> {
+                        connections.decrementAndGet();
+                        inboxes.computeIfPresent(userId, (id, inbox) -> {
+                            inbox.connections.remove(connection);
+                            inbox.lastDisconnect = System.currentTimeMillis();
+                            return inbox;
+                        });
+                    });
+        });
+    }
+
+    @Scheduled(fixedDelay = "1m")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - inboxConfig.getRetention().toMillis();
+        new ArrayList<>(inboxes.keySet()).forEach(userId -> inboxes.computeIfPresent(userId,
+                (id, inbox) -> inbox.connections.isEmpty() && inbox.lastDisconnect < cutoff ? null : inbox));
+        // A relayed copy that never came, e.g. because the write failed
+        long changeCutoff = System.currentTimeMillis() - LOCAL_CHANGE_RETENTION_MILLIS;
+        localChanges.values().removeIf(publishedAt -> publishedAt < changeCutoff);
+    }
+
+    private void publish(@Nullable UUID userId, InboxEvent.Type type, String notificationId,
+            @Nullable Notification notification) {
+        if (userId == null) {
+            return;
+        }
+        if (inboxes.containsKey(userId)) {
+            localChanges.put(changeKey(type, notificationId), System.currentTimeMillis());
+        }
+        fanOut(userId, type, notificationId, notification);
+    }
+
+    private void fanOut(UUID userId, InboxEvent.Type type, String notificationId,
+            @Nullable Notification notification) {
+        // Users with no recent connection here have no inbox and cost nothing
+        inboxes.computeIfPresent(userId, (id, inbox) -> {
+            long seq = sequence.incrementAndGet();
+            InboxEvent event = new InboxEvent(instancePrefix + "-" + seq, type, notificationId, notification);
+            inbox.remember(seq, event, inboxConfig.getReplaySize());
+            inbox.connections.removeIf(connection -> {
+                Sinks.EmitResult result = connection.tryEmitNext(event);
+                if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                    slowClientsDisconnected.increment();
+                    connection.tryEmitError(new IllegalStateException("Inbox client fell behind"));
+                }
+                return result.isFailure();
+            });
+            return inbox;
+        });
+    }
+
+    private static String changeKey(InboxEvent.Type type, String notificationId) {
+        return type + ":" + notificationId;
+    }
+
+    private String nextId() {
+        return instancePrefix + "-" + sequence.incrementAndGet();
+    }
+
+    private final class UserInbox {
+        final Set<Sinks.Many<InboxEvent>> connections = ConcurrentHashMap.newKeySet();
+        final ArrayDeque<Recent> recent = new ArrayDeque<>();
+        // Events up to here are not in the replay buffer
+        long knownFrom;
+        long lastDisconnect = System.currentTimeMillis();
+
+        UserInbox(long knownFrom) {
+            this.knownFrom = knownFrom;
+        }
+
+        void remember(long seq, InboxEvent event, int max) {
+            recent.addLast(new Recent(seq, event));
+            while (recent.size() > max) {
+                knownFrom = recent.removeFirst().seq;
+            }
+        }
+
+        /**
+         * Events after the given id, or null if some of them are no longer known.
+         */
+        List<InboxEvent> eventsAfter(String lastEventId) {
+            long lastSeq = parse(lastEventId);
+            if (lastSeq < knownFrom || lastSeq > sequence.get()) {
+                return null;
+            }
+            List<InboxEvent> events = new ArrayList<>();
+            for (Recent entry : recent) {
+                if (entry.seq > lastSeq) {
+                    events.add(entry.event);
+                }
+            }
+            return events;
+        }
+
+        private long parse(String eventId) {
+            String prefix = instancePrefix + "-";
+            if (!eventId.startsWith(prefix)) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(eventId.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    private static final class Recent {
+        final long seq;
+        final InboxEvent event;
+
+        Recent(long seq, InboxEvent event) {
+            this.seq = seq;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.dto.InboxEvent;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.NotificationRepository;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.StreamDescription;
+import software.amazon.awssdk.services.dynamodb.model.TrimmedDataAccessException;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Relays inbox changes made on other instances to the {@link InboxHub} by
+ * reading the notifications table's DynamoDB stream.
+ * <p>
+ * Every instance reads every shard from where the stream was when it started;
+ * changes it made itself were already fanned out and are dropped by the hub.
+ * Shards are rediscovered every {@code SHARD_REFRESH_MILLIS}, or as soon as one
+ * closes, and shards that appear later are read from their start, so a split
+ * loses nothing. Changes reach clients on other instances within one poll.
+ */
+@Singleton
+public class InboxRelay {
+    private static final Logger LOG = LoggerFactory.getLogger(InboxRelay.class);
+
+    private static final TableSchema<Notification> SCHEMA = TableSchema.fromBean(Notification.class);
+    private static final long SHARD_REFRESH_MILLIS = 60_000;
+    private static final int RECORDS_PER_CALL = 1000;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbStreamsClient streamsClient;
+    private final InboxHub inboxHub;
+    // Open shards and where reading continues
+    private final Map<String, String> iterators = new HashMap<>();
+    private final Set<String> finishedShards = new HashSet<>();
+    private String streamArn;
+    private long shardsRefreshedAt;
+
+    public InboxRelay(DynamoDbClient dynamoDbClient, DynamoDbStreamsClient streamsClient, InboxHub inboxHub) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.streamsClient = streamsClient;
+        this.inboxHub = inboxHub;
+    }
+
+    @Scheduled(fixedDelay = "${notifications.inbox.relay-interval:1s}", initialDelay = "5s")
+    public void poll() {
+        try {
+            if (streamArn == null && !start()) {
+                return;
+            }
+            if (System.currentTimeMillis() - shardsRefreshedAt >= SHARD_REFRESH_MILLIS) {
+                refreshShards(ShardIteratorType.TRIM_HORIZON);
+            }
+            for (String shardId : new HashSet<>(iterators.keySet())) {
+                read(shardId);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("[INBOX RELAY] Poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean start() {
+        String arn = dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                .tableName(NotificationRepository.TABLE_NAME)
+                .build()).table().latestStreamArn();
+        if (arn == null) {
+            LOG.debug("[INBOX RELAY] No stream on {} yet", NotificationRepository.TABLE_NAME);
+            return false;
+        }
+        streamArn = arn;
+        // Only what happens from now on; the hub's replay covers the rest
+        refreshShards(ShardIteratorType.LATEST);
+        LOG.info("[INBOX RELAY] Reading {} shards of {}", iterators.size(), arn);
+        return true;
+    }
+
+    private void refreshShards(ShardIteratorType newShardStart) {
+        String lastShardId = null;
+        do {
+            StreamDescription stream = streamsClient.describeStream(DescribeStreamRequest.builder()
+                    .streamArn(streamArn)
+                    .exclusiveStartShardId(lastShardId)
+                    .build()).streamDescription();
+            for (Shard shard : stream.shards()) {
+                boolean closed = shard.sequenceNumberRange().endingSequenceNumber() != null;
+                String shardId = shard.shardId();
+                if (iterators.containsKey(shardId) || finishedShards.contains(shardId)
+                        || (closed && newShardStart == ShardIteratorType.LATEST)) {
+                    continue;
+                }
+                iterators.put(shardId, iterator(shardId, newShardStart));
+            }
+            lastShardId = stream.lastEvaluatedShardId();
+        } while (lastShardId != null);
+        shardsRefreshedAt = System.currentTimeMillis();
+    }
+
+    private String iterator(String shardId, ShardIteratorType type) {
+        return streamsClient.getShardIterator(GetShardIteratorRequest.builder()
+                .streamArn(streamArn)
+                .shardId(shardId)
+                .shardIteratorType(type)
+                .build()).shardIterator();
+    }
+
+    private void read(String shardId) {
+        GetRecordsResponse response;
+        try {
+            response = streamsClient.getRecords(GetRecordsRequest.builder()
+                    .shardIterator(iterators.get(shardId))
+                    .limit(RECORDS_PER_CALL)
+                    .build());
+        } catch (ExpiredIteratorException | TrimmedDataAccessException e) {
+            LOG.warn("[INBOX RELAY] Lost position in shard {}, continuing from now: {}", shardId, e.getMessage());
+            iterators.put(shardId, iterator(shardId, ShardIteratorType.LATEST));
+            return;
+        }
+        response.records().forEach(this::relay);
+        if (response.nextShardIterator() == null) {
+            // Closed by a split; its children show up on the next refresh
+            iterators.remove(shardId);
+            finishedShards.add(shardId);
+            shardsRefreshedAt = 0;
+        } else {
+            iterators.put(shardId, response.nextShardIterator());
+        }
+    }
+
+    private void relay(Record record) {
+        Map<String, AttributeValue> oldImage = record.dynamodb().oldImage();
+        Map<String, AttributeValue> newImage = record.dynamodb().newImage();
+        OperationType operation = record.eventName();
+        if (operation == OperationType.INSERT) {
+            Notification created = SCHEMA.mapToItem(newImage);
+            // Scheduled ones are announced when they come due
+            if (created.getDeliveryStatus() != DeliveryStatus.SCHEDULED) {
+                inboxHub.relay(created.getUserId(), InboxEvent.Type.CREATED, created.getId(), created);
+            }
+        } else if (operation == OperationType.MODIFY) {
+            Notification before = SCHEMA.mapToItem(oldImage);
+            Notification after = SCHEMA.mapToItem(newImage);
+            if (before.getDeliveryStatus() == DeliveryStatus.SCHEDULED
+                    && after.getDeliveryStatus() != DeliveryStatus.SCHEDULED) {
+                inboxHub.relay(after.getUserId(), InboxEvent.Type.CREATED, after.getId(), after);
+            }
+            if (!before.isRead() && after.isRead()) {
+                inboxHub.relay(after.getUserId(), InboxEvent.Type.READ, after.getId(), null);
+            }
+        } else if (operation == OperationType.REMOVE) {
+            AttributeValue userId = oldImage.get("userId");
+            if (userId != null && userId.s() != null) {
+                inboxHub.relay(UUID.fromString(userId.s()), InboxEvent.Type.DELETED, oldImage.get("id").s(), null);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.repository.InboxVersionRepository;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * ETags of inbox reads, built from the user's version in
+ * {@link InboxVersionRepository}, so an unchanged poll is answered with 304
+ * after one GetItem instead of a Query.
+ * <p>
+ * The version is incremented by the {@code NotificationRepository} with every
+ * write that changes the inbox, including scheduled notifications, and is
+ * shared by all instances, so a tag issued by one instance is valid on any.
+ */
+@Singleton
+public class InboxVersions {
+
+    private final InboxVersionRepository inboxVersionRepository;
+
+    public InboxVersions(InboxVersionRepository inboxVersionRepository) {
+        this.inboxVersionRepository = inboxVersionRepository;
+    }
+
+    /**
+     * Weak ETag of the user's inbox as it is now. Take it before reading, so a
+     * change that races with the read shows up as a new tag on the next poll.
+     */
+    public Mono<String> etag(UUID userId) {
+        return inboxVersionRepository.find(userId)
+                .map(version -> "W/\"" + userId + "." + version + "\"");
+    }
+
+    /**
+     * Weak ETag of one notification of the user's inbox. It also names the
+     * notification, so it is only valid for that one.
+     */
+    public Mono<String> etag(UUID userId, String notificationId) {
+        return inboxVersionRepository.find(userId)
+                .map(version -> "W/\"" + userId + "." + version + "." + notificationId + "\"");
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names {@code etag}.
+     */
+    public boolean matches(@Nullable String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            // Weak comparison: the W/ prefix is ignored
+            if (tag.indexOf('"') >= 0 && unquote(tag.trim()).equals(unquote(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The tag in an {@code If-None-Match} header that is still the current ETag
+     * of {@code notificationId}, or empty. The user is read from the tag itself,
+     * so this needs no lookup of the notification.
+     */
+    public Mono<String> currentTag(@Nullable String ifNoneMatch, String notificationId) {
+        if (ifNoneMatch == null) {
+            return Mono.empty();
+        }
+        return Flux.fromArray(ifNoneMatch.split(","))
+                .map(String::trim)
+                .filter(tag -> tag.endsWith("." + notificationId + "\""))
+                .concatMap(tag -> {
+                    int start = tag.indexOf('"') + 1;
+                    int end = tag.indexOf('.', start);
+                    if (start == 0 || end < 0) {
+                        return Mono.<String>empty();
+                    }
+                    UUID userId;
+                    try {
+                        userId = UUID.fromString(tag.substring(start, end));
+                    } catch (IllegalArgumentException e) {
+                        // Not one of ours
+                        return Mono.<String>empty();
+                    }
+                    return etag(userId, notificationId).filter(etag -> matches(tag, etag));
+                })
+                .next();
+    }
+
+    private static String unquote(String tag) {
+        return tag.substring(tag.indexOf('"'));
+    }
+}
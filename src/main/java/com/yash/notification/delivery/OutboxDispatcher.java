@@ -0,0 +1,184 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.OutboxConfig;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.NotificationRepository;
+import com.yash.notification.service.NotificationService;
+import com.yash.notification.exception.StaleDeliveryException;
+import io.micronaut.context.BeanContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers notifications that were persisted with a PENDING outbox marker.
+ * <p>
+ * New items are handed to the {@link DeliveryScheduler} lane for their priority
+ * right after the save; a periodic sweep picks up anything the hand-off missed
+ * (crash, redeploy, expired lease). LOW/MEDIUM items that outlive their lane
+ * TTL are marked EXPIRED instead of sent.
+ * Each item is claimed with a conditional write before delivery, so a
+ * notification is only sent by one worker even if several see it. The claim
+ * carries a lease token, and the state recorded afterwards is conditional on
+ * it, so a worker whose lease ran out cannot overwrite its successor. Failed
+ * deliveries go to the {@link RetryQueue} and are re-dispatched in batches once
+ * their backoff has passed. A channel that finishes the delivery later, such as
+ * the email digest, returns IN_FLIGHT and records the outcome itself.
+ * <p>
+ * Dispatches run under the {@link DeliveryTracker}. A dispatch cut off by a
+ * shutdown hands its claim back as PENDING, so the next sweep on any instance
+ * resends it; channels skip targets that already have a delivered receipt.
+ */
+@Singleton
+public class OutboxDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String DEFAULT_CHANNEL = "email";
+
+    private final NotificationRepository notificationRepository;
+    private final BeanContext beanContext;
+    private final OutboxConfig outboxConfig;
+    private final DeliveryScheduler deliveryScheduler;
+    private final RetryQueue retryQueue;
+    private final DeliveryTracker deliveryTracker;
+
+    public OutboxDispatcher(NotificationRepository notificationRepository,
+            BeanContext beanContext,
+            OutboxConfig outboxConfig,
+            DeliveryScheduler deliveryScheduler,
+            RetryQueue retryQueue,
+            DeliveryTracker deliveryTracker) {
+        this.notificationRepository = notificationRepository;
+        this.beanContext = beanContext;
+        this.outboxConfig = outboxConfig;
+        this.deliveryScheduler = deliveryScheduler;
+        this.retryQueue = retryQueue;
+        this.deliveryTracker = deliveryTracker;
+    }
+
+    public void enqueue(Notification notification) {
+        AtomicReference<String> claim = new AtomicReference<>();
+        Mono<Void> work = deliveryScheduler.schedule(notification.getPriority(), readyAtMillis(notification),
+                        dispatch(notification, claim))
+                .onErrorResume(StaleDeliveryException.class, e -> {
+                    LOG.warn("[OUTBOX] Dropping stale notification {}: {}", notification.getId(), e.getMessage());
+                    return notificationRepository.expire(notification.getId()).then();
+                })
+                .onErrorResume(e -> {
+                    LOG.error("[OUTBOX] Dispatch failed for {}: {}", notification.getId(), e.getMessage(), e);
+                    return Mono.empty();
+                });
+        boolean accepted = deliveryTracker.submit("notification " + notification.getId(), work,
+                () -> claim.get() != null
+                        ? notificationRepository.releaseClaim(notification.getId(), claim.get()).then()
+                        : Mono.empty());
+        if (!accepted) {
+            // Left in its stored state for the sweep on another instance
+            LOG.debug("[OUTBOX] Shutting down, not dispatching {}", notification.getId());
+        }
+    }
+
+    @Scheduled(fixedDelay = "${notifications.outbox.sweep-interval:60s}", initialDelay = "30s")
+    public void sweep() {
+        if (!deliveryTracker.isAccepting()) {
+            return;
+        }
+        notificationRepository.findPendingDeliveries()
+                .doOnNext(notification -> LOG.info("[OUTBOX] Recovering pending notification {}", notification.getId()))
+                .subscribe(this::enqueue, e -> LOG.error("[OUTBOX] Sweep failed: {}", e.getMessage(), e));
+    }
+
+    @Scheduled(fixedDelay = "${notifications.retry.poll-interval:15s}", initialDelay = "30s")
+    public void retryDue() {
+        if (!deliveryTracker.isAccepting()) {
+            return;
+        }
+        retryQueue.dueBatch()
+                .subscribe(this::enqueue, e -> LOG.error("[OUTBOX] Retry poll failed: {}", e.getMessage(), e));
+    }
+
+    private Mono<Void> dispatch(Notification notification, AtomicReference<String> claim) {
+        String leaseToken = UUID.randomUUID().toString();
+        return notificationRepository.claimForDelivery(notification.getId(), leaseToken,
+                        outboxConfig.getLease().toMillis())
+                .onErrorResume(e -> {
+                    LOG.error("[OUTBOX] Could not claim notification {}: {}", notification.getId(), e.getMessage());
+                    return Mono.just(false);
+                })
+                .filter(won -> won)
+                .flatMap(won -> Mono.defer(() -> {
+                            claim.set(leaseToken);
+                            notification.setLeaseToken(leaseToken);
+                            notification.setLastError(null);
+                            return deliver(notification);
+                        })
+                        .defaultIfEmpty(DeliveryStatus.FAILED)
+                        .onErrorResume(e -> {
+                            LOG.error("[OUTBOX] Delivery failed for notification {}: {}", notification.getId(),
+                                    e.getMessage(), e);
+                            notification.setLastError(String.valueOf(e.getMessage()));
+                            return Mono.just(DeliveryStatus.FAILED);
+                        }))
+                .flatMap(status -> record(notification, status)
+                        .doOnNext(recorded -> LOG.info("[OUTBOX] Notification {} -> {}", notification.getId(),
+                                recorded)))
+                .then()
+                .onErrorResume(e -> {
+                    // Lease will expire and the sweep will pick the item up again
+                    LOG.error("[OUTBOX] Could not record delivery state for {}: {}", notification.getId(),
+                            e.getMessage(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<DeliveryStatus> record(Notification notification, DeliveryStatus status) {
+        if (status == DeliveryStatus.IN_FLIGHT) {
+            // Still claimed; the channel records the outcome when it is known
+            return Mono.just(status);
+        }
+        if (status == DeliveryStatus.FAILED) {
+            return retryQueue.recordFailure(notification);
+        }
+        // SENT, DIGESTED and SKIPPED are final
+        return notificationRepository.completeDelivery(notification.getId(), notification.getLeaseToken(), status)
+                .map(recorded -> {
+                    if (!recorded) {
+                        LOG.warn("[OUTBOX] Lost the claim on notification {} before recording {}",
+                                notification.getId(), status);
+                    }
+                    return status;
+                });
+    }
+
+    // Lane TTLs count from when the item became sendable, not from when a
+    // scheduled item was created
+    private static long readyAtMillis(Notification notification) {
+        if (notification.getSendAtMillis() != null) {
+            return notification.getSendAtMillis();
+        }
+        return notification.getCreatedAt() != null
+                ? notification.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+    }
+
+    private Mono<DeliveryStatus> deliver(Notification notification) {
+        if (notification.getChannels() != null && !notification.getChannels().isEmpty()) {
+            // Resolved lazily: the router enqueues through this dispatcher
+            return beanContext.getBean(ChannelRouter.class).deliver(notification);
+        }
+        return channel(notification).deliver(notification);
+    }
+
+    private NotificationService channel(Notification notification) {
+        String channel = notification.getChannel() != null ? notification.getChannel() : DEFAULT_CHANNEL;
+        return beanContext.getBean(NotificationService.class, Qualifiers.byName(channel));
+    }
+}
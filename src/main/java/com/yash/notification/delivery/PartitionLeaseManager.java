@@ -0,0 +1,277 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.PartitionConfig;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Splits delivery work into {@code count} logical partitions and decides which
+ * of them this instance owns, through leases in the {@code partition_leases}
+ * table.
+ * <p>
+ * Every heartbeat an instance renews its membership record and its leases, then
+ * balances towards its fair share, {@code ceil(partitions / live members)}:
+ * above it, it releases partitions; below it, it claims unowned or expired ones.
+ * A joining instance therefore gets partitions as the others shed theirs, and
+ * the partitions of an instance that leaves (or dies) are claimed once released
+ * (or once their lease runs out). All lease writes are conditional, so a
+ * partition has at most one owner whose lease has not expired. Membership
+ * records of instances that died without leaving are removed by the others
+ * once they have been expired for a whole lease.
+ */
+@Singleton
+public class PartitionLeaseManager {
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionLeaseManager.class);
+
+    public static final String TABLE_NAME = "partition_leases";
+    private static final String PARTITION_PREFIX = "partition#";
+    private static final String MEMBER_PREFIX = "member#";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String instanceId;
+    private final int partitionCount;
+    private final long leaseMillis;
+    private final Set<Integer> owned = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public PartitionLeaseManager(DynamoDbClient dynamoDbClient, PartitionConfig partitionConfig) {
+        this(dynamoDbClient, UUID.randomUUID().toString(), partitionConfig.getCount(),
+                partitionConfig.getLease().toMillis());
+    }
+
+    public PartitionLeaseManager(DynamoDbClient dynamoDbClient, String instanceId, int partitionCount,
+            long leaseMillis) {
+        if (partitionCount < 1 || leaseMillis <= 0) {
+            throw new IllegalArgumentException("Invalid partition lease settings");
+        }
+        this.dynamoDbClient = dynamoDbClient;
+        this.instanceId = instanceId;
+        this.partitionCount = partitionCount;
+        this.leaseMillis = leaseMillis;
+    }
+
+    public static int partitionOf(UUID userId, int partitionCount) {
+        return Math.floorMod(userId.hashCode(), partitionCount);
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Partitions held as of the last heartbeat.
+     */
+    public Set<Integer> ownedPartitions() {
+        return Collections.unmodifiableSet(new TreeSet<>(owned));
+    }
+
+    public boolean owns(int partition) {
+        return owned.contains(partition);
+    }
+
+    @Scheduled(fixedDelay = "${notifications.partitions.heartbeat-interval:10s}")
+    public void heartbeat() {
+        try {
+            rebalance();
+        } catch (RuntimeException e) {
+            LOG.error("[PARTITIONS] Heartbeat failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gives up every partition and the membership record, so the remaining
+     * instances take over without waiting for the leases to run out.
+     */
+    @PreDestroy
+    public void leave() {
+        for (Integer partition : new ArrayList<>(owned)) {
+            release(partition);
+        }
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("id", stringValue(MEMBER_PREFIX + instanceId)))
+                    .build());
+        } catch (RuntimeException e) {
+            LOG.warn("[PARTITIONS] Could not remove membership of {}: {}", instanceId, e.getMessage());
+        }
+    }
+
+    void rebalance() {
+        long now = System.currentTimeMillis();
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .item(Map.of(
+                        "id", stringValue(MEMBER_PREFIX + instanceId),
+                        "leaseExpiresAt", numberValue(now + leaseMillis)))
+                .build());
+
+        int liveMembers = 0;
+        List<Integer> claimable = new ArrayList<>();
+        Set<Integer> leased = new TreeSet<>();
+        for (Map<String, AttributeValue> item : scanAll()) {
+            String id = item.get("id").s();
+            long expiresAt = item.containsKey("leaseExpiresAt") ? Long.parseLong(item.get("leaseExpiresAt").n()) : 0;
+            if (id.startsWith(MEMBER_PREFIX)) {
+                if (expiresAt > now) {
+                    liveMembers++;
+                } else if (expiresAt <= now - leaseMillis) {
+                    // Left by an instance that died without leaving
+                    removeMember(id, now - leaseMillis);
+                }
+            } else if (id.startsWith(PARTITION_PREFIX)) {
+                int partition = Integer.parseInt(id.substring(PARTITION_PREFIX.length()));
+                if (partition >= partitionCount) {
+                    continue;
+                }
+                leased.add(partition);
+                AttributeValue owner = item.get("owner");
+                if (owner != null && instanceId.equals(owner.s())) {
+                    continue;
+                }
+                if (owner == null || expiresAt <= now) {
+                    claimable.add(partition);
+                }
+            }
+        }
+        for (int partition = 0; partition < partitionCount; partition++) {
+            if (!leased.contains(partition)) {
+                claimable.add(partition);
+            }
+        }
+
+        // Renew what we hold; a lease someone else took over is dropped here
+        for (Integer partition : new ArrayList<>(owned)) {
+            if (!write(partition, "SET leaseExpiresAt = :lease", "#owner = :me", now)) {
+                owned.remove(partition);
+                LOG.warn("[PARTITIONS] Lost partition {}", partition);
+            }
+        }
+
+        int fairShare = (partitionCount + Math.max(1, liveMembers) - 1) / Math.max(1, liveMembers);
+        if (owned.size() > fairShare) {
+            List<Integer> extra = new ArrayList<>(new TreeSet<>(owned)).subList(fairShare, owned.size());
+            for (Integer partition : new ArrayList<>(extra)) {
+                release(partition);
+            }
+        } else if (owned.size() < fairShare) {
+            // Spread concurrent claimers over different partitions
+            Collections.shuffle(claimable);
+            for (Integer partition : claimable) {
+                if (owned.size() >= fairShare) {
+                    break;
+                }
+                if (write(partition, "SET #owner = :me, leaseExpiresAt = :lease",
+                        "attribute_not_exists(#owner) OR leaseExpiresAt <= :now", now)) {
+                    owned.add(partition);
+                    LOG.info("[PARTITIONS] Claimed partition {}", partition);
+                }
+            }
+        }
+    }
+
+    private void release(int partition) {
+        owned.remove(partition);
+        try {
+            if (write(partition, "SET leaseExpiresAt = :zero REMOVE #owner", "#owner = :me",
+                    System.currentTimeMillis())) {
+                LOG.info("[PARTITIONS] Released partition {}", partition);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("[PARTITIONS] Could not release partition {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private void removeMember(String id, long expiredBy) {
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("id", stringValue(id)))
+                    // Unless the instance came back in the meantime
+                    .conditionExpression("leaseExpiresAt <= :expiredBy")
+                    .expressionAttributeValues(Map.of(":expiredBy", numberValue(expiredBy)))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Renewed since the scan
+        }
+    }
+
+    private boolean write(int partition, String updateExpression, String condition, long now) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":me", stringValue(instanceId));
+        if (updateExpression.contains(":lease")) {
+            values.put(":lease", numberValue(now + leaseMillis));
+        }
+        if (updateExpression.contains(":zero")) {
+            values.put(":zero", numberValue(0));
+        }
+        if (condition.contains(":now")) {
+            values.put(":now", numberValue(now));
+        }
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("id", stringValue(PARTITION_PREFIX + partition)))
+                    .updateExpression(updateExpression)
+                    .conditionExpression(condition)
+                    // "owner" is a DynamoDB reserved word
+                    .expressionAttributeNames(Map.of("#owner", "owner"))
+                    .expressionAttributeValues(values)
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    private List<Map<String, AttributeValue>> scanAll() {
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse response = dynamoDbClient.scan(ScanRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .consistentRead(true)
+                    .exclusiveStartKey(startKey)
+                    .build());
+            items.addAll(response.items());
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey()
+                    : null;
+        } while (startKey != null);
+        return items;
+    }
+
+    private static AttributeValue stringValue(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue numberValue(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
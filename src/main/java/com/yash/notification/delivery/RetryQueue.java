@@ -0,0 +1,116 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.RetryConfig;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable retry queue for failed outbox deliveries, kept in the notifications
+ * table as RETRY_SCHEDULED items with a {@code nextAttemptAt}.
+ * <p>
+ * Backoff grows exponentially per attempt and is jittered so items that failed
+ * together during an outage do not come due together. After {@code maxAttempts}
+ * an item is moved to DEAD_LETTER, where it stays until replayed.
+ */
+@Singleton
+public class RetryQueue {
+    private static final Logger LOG = LoggerFactory.getLogger(RetryQueue.class);
+
+    private static final String DEFAULT_ERROR = "Channel reported delivery failure";
+
+    private final NotificationRepository notificationRepository;
+    private final RetryConfig retryConfig;
+    private final Counter retriesScheduled;
+    private final Counter deadLettered;
+
+    public RetryQueue(NotificationRepository notificationRepository, RetryConfig retryConfig,
+            MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.retryConfig = retryConfig;
+        this.retriesScheduled = Counter.builder("notification.delivery.retry.scheduled")
+                .description("Failed deliveries queued for another attempt")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("notification.delivery.retry.dead.lettered")
+                .description("Deliveries moved to the dead-letter store after exhausting retries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a failed attempt of a notification claimed under its
+     * {@code leaseToken} and emits the state it was moved to: RETRY_SCHEDULED or
+     * DEAD_LETTER.
+     */
+    public Mono<DeliveryStatus> recordFailure(Notification notification) {
+        // The claim that led to this attempt already incremented the stored count
+        int attempts = notification.getDeliveryAttempts() + 1;
+        String error = notification.getLastError() != null ? notification.getLastError() : DEFAULT_ERROR;
+        if (attempts >= retryConfig.getMaxAttempts()) {
+            LOG.warn("[RETRY] Notification {} dead-lettered after {} attempts: {}", notification.getId(), attempts,
+                    error);
+            return notificationRepository.deadLetter(notification.getId(), notification.getLeaseToken(), error)
+                    .map(recorded -> recorded(notification, recorded, deadLettered, DeliveryStatus.DEAD_LETTER));
+        }
+        long delayMillis = backoffMillis(attempts);
+        LOG.info("[RETRY] Notification {} attempt {} failed, retrying in {}ms: {}", notification.getId(), attempts,
+                delayMillis, error);
+        return notificationRepository.scheduleRetry(notification.getId(), notification.getLeaseToken(),
+                        System.currentTimeMillis() + delayMillis, error)
+                .map(recorded -> recorded(notification, recorded, retriesScheduled, DeliveryStatus.RETRY_SCHEDULED));
+    }
+
+    private static DeliveryStatus recorded(Notification notification, boolean recorded, Counter counter,
+            DeliveryStatus status) {
+        if (recorded) {
+            counter.increment();
+        } else {
+            // The lease ran out and another worker owns the notification now
+            LOG.warn("[RETRY] Lost the claim on notification {} before recording {}", notification.getId(), status);
+        }
+        return status;
+    }
+
+    /**
+     * The next batch of retries that are due. Bounded by {@code batchSize} so a
+     * recovered provider sees a trickle rather than the whole backlog at once.
+     */
+    public Flux<Notification> dueBatch() {
+        return notificationRepository.findDueRetries(retryConfig.getBatchSize());
+    }
+
+    public Flux<Notification> deadLetters() {
+        return notificationRepository.findDeadLetters();
+    }
+
+    public Mono<Boolean> replay(String id) {
+        return notificationRepository.requeueDeadLetter(id, System.currentTimeMillis());
+    }
+
+    /**
+     * Re-queues every dead letter. Replayed items go through the batched retry
+     * poll like any other retry; emits how many were re-queued.
+     */
+    public Mono<Long> replayAll() {
+        return deadLetters()
+                .concatMap(notification -> replay(notification.getId()))
+                .filter(requeued -> requeued)
+                .count()
+                .doOnNext(count -> LOG.info("[RETRY] Replayed {} dead-lettered notifications", count));
+    }
+
+    long backoffMillis(int attempt) {
+        double base = retryConfig.getInitialBackoff().toMillis() * Math.pow(retryConfig.getMultiplier(), attempt - 1);
+        double capped = Math.min(base, retryConfig.getMaxBackoff().toMillis());
+        double jitter = 1 - retryConfig.getJitter() * ThreadLocalRandom.current().nextDouble();
+        return (long) (capped * jitter);
+    }
+}
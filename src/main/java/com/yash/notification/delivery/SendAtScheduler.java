@@ -0,0 +1,215 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.SendAtConfig;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entry point for newly created notifications; holds back those with a future
+ * {@code sendAt}.
+ * <p>
+ * Scheduled items are persisted as SCHEDULED with a {@code sendAtBucket}, which
+ * puts them in a sparse time-bucketed index. Buckets are loaded into an
+ * in-memory {@link TimingWheel} once they fall inside the near horizon, one
+ * Query per bucket, and the wheel hands each item to the outbox when its time
+ * comes. Nothing is found by scanning.
+ * <p>
+ * Every load queries every bucket from the current one up to the horizon, not
+ * only the ones that just came into it, so an item created for a bucket that
+ * is already loaded reaches every instance's wheel within one load interval.
+ * The creating instance also holds it at once, so it is not late when its time
+ * is near. The outbox claim makes sure each item is sent once, and the outbox
+ * sweep claims any that came due without being released, e.g. because every
+ * instance holding it stopped. On startup the last {@code recoveryWindow} of
+ * buckets is reloaded as well.
+ * <p>
+ * Notifications are announced to live inbox clients by the {@link InboxHub}
+ * when they are handed on: at once, or when their send time comes.
+ */
+@Singleton
+public class SendAtScheduler {
+    private static final Logger LOG = LoggerFactory.getLogger(SendAtScheduler.class);
+
+    private final NotificationRepository notificationRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final InboxHub inboxHub;
+    private final SendAtConfig sendAtConfig;
+    private final TimingWheel<Notification> wheel;
+    // Items held since the first bucket that is still reloaded, by send time, so a reload does not hold them again
+    private final Map<String, Long> held = new ConcurrentHashMap<>();
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private final ScheduledExecutorService ticker;
+    private final long bucketWidthMillis;
+    private volatile long loadedUntil;
+
+    public SendAtScheduler(NotificationRepository notificationRepository,
+            OutboxDispatcher outboxDispatcher,
+            InboxHub inboxHub,
+            SendAtConfig sendAtConfig,
+            MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.inboxHub = inboxHub;
+        this.sendAtConfig = sendAtConfig;
+        this.bucketWidthMillis = sendAtConfig.getBucketWidth().toMillis();
+        long now = System.currentTimeMillis();
+        this.wheel = new TimingWheel<>(sendAtConfig.getTick().toMillis(), sendAtConfig.getWheelSize(),
+                sendAtConfig.getWheelLevels(), now);
+        if (wheel.getSpanMillis() < sendAtConfig.getHorizon().toMillis() + 2 * bucketWidthMillis) {
+            throw new IllegalStateException("notifications.send-at wheel span is shorter than horizon + 2 buckets");
+        }
+        this.loadedUntil = bucketStart(now - sendAtConfig.getRecoveryWindow().toMillis());
+        Gauge.builder("notification.send-at.wheel.size", wheel, TimingWheel::size)
+                .description("Scheduled notifications held in the in-memory timing wheel")
+                .register(meterRegistry);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "send-at-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = sendAtConfig.getTick().toMillis();
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets the outbox state for a notification about to be saved: SCHEDULED with
+     * its time bucket if {@code sendAt} is in the future, PENDING otherwise.
+     * Every create goes through here, so it also clears any delivery state the
+     * caller carried in: attempts, lease, receipts and outcome start afresh.
+     */
+    public void prepare(Notification notification) {
+        notification.setDeliveryAttempts(0);
+        notification.setLeaseExpiresAt(null);
+        notification.setLeaseToken(null);
+        notification.setNextAttemptAt(null);
+        notification.setLastError(null);
+        notification.setDeliveredAt(null);
+        notification.setReceipts(null);
+        notification.setDeliveryOutcome(null);
+        Instant sendAt = notification.getSendAt();
+        if (sendAt != null && sendAt.toEpochMilli() > System.currentTimeMillis()) {
+            notification.setSendAtMillis(sendAt.toEpochMilli());
+            notification.setSendAtBucket(bucketKey(bucketStart(sendAt.toEpochMilli())));
+            notification.setDeliveryStatus(DeliveryStatus.SCHEDULED);
+            notification.setDueAt(sendAt.toEpochMilli());
+        } else {
+            notification.setSendAtMillis(null);
+            notification.setSendAtBucket(null);
+            notification.setDeliveryStatus(DeliveryStatus.PENDING);
+            notification.setDueAt(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Hands a saved notification on: straight to the outbox if it is due, to the
+     * wheel if its bucket is loaded (or being loaded), otherwise leaves it to the
+     * bucket loader.
+     */
+    public void submit(Notification notification) {
+        if (notification.getDeliveryStatus() != DeliveryStatus.SCHEDULED) {
+            inboxHub.notificationCreated(notification);
+            outboxDispatcher.enqueue(notification);
+            return;
+        }
+        // One bucket of margin covers the bucket currently being queried, whose
+        // index entries may not be visible yet
+        if (notification.getSendAtMillis() < loadedUntil + bucketWidthMillis) {
+            hold(notification);
+        }
+    }
+
+    @Scheduled(fixedDelay = "${notifications.send-at.load-interval:1m}", initialDelay = "5s")
+    public void loadDueBuckets() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long target = now + sendAtConfig.getHorizon().toMillis();
+        // The recovery window on the first load, the current bucket after that
+        long from = Math.min(loadedUntil, bucketStart(now));
+        held.values().removeIf(sendAtMillis -> sendAtMillis < from);
+        // Only whole buckets are loaded, so anything created later for a bucket
+        // beyond loadedUntil is still picked up by its own query
+        long until = loadedUntil;
+        while (until + bucketWidthMillis <= target) {
+            until += bucketWidthMillis;
+        }
+        loadedUntil = until;
+        Flux.range(0, (int) ((until - from) / bucketWidthMillis))
+                .map(i -> bucketKey(from + i * bucketWidthMillis))
+                .concatMap(bucket -> notificationRepository.findScheduledInBucket(bucket)
+                        .filter(this::hold)
+                        .count()
+                        .doOnNext(loaded -> {
+                            if (loaded > 0) {
+                                LOG.info("[SEND AT] Loaded {} scheduled notifications from bucket {}", loaded,
+                                        bucket);
+                            }
+                        })
+                        .onErrorResume(e -> {
+                            LOG.error("[SEND AT] Could not load bucket {}: {}", bucket, e.getMessage(), e);
+                            return Mono.empty();
+                        }))
+                .doFinally(signal -> loading.set(false))
+                .subscribe(v -> { }, e -> LOG.error("[SEND AT] Bucket load failed: {}", e.getMessage(), e));
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Puts an item in the wheel unless this instance already holds or released
+     * it. Returns whether it was new.
+     */
+    private boolean hold(Notification notification) {
+        if (held.putIfAbsent(notification.getId(), notification.getSendAtMillis()) != null) {
+            return false;
+        }
+        if (!wheel.add(notification.getSendAtMillis(), notification)) {
+            release(notification);
+        }
+        return true;
+    }
+
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis()).forEach(this::release);
+        } catch (RuntimeException e) {
+            LOG.error("[SEND AT] Timing wheel tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void release(Notification notification) {
+        // Clients on instances that do not hold it yet hear of it through the InboxRelay once it is claimed
+        inboxHub.notificationCreated(notification);
+        outboxDispatcher.enqueue(notification);
+    }
+
+    private long bucketStart(long millis) {
+        return millis - Math.floorMod(millis, bucketWidthMillis);
+    }
+
+    private static String bucketKey(long bucketStart) {
+        return Instant.ofEpochMilli(bucketStart).toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.yash.notification.delivery;
+
+import java.util.Arrays;
+
+/**
+ * Bloom filter over a sliding time window, made of {@code slices} filters that
+ * each take inserts for one {@code window / (slices - 1)} period and are cleared
+ * when their turn comes round again. An insert is therefore remembered for at
+ * least {@code window} and at most {@code window} plus one slice period.
+ * <p>
+ * Lookups may return false positives, at roughly {@code falsePositiveRate} when
+ * each slice holds {@code expectedItems}, but never false negatives inside the
+ * window. Items are given as two independent 64-bit hashes.
+ */
+public class TimeBucketedBloomFilter {
+
+    private final long sliceMillis;
+    private final int bitsPerSlice;
+    private final int hashCount;
+    private final long[][] bits;
+    private final long[] sliceEpochs;
+
+    public TimeBucketedBloomFilter(long windowMillis, int slices, int expectedItems, double falsePositiveRate) {
+        if (slices < 2 || windowMillis < slices - 1 || expectedItems < 1
+                || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid bloom filter dimensions");
+        }
+        this.sliceMillis = (windowMillis + slices - 2) / (slices - 1);
+        double ln2 = Math.log(2);
+        this.bitsPerSlice = (int) Math.max(64, Math.ceil(-expectedItems * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.hashCount = (int) Math.max(1, Math.round((double) bitsPerSlice / expectedItems * ln2));
+        this.bits = new long[slices][(bitsPerSlice + 63) / 64];
+        this.sliceEpochs = new long[slices];
+        Arrays.fill(sliceEpochs, Long.MIN_VALUE);
+    }
+
+    public synchronized boolean mightContain(long hash1, long hash2, long nowMillis) {
+        long epoch = Math.floorDiv(nowMillis, sliceMillis);
+        for (int slice = 0; slice < bits.length; slice++) {
+            // Skip slices last written more than one full rotation ago
+            if (sliceEpochs[slice] > epoch - bits.length && containsAll(bits[slice], hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void put(long hash1, long hash2, long nowMillis) {
+        long epoch = Math.floorDiv(nowMillis, sliceMillis);
+        int slice = (int) Math.floorMod(epoch, (long) bits.length);
+        if (sliceEpochs[slice] != epoch) {
+            Arrays.fill(bits[slice], 0L);
+            sliceEpochs[slice] = epoch;
+        }
+        long[] words = bits[slice];
+        for (int i = 0; i < hashCount; i++) {
+            int bit = bitIndex(hash1, hash2, i);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean containsAll(long[] words, long hash1, long hash2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = bitIndex(hash1, hash2, i);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int bitIndex(long hash1, long hash2, int i) {
+        // Kirsch-Mitzenmacher double hashing
+        return (int) Math.floorMod(hash1 + i * hash2, (long) bitsPerSlice);
+    }
+}
@@ -0,0 +1,126 @@
+package com.yash.notification.delivery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level 0 has {@code wheelSize} slots of
+ * {@code tickMillis}; each higher level has slots as wide as the whole level
+ * below, so {@code levels} levels span {@code tickMillis * wheelSize^levels}.
+ * Adding and expiring an item is O(1) per level, independent of how many items
+ * are held.
+ * <p>
+ * Items fire on the first tick at or after their deadline, never early. The
+ * wheel is driven by calling {@link #advance}; it does not own a thread.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<List<Entry<T>>> slots = new ArrayList<>();
+    private final long span;
+    private long currentTime;
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels];
+        long tick = tickMillis;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = tick;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            tick = Math.multiplyExact(tick, wheelSize);
+        }
+        // The top level's window starts at its last slot boundary, so one top
+        // slot of the nominal span is not always available
+        this.span = tick - levelTicks[levels - 1];
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    /**
+     * Longest delay from now that {@link #add} is guaranteed to accept.
+     */
+    public long getSpanMillis() {
+        return span;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Adds an item. Returns false without adding it if the deadline has already
+     * passed, in which case the caller should run it straight away.
+     */
+    public synchronized boolean add(long deadlineMillis, T item) {
+        if (deadlineMillis < currentTime) {
+            return false;
+        }
+        place(new Entry<>(deadlineMillis, item));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis} and returns the items whose
+     * deadline has passed, in deadline-slot order.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>();
+        while (currentTime + tickMillis <= nowMillis) {
+            currentTime += tickMillis;
+            // Expire before cascading: the slot just passed is reused for the
+            // last period of the new level-0 window
+            List<Entry<T>> expired = slot(0, currentTime - tickMillis);
+            for (Entry<T> entry : expired) {
+                due.add(entry.item);
+            }
+            size -= expired.size();
+            expired.clear();
+            // Cascade higher-level slots whose period starts now into the levels below
+            for (int level = levelTicks.length - 1; level > 0; level--) {
+                if (currentTime % levelTicks[level] == 0) {
+                    List<Entry<T>> slot = slot(level, currentTime);
+                    List<Entry<T>> cascading = new ArrayList<>(slot);
+                    slot.clear();
+                    cascading.forEach(this::place);
+                }
+            }
+        }
+        return due;
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; level < levelTicks.length; level++) {
+            long tick = levelTicks[level];
+            long levelStart = currentTime - Math.floorMod(currentTime, tick);
+            if (entry.deadline < levelStart + tick * wheelSize) {
+                slot(level, entry.deadline).add(entry);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Deadline " + entry.deadline + " is beyond the wheel span");
+    }
+
+    private List<Entry<T>> slot(int level, long time) {
+        int index = (int) Math.floorMod(Math.floorDiv(time, levelTicks[level]), (long) wheelSize);
+        return slots.get(level * wheelSize + index);
+    }
+
+    private static final class Entry<T> {
+        final long deadline;
+        final T item;
+
+        Entry(long deadline, T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.yash.notification.delivery;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets keyed by {@code K}, each key holding one bucket per slot (for
+ * example one per priority). A slot's bucket holds up to {@code limits[slot]}
+ * tokens and refills at {@code limits[slot]} per period, so a key that has been
+ * quiet for a whole period is back at full capacity.
+ * <p>
+ * Keys are spread over independently locked stripes. Each stripe is an
+ * access-ordered map bounded to its share of {@code maxKeys}; when full, the
+ * least recently used key is dropped, which only ever hands that key a fresh
+ * (full) bucket. Idle keys are removed by {@link #evictIdle}.
+ */
+public class TokenBucketStore<K> {
+
+    private final Stripe<K>[] stripes;
+    private final int[] limits;
+    private final long periodNanos;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketStore(int stripeCount, int maxKeys, int[] limits, long periodNanos) {
+        if (stripeCount < 1 || maxKeys < stripeCount || limits.length == 0 || periodNanos <= 0) {
+            throw new IllegalArgumentException("Invalid token bucket store dimensions");
+        }
+        for (int limit : limits) {
+            if (limit < 1) {
+                throw new IllegalArgumentException("Token bucket limits must be at least 1");
+            }
+        }
+        this.limits = limits.clone();
+        this.periodNanos = periodNanos;
+        this.stripes = new Stripe[stripeCount];
+        int perStripe = maxKeys / stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+    }
+
+    /**
+     * Takes one token from the key's bucket for {@code slot}. Returns 0 if a
+     * token was taken, otherwise the nanoseconds until one will be available.
+     */
+    public long tryAcquire(K key, int slot, long nowNanos) {
+        Stripe<K> stripe = stripeFor(key);
+        synchronized (stripe) {
+            Buckets buckets = stripe.map.get(key);
+            if (buckets == null) {
+                buckets = new Buckets(limits, nowNanos);
+                stripe.map.put(key, buckets);
+            }
+            buckets.lastUsed = nowNanos;
+            double limit = limits[slot];
+            double tokens = Math.min(limit,
+                    buckets.tokens[slot] + (nowNanos - buckets.refilledAt[slot]) * limit / periodNanos);
+            buckets.refilledAt[slot] = nowNanos;
+            if (tokens >= 1) {
+                buckets.tokens[slot] = tokens - 1;
+                return 0;
+            }
+            buckets.tokens[slot] = tokens;
+            return (long) Math.ceil((1 - tokens) * periodNanos / limit);
+        }
+    }
+
+    /**
+     * Removes keys not used since {@code idleSinceNanos} and returns how many
+     * were removed.
+     */
+    public int evictIdle(long idleSinceNanos) {
+        int evicted = 0;
+        for (Stripe<K> stripe : stripes) {
+            synchronized (stripe) {
+                // Access order puts the least recently used keys first
+                Iterator<Buckets> it = stripe.map.values().iterator();
+                while (it.hasNext() && it.next().lastUsed - idleSinceNanos < 0) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<K> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.map.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe<K> stripeFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private static final class Stripe<K> {
+        final Map<K, Buckets> map;
+
+        Stripe(int maxKeys) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Buckets> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private static final class Buckets {
+        final double[] tokens;
+        final long[] refilledAt;
+        long lastUsed;
+
+        Buckets(int[] limits, long nowNanos) {
+            this.tokens = new double[limits.length];
+            this.refilledAt = new long[limits.length];
+            for (int i = 0; i < limits.length; i++) {
+                tokens[i] = limits[i];
+                refilledAt[i] = nowNanos;
+            }
+            this.lastUsed = nowNanos;
+        }
+    }
+}
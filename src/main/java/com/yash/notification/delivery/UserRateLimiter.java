@@ -0,0 +1,134 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.DigestConfig;
+import com.yash.notification.config.RateLimitConfig;
+import com.yash.notification.exception.RateLimitExceededException;
+import com.yash.notification.model.Notification;
+import com.yash.notification.model.NotificationPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user token-bucket limit on notification creation, with a separate bucket
+ * per priority so a flood of LOW items never uses up a user's URGENT allowance.
+ * <p>
+ * Over the limit, a notification is either rejected (429) or downgraded to a LOW
+ * email so it lands in the user's digest instead of sending one email per call.
+ * Downgrades draw on one more bucket per user, of {@code digestLimit}, so a
+ * runaway producer is still rejected once that is used up rather than growing
+ * the digest without bound. Downgrading falls back to rejecting when digests
+ * are disabled.
+ */
+@Singleton
+public class UserRateLimiter {
+    private static final Logger LOG = LoggerFactory.getLogger(UserRateLimiter.class);
+
+    // Slot after the priorities; shared by all downgrades of a user
+    private static final int DIGEST_SLOT = NotificationPriority.values().length;
+
+    private final RateLimitConfig rateLimitConfig;
+    private final DigestConfig digestConfig;
+    private final TokenBucketStore<UUID> buckets;
+    private final long idleTimeoutNanos;
+    private final Map<NotificationPriority, Counter> rejected = new EnumMap<>(NotificationPriority.class);
+    private final Map<NotificationPriority, Counter> downgraded = new EnumMap<>(NotificationPriority.class);
+
+    public UserRateLimiter(RateLimitConfig rateLimitConfig, DigestConfig digestConfig, MeterRegistry meterRegistry) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.digestConfig = digestConfig;
+        int[] limits = new int[DIGEST_SLOT + 1];
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            limits[priority.ordinal()] = limitFor(priority);
+        }
+        limits[DIGEST_SLOT] = rateLimitConfig.getDigestLimit();
+        long periodNanos = rateLimitConfig.getPeriod().toNanos();
+        this.buckets = new TokenBucketStore<>(rateLimitConfig.getStripes(), rateLimitConfig.getMaxTrackedBuckets(),
+                limits, periodNanos);
+        // A bucket idle for a full period has refilled, so evicting it loses nothing
+        this.idleTimeoutNanos = Math.max(rateLimitConfig.getIdleTimeout().toNanos(), periodNanos);
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            rejected.put(priority, Counter.builder("notification.ratelimit.rejected")
+                    .description("Notifications rejected because the user exceeded the rate limit")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+            downgraded.put(priority, Counter.builder("notification.ratelimit.downgraded")
+                    .description("Notifications over the rate limit downgraded into the user's digest")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("notification.ratelimit.tracked.users", buckets, TokenBucketStore::size)
+                .description("Users with a live rate-limit bucket")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charges the notification against its user's bucket. Returns it unchanged
+     * when within the limit, or downgraded to a single-channel LOW email when
+     * over it, digests are in use and the user's digest allowance is not used
+     * up; otherwise throws {@link RateLimitExceededException}.
+     */
+    public Notification admit(Notification notification) {
+        if (!rateLimitConfig.isEnabled() || notification.getUserId() == null) {
+            return notification;
+        }
+        NotificationPriority priority = notification.getPriority() != null
+                ? notification.getPriority()
+                : NotificationPriority.MEDIUM;
+        long now = System.nanoTime();
+        long waitNanos = buckets.tryAcquire(notification.getUserId(), priority.ordinal(), now);
+        if (waitNanos == 0) {
+            return notification;
+        }
+        if (rateLimitConfig.getAction() == RateLimitConfig.Action.DIGEST && digestConfig.isEnabled()) {
+            long digestWaitNanos = buckets.tryAcquire(notification.getUserId(), DIGEST_SLOT, now);
+            if (digestWaitNanos > 0) {
+                LOG.debug("[RATE LIMIT] User {} over {} limit and digest limit, rejecting",
+                        notification.getUserId(), priority);
+                throw reject(notification, priority, Math.min(waitNanos, digestWaitNanos));
+            }
+            LOG.debug("[RATE LIMIT] User {} over {} limit, downgrading to digest", notification.getUserId(),
+                    priority);
+            downgraded.get(priority).increment();
+            notification.setPriority(NotificationPriority.LOW);
+            notification.setChannels(null);
+            return notification;
+        }
+        LOG.debug("[RATE LIMIT] User {} over {} limit, rejecting", notification.getUserId(), priority);
+        throw reject(notification, priority, waitNanos);
+    }
+
+    private RateLimitExceededException reject(Notification notification, NotificationPriority priority,
+            long waitNanos) {
+        rejected.get(priority).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return new RateLimitExceededException("Rate limit exceeded for " + priority + " notifications to user "
+                + notification.getUserId(), retryAfterSeconds);
+    }
+
+    @Scheduled(fixedDelay = "${notifications.rate-limit.sweep-interval:1m}")
+    public void evictIdle() {
+        int evicted = buckets.evictIdle(System.nanoTime() - idleTimeoutNanos);
+        if (evicted > 0) {
+            LOG.debug("[RATE LIMIT] Evicted {} idle user buckets", evicted);
+        }
+    }
+
+    private int limitFor(NotificationPriority priority) {
+        return switch (priority) {
+            case URGENT -> rateLimitConfig.getUrgentLimit();
+            case HIGH -> rateLimitConfig.getHighLimit();
+            case MEDIUM -> rateLimitConfig.getMediumLimit();
+            case LOW -> rateLimitConfig.getLowLimit();
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.yash.notification.dto;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * Outcome of one item of a batch create, by its position in the request.
+ */
+@Serdeable
+public class BatchItemResult {
+
+    public enum Status {
+        ACCEPTED, REJECTED
+    }
+
+    private long index;
+    private Status status;
+    private String id;
+    private String error;
+
+    public static BatchItemResult accepted(long index, String id) {
+        BatchItemResult result = new BatchItemResult();
+        result.setIndex(index);
+        result.setStatus(Status.ACCEPTED);
+        result.setId(id);
+        return result;
+    }
+
+    public static BatchItemResult rejected(long index, String error) {
+        BatchItemResult result = new BatchItemResult();
+        result.setIndex(index);
+        result.setStatus(Status.REJECTED);
+        result.setError(error);
+        return result;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,141 @@
+package com.yash.notification.dto;
+
+import com.yash.notification.model.BroadcastJob;
+import com.yash.notification.model.BroadcastJobStatus;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Serdeable
+public class BroadcastJobResponse {
+    private String jobId;
+    private String channel;
+    private BroadcastJobStatus status;
+    private long sent;
+    private long failed;
+    private long remaining;
+    private Long total;
+    private int partitions;
+    private int completedPartitions;
+    private double throughputPerSecond;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static BroadcastJobResponse from(BroadcastJob job) {
+        BroadcastJobResponse response = new BroadcastJobResponse();
+        response.setJobId(job.getId());
+        response.setChannel(job.getChannel());
+        response.setStatus(job.getJobStatus());
+        response.setSent(job.getSentCount());
+        response.setFailed(job.getFailedCount());
+        response.setTotal(job.getTotalCount());
+        response.setPartitions(job.getPartitionCount());
+        response.setCompletedPartitions(job.getCompletedPartitions() != null ? job.getCompletedPartitions().size() : 0);
+        long processed = job.getSentCount() + job.getFailedCount();
+        response.setRemaining(job.getTotalCount() != null ? Math.max(0, job.getTotalCount() - processed) : 0);
+        // Finished jobs report their average rate, running jobs the rate so far
+        LocalDateTime end = job.getJobStatus() == BroadcastJobStatus.RUNNING ? LocalDateTime.now() : job.getUpdatedAt();
+        long elapsedMillis = Duration.between(job.getCreatedAt(), end).toMillis();
+        response.setThroughputPerSecond(elapsedMillis > 0 ? processed * 1000.0 / elapsedMillis : 0);
+        response.setCreatedAt(job.getCreatedAt());
+        response.setUpdatedAt(job.getUpdatedAt());
+        return response;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public BroadcastJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BroadcastJobStatus status) {
+        this.status = status;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public void setSent(long sent) {
+        this.sent = sent;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(long remaining) {
+        this.remaining = remaining;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public int getCompletedPartitions() {
+        return completedPartitions;
+    }
+
+    public void setCompletedPartitions(int completedPartitions) {
+        this.completedPartitions = completedPartitions;
+    }
+
+    public double getThroughputPerSecond() {
+        return throughputPerSecond;
+    }
+
+    public void setThroughputPerSecond(double throughputPerSecond) {
+        this.throughputPerSecond = throughputPerSecond;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -2,6 +2,7 @@ package com.yash.notification.dto;
 
 import io.micronaut.serde.annotation.Serdeable;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Serdeable
@@ -9,6 +10,7 @@ public class CreateNotificationRequest {
     private UUID userId;
     private String title;
     private String message;
+    private Instant sendAt;
 
     public CreateNotificationRequest(UUID userId, String title, String message) {
         this.userId = userId;
@@ -38,4 +40,13 @@ public class CreateNotificationRequest {
 
     public void setMessage(String message) {
         this.message = message;
-    }}
\ No newline at end of file
+    }
+
+    public Instant getSendAt() {
+        return sendAt;
+    }
+
+    public void setSendAt(Instant sendAt) {
+        this.sendAt = sendAt;
+    }
+}
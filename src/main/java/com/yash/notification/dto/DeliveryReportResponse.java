@@ -0,0 +1,105 @@
+package com.yash.notification.dto;
+
+import com.yash.notification.delivery.DeliveryReceipt;
+import com.yash.notification.model.DeliveryOutcome;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Serdeable
+public class DeliveryReportResponse {
+    private String notificationId;
+    private DeliveryStatus status;
+    private DeliveryOutcome outcome;
+    private int attempts;
+    private String lastError;
+    private long delivered;
+    private long failed;
+    private List<ReceiptResponse> receipts;
+
+    public static DeliveryReportResponse from(Notification notification) {
+        DeliveryReportResponse response = new DeliveryReportResponse();
+        response.setNotificationId(notification.getId());
+        response.setStatus(notification.getDeliveryStatus());
+        response.setOutcome(notification.getDeliveryOutcome());
+        response.setAttempts(notification.getDeliveryAttempts());
+        response.setLastError(notification.getLastError());
+        Map<String, String> stored = notification.getReceipts() != null ? notification.getReceipts() : Map.of();
+        List<ReceiptResponse> receipts = stored.entrySet().stream()
+                .map(entry -> ReceiptResponse.from(DeliveryReceipt.decode(entry.getKey(), entry.getValue())))
+                .sorted(Comparator.comparing(ReceiptResponse::getTarget))
+                .toList();
+        response.setReceipts(receipts);
+        response.setDelivered(receipts.stream().filter(ReceiptResponse::isDelivered).count());
+        response.setFailed(receipts.size() - response.getDelivered());
+        return response;
+    }
+
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(String notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public DeliveryStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DeliveryStatus status) {
+        this.status = status;
+    }
+
+    public DeliveryOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(DeliveryOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(long delivered) {
+        this.delivered = delivered;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ReceiptResponse> getReceipts() {
+        return receipts;
+    }
+
+    public void setReceipts(List<ReceiptResponse> receipts) {
+        this.receipts = receipts;
+    }
+}
@@ -0,0 +1,23 @@
+package com.yash.notification.dto;
+
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.List;
+
+@Serdeable
+public class DeviceTokenInvalidationRequest {
+    private List<String> fcmTokens;
+
+    public DeviceTokenInvalidationRequest() {}
+
+    public DeviceTokenInvalidationRequest(List<String> fcmTokens) {
+        this.fcmTokens = fcmTokens;
+    }
+
+    public List<String> getFcmTokens() {
+        return fcmTokens;
+    }
+
+    public void setFcmTokens(List<String> fcmTokens) {
+        this.fcmTokens = fcmTokens;
+    }
+}
@@ -0,0 +1,42 @@
+package com.yash.notification.dto;
+
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.Collections;
+import java.util.Map;
+
+@Serdeable
+public class EmailRecipient {
+    private String email;
+    private Map<String, String> substitutions;
+
+    public EmailRecipient() {}
+
+    public EmailRecipient(String email, Map<String, String> substitutions) {
+        this.email = email;
+        this.substitutions = substitutions;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Map<String, String> getSubstitutions() {
+        return substitutions != null ? substitutions : Collections.emptyMap();
+    }
+
+    public void setSubstitutions(Map<String, String> substitutions) {
+        this.substitutions = substitutions;
+    }
+
+    @Override
+    public String toString() {
+        return "EmailRecipient{" +
+                "email='" + email + '\'' +
+                ", substitutions=" + substitutions +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.yash.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+/**
+ * The part of a Gemini generateContent response that is used: the text of the
+ * first part of the first candidate. Everything else is skipped while decoding.
+ */
+@Serdeable
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GeminiResponse {
+    private List<Candidate> candidates;
+
+    @Nullable
+    public String firstText() {
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        Content content = candidates.get(0).getContent();
+        if (content == null || content.getParts() == null || content.getParts().isEmpty()) {
+            return null;
+        }
+        return content.getParts().get(0).getText();
+    }
+
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(List<Candidate> candidates) {
+        this.candidates = candidates;
+    }
+
+    @Serdeable
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Candidate {
+        private Content content;
+
+        public Content getContent() {
+            return content;
+        }
+
+        public void setContent(Content content) {
+            this.content = content;
+        }
+    }
+
+    @Serdeable
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Content {
+        private List<Part> parts;
+
+        public List<Part> getParts() {
+            return parts;
+        }
+
+        public void setParts(List<Part> parts) {
+            this.parts = parts;
+        }
+    }
+
+    @Serdeable
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Part {
+        private String text;
+
+        public String getText() {
+            return text;
+        }
+
+        public void setText(String text) {
+            this.text = text;
+        }
+    }
+}
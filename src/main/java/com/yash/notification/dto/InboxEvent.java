@@ -0,0 +1,64 @@
+package com.yash.notification.dto;
+
+import com.yash.notification.model.Notification;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * A change to a user's inbox, pushed to live clients. RESYNC tells the client
+ * that events were missed and it should reload the list; HEARTBEAT carries no
+ * change and has no id.
+ */
+@Serdeable
+public class InboxEvent {
+
+    public enum Type {
+        CREATED, READ, DELETED, RESYNC, HEARTBEAT
+    }
+
+    private String id;
+    private Type type;
+    private String notificationId;
+    private Notification notification;
+
+    public InboxEvent() {
+    }
+
+    public InboxEvent(String id, Type type, String notificationId, Notification notification) {
+        this.id = id;
+        this.type = type;
+        this.notificationId = notificationId;
+        this.notification = notification;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(String notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public Notification getNotification() {
+        return notification;
+    }
+
+    public void setNotification(Notification notification) {
+        this.notification = notification;
+    }
+}
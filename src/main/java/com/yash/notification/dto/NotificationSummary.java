@@ -0,0 +1,180 @@
+package com.yash.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.yash.notification.exception.ValidationException;
+import com.yash.notification.model.Notification;
+import com.yash.notification.model.NotificationPriority;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * List view of a notification with only the fields asked for with
+ * {@code fields=}; the others are left out of the response.
+ */
+@Serdeable
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificationSummary {
+    public static final int SNIPPET_LENGTH = 140;
+
+    /**
+     * Fields that can be asked for, in response order.
+     */
+    public static final List<String> FIELDS = List.of("id", "title", "snippet", "read", "priority", "createdAt",
+            "sendAt", "channel");
+
+    /**
+     * What {@code fields=summary} stands for.
+     */
+    public static final List<String> SUMMARY_FIELDS = List.of("id", "title", "snippet", "read", "createdAt");
+
+    private String id;
+    private String title;
+    private String snippet;
+    private Boolean read;
+    private NotificationPriority priority;
+    private LocalDateTime createdAt;
+    private Instant sendAt;
+    private String channel;
+
+    /**
+     * Parses a comma-separated {@code fields=} value.
+     *
+     * @throws ValidationException if a field is unknown or none is given
+     */
+    public static Set<String> parseFields(String fields) {
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.equals("summary")) {
+                parsed.addAll(SUMMARY_FIELDS);
+            } else if (FIELDS.contains(name)) {
+                parsed.add(name);
+            } else {
+                throw new ValidationException("Unknown field: " + name + ", expected summary or one of " + FIELDS);
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new ValidationException("At least one field is required");
+        }
+        return parsed;
+    }
+
+    /**
+     * The stored attributes needed for {@code fields}; the snippet is cut from
+     * the message.
+     */
+    public static List<String> attributesFor(Set<String> fields) {
+        return fields.stream()
+                .map(field -> field.equals("snippet") ? "message" : field)
+                .toList();
+    }
+
+    public static NotificationSummary from(Notification notification, Set<String> fields) {
+        NotificationSummary summary = new NotificationSummary();
+        if (fields.contains("id")) {
+            summary.setId(notification.getId());
+        }
+        if (fields.contains("title")) {
+            summary.setTitle(notification.getTitle());
+        }
+        if (fields.contains("snippet")) {
+            summary.setSnippet(snippet(notification.getMessage()));
+        }
+        if (fields.contains("read")) {
+            summary.setRead(notification.isRead());
+        }
+        if (fields.contains("priority")) {
+            summary.setPriority(notification.getPriority());
+        }
+        if (fields.contains("createdAt")) {
+            summary.setCreatedAt(notification.getCreatedAt());
+        }
+        if (fields.contains("sendAt")) {
+            summary.setSendAt(notification.getSendAt());
+        }
+        if (fields.contains("channel")) {
+            summary.setChannel(notification.getChannel());
+        }
+        return summary;
+    }
+
+    private static String snippet(@Nullable String message) {
+        if (message == null || message.length() <= SNIPPET_LENGTH) {
+            return message;
+        }
+        return message.substring(0, SNIPPET_LENGTH - 1) + "…";
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public Boolean getRead() {
+        return read;
+    }
+
+    public void setRead(Boolean read) {
+        this.read = read;
+    }
+
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(NotificationPriority priority) {
+        this.priority = priority;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getSendAt() {
+        return sendAt;
+    }
+
+    public void setSendAt(Instant sendAt) {
+        this.sendAt = sendAt;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+}
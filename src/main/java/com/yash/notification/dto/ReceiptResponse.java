@@ -0,0 +1,55 @@
+package com.yash.notification.dto;
+
+import com.yash.notification.delivery.DeliveryReceipt;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.time.Instant;
+
+@Serdeable
+public class ReceiptResponse {
+    private String target;
+    private boolean delivered;
+    private String reference;
+    private Instant at;
+
+    public static ReceiptResponse from(DeliveryReceipt receipt) {
+        ReceiptResponse response = new ReceiptResponse();
+        response.setTarget(receipt.getTarget());
+        response.setDelivered(receipt.isDelivered());
+        response.setReference(receipt.getReference());
+        response.setAt(Instant.ofEpochSecond(receipt.getTimestamp()));
+        return response;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public boolean isDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(boolean delivered) {
+        this.delivered = delivered;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public Instant getAt() {
+        return at;
+    }
+
+    public void setAt(Instant at) {
+        this.at = at;
+    }
+}
@@ -2,6 +2,7 @@ package com.yash.notification.exception;
 
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
@@ -19,7 +20,15 @@ public class GlobalExceptionHandler implements ExceptionHandler<Exception, HttpR
 
     @Override
     public HttpResponse<ErrorResponse> handle(HttpRequest request, Exception exception) {
-        LOG.error("Error occurred while processing request: {}", request.getPath(), exception);
+        if (exception instanceof RateLimitExceededException) {
+            // Expected under a request storm; a stack trace per rejection would flood the log
+            LOG.warn("Rate limited request to {}: {}", request.getPath(), exception.getMessage());
+        } else if (exception instanceof DuplicateResourceException) {
+            // Producer retries are expected too, and just as frequent in a storm
+            LOG.warn("Duplicate request to {}: {}", request.getPath(), exception.getMessage());
+        } else {
+            LOG.error("Error occurred while processing request: {}", request.getPath(), exception);
+        }
 
         if (exception instanceof ResourceNotFoundException) {
             return HttpResponse.notFound(new ErrorResponse(exception.getMessage(), request.getPath()));
@@ -27,6 +36,10 @@ public class GlobalExceptionHandler implements ExceptionHandler<Exception, HttpR
             return HttpResponse.badRequest(new ErrorResponse("Validation error: " + exception.getMessage(), request.getPath()));
         } else if (exception instanceof DuplicateResourceException) {
             return HttpResponse.status(HttpStatus.CONFLICT).body(new ErrorResponse(exception.getMessage(), request.getPath()));
+        } else if (exception instanceof RateLimitExceededException rateLimited) {
+            return HttpResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimited.getRetryAfterSeconds()))
+                    .body(new ErrorResponse(exception.getMessage(), request.getPath()));
         } else if (exception instanceof DatabaseException) {
             return HttpResponse.serverError(new ErrorResponse("Database error: " + exception.getMessage(), request.getPath()));
         } else if (exception instanceof DataAccessException) {
@@ -0,0 +1,7 @@
+package com.yash.notification.exception;
+
+public class StaleDeliveryException extends RuntimeException {
+    public StaleDeliveryException(String message) {
+        super(message);
+    }
+}
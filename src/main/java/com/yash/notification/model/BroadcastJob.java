@@ -0,0 +1,176 @@
+package com.yash.notification.model;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import io.micronaut.serde.annotation.Serdeable;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * A broadcast to the whole audience of one channel, split into
+ * {@code partitionCount} partitions by user id. Each partition is run by
+ * whichever instance holds its lease, walks its users in id order and
+ * checkpoints its own cursor after every chunk, so a partition that changes
+ * owner resumes where it stopped. The job completes once every partition has.
+ */
+@DynamoDbBean
+@Serdeable
+public class BroadcastJob {
+    private String id;
+    private String channel;
+    private String title;
+    private String message;
+    private NotificationPriority priority;
+    private BroadcastJobStatus jobStatus;
+
+    private int partitionCount;
+    private Map<String, String> partitionCursors = new HashMap<>();
+    private Set<String> completedPartitions;
+    // Failed runs per partition, and when it may run again
+    private Map<String, Integer> partitionAttempts = new HashMap<>();
+    private Map<String, Long> partitionRetryAt = new HashMap<>();
+    private Long totalCount;
+    private long sentCount;
+    private long failedCount;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public BroadcastJob() {
+        this.id = UUID.randomUUID().toString();
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(NotificationPriority priority) {
+        this.priority = priority;
+    }
+
+    public BroadcastJobStatus getJobStatus() {
+        return jobStatus;
+    }
+
+    public void setJobStatus(BroadcastJobStatus jobStatus) {
+        this.jobStatus = jobStatus;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(int partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
+    public Map<String, String> getPartitionCursors() {
+        return partitionCursors;
+    }
+
+    public void setPartitionCursors(Map<String, String> partitionCursors) {
+        this.partitionCursors = partitionCursors;
+    }
+
+    public Set<String> getCompletedPartitions() {
+        return completedPartitions;
+    }
+
+    public void setCompletedPartitions(Set<String> completedPartitions) {
+        this.completedPartitions = completedPartitions;
+    }
+
+    public Map<String, Integer> getPartitionAttempts() {
+        return partitionAttempts;
+    }
+
+    public void setPartitionAttempts(Map<String, Integer> partitionAttempts) {
+        this.partitionAttempts = partitionAttempts;
+    }
+
+    public Map<String, Long> getPartitionRetryAt() {
+        return partitionRetryAt;
+    }
+
+    public void setPartitionRetryAt(Map<String, Long> partitionRetryAt) {
+        this.partitionRetryAt = partitionRetryAt;
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    public void setSentCount(long sentCount) {
+        this.sentCount = sentCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.yash.notification.model;
+
+public enum BroadcastJobStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
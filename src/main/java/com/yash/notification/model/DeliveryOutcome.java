@@ -0,0 +1,11 @@
+package com.yash.notification.model;
+
+/**
+ * Aggregate of a notification's delivery receipts: whether every device or
+ * recipient it was sent to accepted it, some did, or none did.
+ */
+public enum DeliveryOutcome {
+    DELIVERED,
+    PARTIAL,
+    FAILED
+}
@@ -0,0 +1,15 @@
+package com.yash.notification.model;
+
+public enum DeliveryStatus {
+    SCHEDULED,
+    PENDING,
+    IN_FLIGHT,
+    SENT,
+    DIGESTED,
+    // Nothing to deliver to, e.g. a push to a user without registered devices; final, like SENT
+    SKIPPED,
+    EXPIRED,
+    RETRY_SCHEDULED,
+    DEAD_LETTER,
+    FAILED
+}
@@ -0,0 +1,93 @@
+package com.yash.notification.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * A request made under an {@code Idempotency-Key}. While IN_PROGRESS the key is
+ * locked until {@code lockedUntil} by the attempt holding {@code lockToken}; once COMPLETED it holds the response to
+ * replay until {@code expiresAt} (epoch seconds, removed by DynamoDB TTL).
+ */
+@DynamoDbBean
+public class IdempotencyRecord {
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    private String id;
+    private String requestHash;
+    private String requestState;
+    private Integer statusCode;
+    private String responseBody;
+    private Long lockedUntil;
+    private String lockToken;
+    private Long expiresAt;
+
+    @DynamoDbPartitionKey
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public String getRequestState() {
+        return requestState;
+    }
+
+    public void setRequestState(String requestState) {
+        this.requestState = requestState;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public Long getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Long lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getLockToken() {
+        return lockToken;
+    }
+
+    public void setLockToken(String lockToken) {
+        this.lockToken = lockToken;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isCompleted() {
+        return COMPLETED.equals(requestState);
+    }
+}
@@ -1,17 +1,28 @@
 package com.yash.notification.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import io.micronaut.serde.annotation.Serdeable;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 
 @DynamoDbBean
 @Serdeable
 public class Notification {
+    public static final String SEND_AT_INDEX = "sendAtBucket-index";
+    public static final String USER_INDEX = "userId-createdAt-index";
+    public static final String OUTBOX_INDEX = "deliveryStatus-dueAt-index";
+
     private String id;
     
     @NotNull(message = "User ID is required")
@@ -32,6 +43,38 @@ public class Notification {
     private LocalDateTime createdAt;
     private boolean read;
 
+    private String channel;
+    private List<String> channels;
+
+    // Outbox state: set by the server only, never bound from a request body
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Map<String, DeliveryStatus> channelStatuses;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private DeliveryStatus deliveryStatus;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int deliveryAttempts;
+    @JsonIgnore
+    private Long leaseExpiresAt;
+    @JsonIgnore
+    private String leaseToken;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long dueAt;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime deliveredAt;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long nextAttemptAt;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String lastError;
+    private Instant sendAt;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long sendAtMillis;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String sendAtBucket;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Map<String, String> receipts;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private DeliveryOutcome deliveryOutcome;
+
     public Notification() {
         this.id = UUID.randomUUID().toString();
         this.timestamp = LocalDateTime.now();
@@ -48,6 +91,7 @@ public class Notification {
         this.id = id;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = USER_INDEX)
     public UUID getUserId() {
         return userId;
     }
@@ -88,6 +132,7 @@ public class Notification {
         this.priority = priority;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = USER_INDEX)
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -104,6 +149,152 @@ public class Notification {
         this.read = read;
     }
 
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public List<String> getChannels() {
+        return channels;
+    }
+
+    public void setChannels(List<String> channels) {
+        this.channels = channels;
+    }
+
+    public Map<String, DeliveryStatus> getChannelStatuses() {
+        return channelStatuses;
+    }
+
+    public void setChannelStatuses(Map<String, DeliveryStatus> channelStatuses) {
+        this.channelStatuses = channelStatuses;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = OUTBOX_INDEX)
+    public DeliveryStatus getDeliveryStatus() {
+        return deliveryStatus;
+    }
+
+    public void setDeliveryStatus(DeliveryStatus deliveryStatus) {
+        this.deliveryStatus = deliveryStatus;
+    }
+
+    public int getDeliveryAttempts() {
+        return deliveryAttempts;
+    }
+
+    public void setDeliveryAttempts(int deliveryAttempts) {
+        this.deliveryAttempts = deliveryAttempts;
+    }
+
+    public Long getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Long leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(LocalDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+
+    /**
+     * Identifies the claim that owns an IN_FLIGHT notification; state changes
+     * made on behalf of a claim are conditional on it.
+     */
+    public String getLeaseToken() {
+        return leaseToken;
+    }
+
+    public void setLeaseToken(String leaseToken) {
+        this.leaseToken = leaseToken;
+    }
+
+    /**
+     * When the outbox should next look at the notification: now for PENDING,
+     * the lease expiry for IN_FLIGHT, the next attempt for RETRY_SCHEDULED, the
+     * send time for SCHEDULED. Removed once delivery is finished, so the outbox
+     * index only holds open work.
+     */
+    @DynamoDbSecondarySortKey(indexNames = OUTBOX_INDEX)
+    public Long getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(Long dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public Long getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Long nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getSendAt() {
+        return sendAt;
+    }
+
+    public void setSendAt(Instant sendAt) {
+        this.sendAt = sendAt;
+    }
+
+    @DynamoDbSecondarySortKey(indexNames = SEND_AT_INDEX)
+    public Long getSendAtMillis() {
+        return sendAtMillis;
+    }
+
+    public void setSendAtMillis(Long sendAtMillis) {
+        this.sendAtMillis = sendAtMillis;
+    }
+
+    /**
+     * Time bucket of {@code sendAt}; only set while the notification is waiting
+     * for its send time, so the index holds scheduled items only.
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = SEND_AT_INDEX)
+    public String getSendAtBucket() {
+        return sendAtBucket;
+    }
+
+    public void setSendAtBucket(String sendAtBucket) {
+        this.sendAtBucket = sendAtBucket;
+    }
+
+    public Map<String, String> getReceipts() {
+        return receipts;
+    }
+
+    public void setReceipts(Map<String, String> receipts) {
+        this.receipts = receipts;
+    }
+
+    public DeliveryOutcome getDeliveryOutcome() {
+        return deliveryOutcome;
+    }
+
+    public void setDeliveryOutcome(DeliveryOutcome deliveryOutcome) {
+        this.deliveryOutcome = deliveryOutcome;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,220 @@
+package com.yash.notification.repository;
+
+import com.yash.notification.config.BlockingSchedulerFactory;
+import com.yash.notification.model.BroadcastJob;
+import com.yash.notification.model.BroadcastJobStatus;
+
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Broadcast job state. Partitions of a job are run by different instances, so
+ * progress is written per partition: each checkpoint is conditional on the job
+ * still RUNNING and on the partition's cursor being where the writer left it,
+ * which stops a cancelled job, and a partition that has changed owner, at its
+ * next checkpoint. Counts are added atomically. Once a job is finished, its
+ * per-partition cursors and retry state are removed; only the counts and the
+ * set of completed partitions stay.
+ */
+@Singleton
+public class BroadcastJobRepository {
+    public static final String TABLE_NAME = "broadcast_jobs";
+
+    private final DynamoDbTable<BroadcastJob> jobTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final Scheduler blockingScheduler;
+
+    public BroadcastJobRepository(DynamoDbEnhancedClient enhancedClient, DynamoDbClient dynamoDbClient,
+            @Named(BlockingSchedulerFactory.BLOCKING_IO) Scheduler blockingScheduler) {
+        this.jobTable = enhancedClient.table(TABLE_NAME, TableSchema.fromBean(BroadcastJob.class));
+        this.dynamoDbClient = dynamoDbClient;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    public Mono<BroadcastJob> save(BroadcastJob job) {
+        return Mono.fromCallable(() -> {
+            jobTable.putItem(job);
+            return job;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    public Mono<BroadcastJob> findById(String id) {
+        return Mono.fromCallable(() -> jobTable.getItem(Key.builder().partitionValue(id).build()))
+                .subscribeOn(blockingScheduler);
+    }
+
+    public Flux<BroadcastJob> findRunning() {
+        return Flux.defer(() -> {
+            Expression filter = Expression.builder()
+                    .expression("jobStatus = :running")
+                    .expressionValues(Map.of(":running", stringValue(BroadcastJobStatus.RUNNING.name())))
+                    .build();
+            return Flux.fromStream(jobTable.scan(ScanEnhancedRequest.builder()
+                            .filterExpression(filter)
+                            .build())
+                    .items()
+                    .stream());
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Sets the audience size the first time any partition runner counts it.
+     */
+    public Mono<Void> recordTotal(String id, long total) {
+        return update(id, "SET totalCount = if_not_exists(totalCount, :total)", "attribute_exists(id)",
+                Map.of(), Map.of(":total", numberValue(total))).then();
+    }
+
+    /**
+     * Advances a partition's cursor from {@code expectedCursor} (null before the
+     * first chunk) and adds the chunk's counts. Returns false if the partition
+     * should stop: the job is no longer running or another owner moved the
+     * cursor.
+     */
+    public Mono<Boolean> checkpoint(String id, int partition, String expectedCursor, String cursor, long sent,
+            long failed) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":running", stringValue(BroadcastJobStatus.RUNNING.name()));
+        values.put(":cursor", stringValue(cursor));
+        values.put(":sent", numberValue(sent));
+        values.put(":failed", numberValue(failed));
+        values.put(":updatedAt", stringValue(LocalDateTime.now().toString()));
+        String cursorCondition;
+        if (expectedCursor == null) {
+            cursorCondition = "attribute_not_exists(partitionCursors.#p)";
+        } else {
+            cursorCondition = "partitionCursors.#p = :expected";
+            values.put(":expected", stringValue(expectedCursor));
+        }
+        return update(id,
+                "SET partitionCursors.#p = :cursor, updatedAt = :updatedAt ADD sentCount :sent, failedCount :failed",
+                "jobStatus = :running AND " + cursorCondition, Map.of("#p", Integer.toString(partition)), values);
+    }
+
+    /**
+     * Marks a partition done. Emits true if that completed the whole job, which
+     * is then marked COMPLETED.
+     */
+    public Mono<Boolean> completePartition(String id, int partition) {
+        return Mono.fromCallable(() -> {
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":running", stringValue(BroadcastJobStatus.RUNNING.name()));
+            values.put(":partition", AttributeValue.builder().ss(Integer.toString(partition)).build());
+            values.put(":updatedAt", stringValue(LocalDateTime.now().toString()));
+            try {
+                UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("id", stringValue(id)))
+                        .updateExpression("ADD completedPartitions :partition SET updatedAt = :updatedAt")
+                        .conditionExpression("jobStatus = :running")
+                        .expressionAttributeValues(values)
+                        .returnValues(ReturnValue.ALL_NEW)
+                        .build());
+                Map<String, AttributeValue> item = response.attributes();
+                int completed = item.get("completedPartitions").ss().size();
+                return completed >= Integer.parseInt(item.get("partitionCount").n());
+            } catch (ConditionalCheckFailedException e) {
+                return false;
+            }
+        }).subscribeOn(blockingScheduler)
+                .flatMap(allDone -> allDone
+                        ? finish(id, BroadcastJobStatus.COMPLETED)
+                        : Mono.just(false));
+    }
+
+    /**
+     * Records a failed run of a partition, which may run again from
+     * {@code retryAtMillis}, and emits how many runs of it have failed so far;
+     * 0 if the job is no longer running.
+     */
+    public Mono<Integer> recordPartitionFailure(String id, int partition, long retryAtMillis) {
+        return Mono.fromCallable(() -> {
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":running", stringValue(BroadcastJobStatus.RUNNING.name()));
+            values.put(":zero", numberValue(0));
+            values.put(":one", numberValue(1));
+            values.put(":retryAt", numberValue(retryAtMillis));
+            values.put(":updatedAt", stringValue(LocalDateTime.now().toString()));
+            String key = Integer.toString(partition);
+            try {
+                Map<String, AttributeValue> item = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("id", stringValue(id)))
+                        .updateExpression("SET partitionAttempts.#p = if_not_exists(partitionAttempts.#p, :zero) "
+                                + "+ :one, partitionRetryAt.#p = :retryAt, updatedAt = :updatedAt")
+                        .conditionExpression("jobStatus = :running")
+                        .expressionAttributeNames(Map.of("#p", key))
+                        .expressionAttributeValues(values)
+                        .returnValues(ReturnValue.UPDATED_NEW)
+                        .build()).attributes();
+                return Integer.parseInt(item.get("partitionAttempts").m().get(key).n());
+            } catch (ConditionalCheckFailedException e) {
+                return 0;
+            }
+        }).subscribeOn(blockingScheduler);
+    }
+
+    public Mono<Boolean> finish(String id, BroadcastJobStatus status) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":running", stringValue(BroadcastJobStatus.RUNNING.name()));
+        values.put(":status", stringValue(status.name()));
+        values.put(":updatedAt", stringValue(LocalDateTime.now().toString()));
+        // Nothing resumes a finished job, so its per-partition state goes
+        return update(id, "SET jobStatus = :status, updatedAt = :updatedAt "
+                        + "REMOVE partitionCursors, partitionAttempts, partitionRetryAt",
+                "jobStatus = :running", Map.of(), values);
+    }
+
+    public Mono<Boolean> cancel(String id) {
+        return finish(id, BroadcastJobStatus.CANCELLED);
+    }
+
+    private Mono<Boolean> update(String id, String updateExpression, String condition, Map<String, String> names,
+            Map<String, AttributeValue> values) {
+        return Mono.fromCallable(() -> {
+            UpdateItemRequest.Builder request = UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("id", stringValue(id)))
+                    .updateExpression(updateExpression)
+                    .conditionExpression(condition)
+                    .expressionAttributeValues(values);
+            if (!names.isEmpty()) {
+                request.expressionAttributeNames(names);
+            }
+            try {
+                dynamoDbClient.updateItem(request.build());
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                return false;
+            }
+        }).subscribeOn(blockingScheduler);
+    }
+
+    private static AttributeValue stringValue(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue numberValue(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.yash.notification.repository;
+
+import com.yash.notification.config.BlockingSchedulerFactory;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.util.Map;
+
+/**
+ * One item per content hash seen within the dedup window. The conditional put
+ * is what makes dedup hold across instances; {@code expiresAt} is in epoch
+ * seconds so DynamoDB TTL can remove stale markers.
+ */
+@Singleton
+public class DedupMarkerRepository {
+    public static final String TABLE_NAME = "notification_dedup";
+    public static final String EXPIRES_AT = "expiresAt";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final Scheduler blockingScheduler;
+
+    public DedupMarkerRepository(DynamoDbClient dynamoDbClient,
+            @Named(BlockingSchedulerFactory.BLOCKING_IO) Scheduler blockingScheduler) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    /**
+     * Writes the marker unless a live one exists. Returns false for a duplicate.
+     */
+    public Mono<Boolean> putIfAbsent(String hash, long nowMillis, long expiresAtMillis) {
+        return Mono.fromCallable(() -> {
+            try {
+                dynamoDbClient.putItem(PutItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .item(Map.of(
+                                "id", AttributeValue.builder().s(hash).build(),
+                                EXPIRES_AT, epochSeconds(expiresAtMillis)))
+                        // TTL deletion lags, so expired markers are overwritten here
+                        .conditionExpression("attribute_not_exists(id) OR " + EXPIRES_AT + " <= :now")
+                        .expressionAttributeValues(Map.of(":now", epochSeconds(nowMillis)))
+                        .build());
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                return false;
+            }
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Whether a live marker exists for {@code hash}, without writing one.
+     */
+    public Mono<Boolean> exists(String hash, long nowMillis) {
+        return Mono.fromCallable(() -> {
+            Map<String, AttributeValue> item = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("id", AttributeValue.builder().s(hash).build()))
+                    .consistentRead(true)
+                    .build()).item();
+            AttributeValue expiresAt = item != null ? item.get(EXPIRES_AT) : null;
+            return expiresAt != null && Long.parseLong(expiresAt.n()) > nowMillis / 1000;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    public Mono<Void> delete(String hash) {
+        return Mono.fromRunnable(() -> dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("id", AttributeValue.builder().s(hash).build()))
+                        .build()))
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    private static AttributeValue epochSeconds(long millis) {
+        return AttributeValue.builder().n(Long.toString(millis / 1000)).build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.yash.notification.repository;
+
+import com.yash.notification.config.BlockingSchedulerFactory;
+import com.yash.notification.model.IdempotencyRecord;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Singleton
+public class IdempotencyRepository {
+    public static final String TABLE_NAME = "idempotency_keys";
+
+    private final DynamoDbTable<IdempotencyRecord> recordTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final Scheduler blockingScheduler;
+
+    public IdempotencyRepository(DynamoDbEnhancedClient enhancedClient, DynamoDbClient dynamoDbClient,
+            @Named(BlockingSchedulerFactory.BLOCKING_IO) Scheduler blockingScheduler) {
+        this.recordTable = enhancedClient.table(TABLE_NAME, TableSchema.fromBean(IdempotencyRecord.class));
+        this.dynamoDbClient = dynamoDbClient;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    /**
+     * Takes the key for a new request. Succeeds if the key is unused, expired, or
+     * locked by an attempt that stopped without finishing; returns false
+     * otherwise. {@code lockToken} identifies this attempt to
+     * {@link #complete} and {@link #release}.
+     */
+    public Mono<Boolean> lock(String id, String lockToken, String requestHash, long nowMillis,
+            long lockedUntilMillis, long expiresAtMillis) {
+        return Mono.fromCallable(() -> {
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("id", stringValue(id));
+            item.put("requestHash", stringValue(requestHash));
+            item.put("requestState", stringValue(IdempotencyRecord.IN_PROGRESS));
+            item.put("lockedUntil", numberValue(lockedUntilMillis));
+            item.put("lockToken", stringValue(lockToken));
+            item.put("expiresAt", numberValue(expiresAtMillis / 1000));
+            try {
+                dynamoDbClient.putItem(PutItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .item(item)
+                        .conditionExpression("attribute_not_exists(id) OR expiresAt <= :nowSeconds"
+                                + " OR (requestState = :inProgress AND lockedUntil <= :now)")
+                        .expressionAttributeValues(Map.of(
+                                ":now", numberValue(nowMillis),
+                                ":nowSeconds", numberValue(nowMillis / 1000),
+                                ":inProgress", stringValue(IdempotencyRecord.IN_PROGRESS)))
+                        .build());
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                return false;
+            }
+        }).subscribeOn(blockingScheduler);
+    }
+
+    public Mono<IdempotencyRecord> findById(String id) {
+        return Mono.fromCallable(() -> recordTable.getItem(GetItemEnhancedRequest.builder()
+                        .key(Key.builder().partitionValue(id).build())
+                        .consistentRead(true)
+                        .build()))
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Stores the response of the attempt holding {@code lockToken}. Returns false
+     * if that attempt no longer holds the lock, e.g. because it outlived
+     * {@code lockTimeout} and another attempt took over.
+     */
+    public Mono<Boolean> complete(String id, String lockToken, int statusCode, String responseBody) {
+        return Mono.fromCallable(() -> {
+                    Map<String, AttributeValue> values = new HashMap<>();
+                    values.put(":completed", stringValue(IdempotencyRecord.COMPLETED));
+                    values.put(":statusCode", numberValue(statusCode));
+                    values.put(":responseBody", responseBody != null
+                            ? stringValue(responseBody)
+                            : AttributeValue.builder().nul(true).build());
+                    values.put(":inProgress", stringValue(IdempotencyRecord.IN_PROGRESS));
+                    values.put(":lockToken", stringValue(lockToken));
+                    try {
+                        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                                .tableName(TABLE_NAME)
+                                .key(Map.of("id", stringValue(id)))
+                                .updateExpression("SET requestState = :completed, statusCode = :statusCode,"
+                                        + " responseBody = :responseBody REMOVE lockedUntil, lockToken")
+                                .conditionExpression("requestState = :inProgress AND lockToken = :lockToken")
+                                .expressionAttributeValues(values)
+                                .build());
+                        return true;
+                    } catch (ConditionalCheckFailedException e) {
+                        return false;
+                    }
+                })
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Frees the key after a failed attempt, unless another attempt holds it by now.
+     */
+    public Mono<Void> release(String id, String lockToken) {
+        return Mono.fromRunnable(() -> {
+                    try {
+                        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                                .tableName(TABLE_NAME)
+                                .key(Map.of("id", stringValue(id)))
+                                .conditionExpression("requestState = :inProgress AND lockToken = :lockToken")
+                                .expressionAttributeValues(Map.of(
+                                        ":inProgress", stringValue(IdempotencyRecord.IN_PROGRESS),
+                                        ":lockToken", stringValue(lockToken)))
+                                .build());
+                    } catch (ConditionalCheckFailedException e) {
+                        // Taken over by another attempt, which now owns it
+                    }
+                })
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    private static AttributeValue stringValue(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue numberValue(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.yash.notification.repository;
+
+import com.yash.notification.config.BlockingSchedulerFactory;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One counter item per user, incremented on every change to the user's inbox.
+ * Every instance reads the same counter, so inbox ETags hold across instances.
+ */
+@Singleton
+public class InboxVersionRepository {
+    public static final String TABLE_NAME = "inbox_versions";
+    private static final String VERSION = "version";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final Scheduler blockingScheduler;
+
+    public InboxVersionRepository(DynamoDbClient dynamoDbClient,
+            @Named(BlockingSchedulerFactory.BLOCKING_IO) Scheduler blockingScheduler) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    public Mono<Void> increment(UUID userId) {
+        return Mono.fromRunnable(() -> dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(key(userId))
+                        .updateExpression("ADD #version :one")
+                        .expressionAttributeNames(Map.of("#version", VERSION))
+                        .expressionAttributeValues(Map.of(":one", AttributeValue.builder().n("1").build()))
+                        .build()))
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    /**
+     * The user's current version, 0 if their inbox never changed. Read
+     * consistently, so a change whose write has returned is always seen.
+     */
+    public Mono<Long> find(UUID userId) {
+        return Mono.fromCallable(() -> {
+            Map<String, AttributeValue> item = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(key(userId))
+                    .projectionExpression("#version")
+                    .expressionAttributeNames(Map.of("#version", VERSION))
+                    .consistentRead(true)
+                    .build()).item();
+            AttributeValue version = item != null ? item.get(VERSION) : null;
+            return version != null ? Long.parseLong(version.n()) : 0L;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    private static Map<String, AttributeValue> key(UUID userId) {
+        return Map.of("id", AttributeValue.builder().s(userId.toString()).build());
+    }
+}
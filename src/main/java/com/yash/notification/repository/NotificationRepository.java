@@ -1,63 +1,697 @@
 package com.yash.notification.repository;
 
+import com.yash.notification.config.BlockingSchedulerFactory;
+import com.yash.notification.delivery.AdaptiveConcurrencyLimiter;
+import com.yash.notification.delivery.DeliveryLimiters;
+import com.yash.notification.delivery.DeliveryProvider;
+import com.yash.notification.delivery.DeliveryReceipt;
+import com.yash.notification.model.DeliveryOutcome;
+import com.yash.notification.model.DeliveryStatus;
 import com.yash.notification.model.Notification;
 import com.yash.notification.model.NotificationPriority;
 
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.IndexStatus;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 @Singleton
 public class NotificationRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationRepository.class);
+    public static final String TABLE_NAME = "notifications";
+    // BatchWriteItem limit
+    public static final int MAX_BATCH_WRITE = 25;
+    private static final int BATCH_WRITE_ATTEMPTS = 4;
+    // BatchGetItem limit
+    private static final int MAX_BATCH_GET = 100;
+    private static final int QUERY_PAGE_SIZE = 100;
+    private static final long INDEX_RECHECK_MILLIS = 30_000;
+
+    // Claimable by a new worker; see claimForDelivery
+    private static final String CLAIMABLE = "deliveryStatus = :pending OR "
+            + "(deliveryStatus = :inFlight AND leaseExpiresAt < :now) OR "
+            + "(deliveryStatus = :retry AND nextAttemptAt <= :now) OR "
+            + "(deliveryStatus = :scheduled AND sendAtMillis <= :now)";
+    // Still held by the claim the caller took
+    private static final String OWNED = "deliveryStatus = :inFlight AND leaseToken = :token";
+
+    private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<Notification> notificationTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final AdaptiveConcurrencyLimiter dynamoDbLimiter;
+    private final Scheduler blockingScheduler;
+    private final InboxVersionRepository inboxVersionRepository;
+    private final Set<String> activeIndexes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> indexCheckedAt = new ConcurrentHashMap<>();
 
-    public NotificationRepository(DynamoDbEnhancedClient enhancedClient) {
-        this.notificationTable = enhancedClient.table("notifications", TableSchema.fromBean(Notification.class));
+    public NotificationRepository(DynamoDbEnhancedClient enhancedClient, DynamoDbClient dynamoDbClient,
+            DeliveryLimiters deliveryLimiters,
+            @Named(BlockingSchedulerFactory.BLOCKING_IO) Scheduler blockingScheduler,
+            InboxVersionRepository inboxVersionRepository) {
+        this.enhancedClient = enhancedClient;
+        this.notificationTable = enhancedClient.table(TABLE_NAME, TableSchema.fromBean(Notification.class));
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbLimiter = deliveryLimiters.get(DeliveryProvider.DYNAMODB);
+        this.blockingScheduler = blockingScheduler;
+        this.inboxVersionRepository = inboxVersionRepository;
     }
 
     public Mono<Notification> save(Notification notification) {
-        return Mono.fromCallable(() -> {
+        return dynamoDbLimiter.execute(Mono.fromCallable(() -> {
             notificationTable.putItem(notification);
             return notification;
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(blockingScheduler))
+                .flatMap(saved -> inboxChanged(saved.getUserId()).thenReturn(saved));
+    }
+
+    /**
+     * Writes up to {@link #MAX_BATCH_WRITE} notifications with one
+     * BatchWriteItem, retrying unprocessed items with backoff. Emits the items
+     * that still could not be written.
+     */
+    public Mono<List<Notification>> saveAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return writeBatch(notifications, 0)
+                .flatMap(unprocessed -> Flux.fromIterable(notifications)
+                        .filter(notification -> !unprocessed.contains(notification))
+                        .map(Notification::getUserId)
+                        .distinct()
+                        .concatMap(this::inboxChanged)
+                        .then(Mono.just(unprocessed)));
+    }
+
+    private Mono<List<Notification>> writeBatch(List<Notification> pending, int attempt) {
+        return dynamoDbLimiter.execute(Mono.fromCallable(() -> {
+                    WriteBatch.Builder<Notification> batch = WriteBatch.builder(Notification.class)
+                            .mappedTableResource(notificationTable);
+                    pending.forEach(batch::addPutItem);
+                    BatchWriteResult result = enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                            .writeBatches(batch.build())
+                            .build());
+                    return result.unprocessedPutItemsForTable(notificationTable);
+                }).subscribeOn(blockingScheduler), unprocessed -> !unprocessed.isEmpty())
+                .flatMap(unprocessed -> {
+                    if (unprocessed.isEmpty() || attempt + 1 >= BATCH_WRITE_ATTEMPTS) {
+                        return Mono.just(unprocessed);
+                    }
+                    // Unprocessed items mean the table is throttling; the wait holds no limiter permit
+                    return Mono.delay(Duration.ofMillis(50L << (attempt + 1)))
+                            .then(writeBatch(unprocessed, attempt + 1));
+                });
+    }
+
+    /**
+     * Atomically moves a notification from PENDING (IN_FLIGHT with an expired
+     * lease, RETRY_SCHEDULED whose backoff has passed, or SCHEDULED whose send
+     * time has come) to IN_FLIGHT, owned by {@code leaseToken}. Claiming also
+     * takes it out of the send-at index. Returns false if another worker already
+     * owns it or it has been delivered.
+     */
+    public Mono<Boolean> claimForDelivery(String id, String leaseToken, long leaseMillis) {
+        return Mono.defer(() -> {
+            long now = System.currentTimeMillis();
+            Map<String, AttributeValue> values = claimableValues(now);
+            values.put(":lease", numberValue(now + leaseMillis));
+            values.put(":token", stringValue(leaseToken));
+            values.put(":one", numberValue(1));
+            return updateIf(id, "SET deliveryStatus = :inFlight, leaseExpiresAt = :lease, dueAt = :lease, "
+                    + "leaseToken = :token REMOVE sendAtBucket ADD deliveryAttempts :one", CLAIMABLE, values);
+        });
+    }
+
+    /**
+     * Records the final state of a delivery made under {@code leaseToken}.
+     * Returns false if the claim was lost, e.g. its lease ran out and another
+     * worker took the notification over; the state is then left to that worker.
+     */
+    public Mono<Boolean> completeDelivery(String id, String leaseToken, DeliveryStatus status) {
+        Map<String, AttributeValue> values = ownedValues(leaseToken);
+        values.put(":status", stringValue(status.name()));
+        values.put(":deliveredAt", stringValue(LocalDateTime.now().toString()));
+        return updateIf(id, "SET deliveryStatus = :status, deliveredAt = :deliveredAt "
+                + "REMOVE leaseExpiresAt, leaseToken, dueAt", OWNED, values);
+    }
+
+    /**
+     * Marks a notification that outlived its lane TTL as EXPIRED, unless a
+     * worker holds a live claim on it.
+     */
+    public Mono<Boolean> expire(String id) {
+        return Mono.defer(() -> {
+            Map<String, AttributeValue> values = claimableValues(System.currentTimeMillis());
+            values.put(":expired", stringValue(DeliveryStatus.EXPIRED.name()));
+            return updateIf(id, "SET deliveryStatus = :expired "
+                    + "REMOVE leaseExpiresAt, leaseToken, dueAt, sendAtBucket", CLAIMABLE, values);
+        });
+    }
+
+    /**
+     * Hands a claimed notification back to the outbox as PENDING when its
+     * delivery was interrupted, without counting the attempt. Returns false if
+     * the claim was lost.
+     */
+    public Mono<Boolean> releaseClaim(String id, String leaseToken) {
+        Map<String, AttributeValue> values = ownedValues(leaseToken);
+        values.put(":pending", stringValue(DeliveryStatus.PENDING.name()));
+        values.put(":now", numberValue(System.currentTimeMillis()));
+        values.put(":minusOne", numberValue(-1));
+        return updateIf(id, "SET deliveryStatus = :pending, dueAt = :now REMOVE leaseExpiresAt, leaseToken "
+                + "ADD deliveryAttempts :minusOne", OWNED, values);
+    }
+
+    /**
+     * Keeps a claim alive until {@code untilMillis}, for deliveries that finish
+     * later than the outbox lease, such as digested emails. Returns false if the
+     * claim was lost.
+     */
+    public Mono<Boolean> extendLease(String id, String leaseToken, long untilMillis) {
+        Map<String, AttributeValue> values = ownedValues(leaseToken);
+        values.put(":until", numberValue(untilMillis));
+        return updateIf(id, "SET leaseExpiresAt = :until, dueAt = :until", OWNED, values);
+    }
+
+    private static Map<String, AttributeValue> claimableValues(long now) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":pending", stringValue(DeliveryStatus.PENDING.name()));
+        values.put(":inFlight", stringValue(DeliveryStatus.IN_FLIGHT.name()));
+        values.put(":retry", stringValue(DeliveryStatus.RETRY_SCHEDULED.name()));
+        values.put(":scheduled", stringValue(DeliveryStatus.SCHEDULED.name()));
+        values.put(":now", numberValue(now));
+        return values;
+    }
+
+    private static Map<String, AttributeValue> ownedValues(String leaseToken) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":inFlight", stringValue(DeliveryStatus.IN_FLIGHT.name()));
+        values.put(":token", stringValue(leaseToken));
+        return values;
+    }
+
+    /**
+     * Scheduled notifications in one send-at time bucket. A Query on the sparse
+     * index, so the cost depends on the bucket, not on the table size.
+     */
+    public Flux<Notification> findScheduledInBucket(String bucket) {
+        return Flux.defer(() -> {
+            Expression filter = Expression.builder()
+                    .expression("deliveryStatus = :scheduled")
+                    .expressionValues(Map.of(":scheduled", stringValue(DeliveryStatus.SCHEDULED.name())))
+                    .build();
+            return Flux.fromStream(notificationTable.index(Notification.SEND_AT_INDEX)
+                    .query(QueryEnhancedRequest.builder()
+                            .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(bucket).build()))
+                            .filterExpression(filter)
+                            .build())
+                    .stream()
+                    .flatMap(page -> page.items().stream()));
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Records per-channel outcomes of a multi-channel delivery on the item.
+     */
+    public Mono<Void> recordChannelStatuses(String id, Map<String, DeliveryStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> assignments = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<String, DeliveryStatus> entry : statuses.entrySet()) {
+            names.put("#c" + i, entry.getKey());
+            values.put(":s" + i, stringValue(entry.getValue().name()));
+            assignments.add("channelStatuses.#c" + i + " = :s" + i);
+            i++;
+        }
+        return Mono.fromRunnable(() -> dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of("id", stringValue(id)))
+                .updateExpression("SET " + String.join(", ", assignments))
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build())).subscribeOn(blockingScheduler).then();
+    }
+
+    /**
+     * Those of {@code ids} that exist and have at least one delivered receipt,
+     * read with BatchGetItem.
+     */
+    public Mono<Set<String>> findDelivered(Collection<String> ids) {
+        return Mono.fromCallable(() -> {
+            Set<String> delivered = new HashSet<>();
+            List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+            for (int from = 0; from < distinct.size(); from += MAX_BATCH_GET) {
+                List<Map<String, AttributeValue>> keys = distinct
+                        .subList(from, Math.min(from + MAX_BATCH_GET, distinct.size())).stream()
+                        .map(id -> Map.of("id", stringValue(id)))
+                        .collect(Collectors.toList());
+                Map<String, KeysAndAttributes> request = Map.of(TABLE_NAME, KeysAndAttributes.builder()
+                        .keys(keys)
+                        .projectionExpression("id, deliveryOutcome")
+                        .build());
+                for (int attempt = 0; attempt < BATCH_WRITE_ATTEMPTS && !request.isEmpty(); attempt++) {
+                    BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                            .requestItems(request)
+                            .build());
+                    response.responses().getOrDefault(TABLE_NAME, List.of()).stream()
+                            .filter(item -> item.containsKey("deliveryOutcome")
+                                    && DeliveryOutcome.valueOf(item.get("deliveryOutcome").s())
+                                    != DeliveryOutcome.FAILED)
+                            .forEach(item -> delivered.add(item.get("id").s()));
+                    request = response.unprocessedKeys();
+                }
+            }
+            return delivered;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Merges receipts into the notification's {@code receipts} map and refreshes
+     * its aggregated {@code deliveryOutcome}. Receipts for a notification that no
+     * longer exists are dropped.
+     */
+    public Mono<Void> recordReceipts(String id, Map<String, String> receipts) {
+        return Mono.fromRunnable(() -> {
+            DeliveryOutcome written = DeliveryReceipt.outcomeOf(receipts.values());
+            Map<String, AttributeValue> merged = mergeReceipts(id, receipts, written);
+            if (merged == null) {
+                return;
+            }
+            // Receipts from other channels or earlier attempts can change the aggregate
+            DeliveryOutcome outcome = DeliveryReceipt.outcomeOf(merged.values().stream()
+                    .map(AttributeValue::s)
+                    .toList());
+            if (outcome != written) {
+                try {
+                    dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                            .tableName(TABLE_NAME)
+                            .key(Map.of("id", stringValue(id)))
+                            .updateExpression("SET deliveryOutcome = :outcome")
+                            .conditionExpression("attribute_exists(id)")
+                            .expressionAttributeValues(Map.of(":outcome", stringValue(outcome.name())))
+                            .build());
+                } catch (ConditionalCheckFailedException e) {
+                    // Deleted in the meantime
+                }
+            }
+        }).subscribeOn(blockingScheduler).then();
+    }
+
+    private Map<String, AttributeValue> mergeReceipts(String id, Map<String, String> receipts,
+            DeliveryOutcome outcome) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> assignments = new ArrayList<>();
+        Map<String, AttributeValue> receiptValues = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<String, String> entry : receipts.entrySet()) {
+            names.put("#r" + i, entry.getKey());
+            values.put(":r" + i, stringValue(entry.getValue()));
+            assignments.add("receipts.#r" + i + " = :r" + i);
+            receiptValues.put(entry.getKey(), stringValue(entry.getValue()));
+            i++;
+        }
+        AttributeValue outcomeValue = stringValue(outcome.name());
+        // Nested paths need the map to exist; the first receipts create it. Two
+        // rounds cover a concurrent writer creating it between our attempts.
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                Map<String, AttributeValue> nestedValues = new HashMap<>(values);
+                nestedValues.put(":outcome", outcomeValue);
+                return dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("id", stringValue(id)))
+                        .updateExpression("SET " + String.join(", ", assignments) + ", deliveryOutcome = :outcome")
+                        .conditionExpression("attribute_exists(receipts)")
+                        .expressionAttributeNames(names)
+                        .expressionAttributeValues(nestedValues)
+                        .returnValues(ReturnValue.ALL_NEW)
+                        .build()).attributes().get("receipts").m();
+            } catch (ConditionalCheckFailedException e) {
+                // No receipts map yet, or no notification
+            }
+            try {
+                dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("id", stringValue(id)))
+                        .updateExpression("SET receipts = :receipts, deliveryOutcome = :outcome")
+                        .conditionExpression("attribute_exists(id) AND attribute_not_exists(receipts)")
+                        .expressionAttributeValues(Map.of(
+                                ":receipts", AttributeValue.builder().m(receiptValues).build(),
+                                ":outcome", outcomeValue))
+                        .build());
+                return receiptValues;
+            } catch (ConditionalCheckFailedException e) {
+                // Created concurrently, or no notification
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parks a failed delivery made under {@code leaseToken} until
+     * {@code nextAttemptAt}. Returns false if the claim was lost.
+     */
+    public Mono<Boolean> scheduleRetry(String id, String leaseToken, long nextAttemptAt, String error) {
+        Map<String, AttributeValue> values = ownedValues(leaseToken);
+        values.put(":retry", stringValue(DeliveryStatus.RETRY_SCHEDULED.name()));
+        values.put(":next", numberValue(nextAttemptAt));
+        values.put(":error", stringValue(error));
+        return updateIf(id, "SET deliveryStatus = :retry, nextAttemptAt = :next, dueAt = :next, lastError = :error "
+                + "REMOVE leaseExpiresAt, leaseToken", OWNED, values);
+    }
+
+    public Mono<Boolean> deadLetter(String id, String leaseToken, String error) {
+        Map<String, AttributeValue> values = ownedValues(leaseToken);
+        values.put(":dead", stringValue(DeliveryStatus.DEAD_LETTER.name()));
+        values.put(":error", stringValue(error));
+        values.put(":now", numberValue(System.currentTimeMillis()));
+        return updateIf(id, "SET deliveryStatus = :dead, lastError = :error, dueAt = :now "
+                + "REMOVE leaseExpiresAt, leaseToken, nextAttemptAt", OWNED, values);
+    }
+
+    /**
+     * Moves a dead-lettered notification back to the retry queue with a fresh
+     * attempt budget. Returns false if it is not dead-lettered.
+     */
+    public Mono<Boolean> requeueDeadLetter(String id, long nextAttemptAt) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":dead", stringValue(DeliveryStatus.DEAD_LETTER.name()));
+        values.put(":retry", stringValue(DeliveryStatus.RETRY_SCHEDULED.name()));
+        values.put(":next", numberValue(nextAttemptAt));
+        values.put(":zero", numberValue(0));
+        return updateIf(id, "SET deliveryStatus = :retry, nextAttemptAt = :next, dueAt = :next, "
+                + "deliveryAttempts = :zero", "deliveryStatus = :dead", values);
+    }
+
+    /**
+     * Up to {@code limit} retries whose backoff has passed.
+     */
+    public Flux<Notification> findDueRetries(int limit) {
+        return Flux.defer(() -> {
+            long now = System.currentTimeMillis();
+            if (isIndexActive(Notification.OUTBOX_INDEX)) {
+                return findInOutbox(DeliveryStatus.RETRY_SCHEDULED, now, limit);
+            }
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":retry", stringValue(DeliveryStatus.RETRY_SCHEDULED.name()));
+            values.put(":now", numberValue(now));
+            return scanByStatus("deliveryStatus = :retry AND nextAttemptAt <= :now", values, limit);
+        }).subscribeOn(blockingScheduler);
+    }
+
+    public Flux<Notification> findDeadLetters() {
+        return Flux.defer(() -> {
+            if (isIndexActive(Notification.OUTBOX_INDEX)) {
+                return findInOutbox(DeliveryStatus.DEAD_LETTER, Long.MAX_VALUE, Integer.MAX_VALUE);
+            }
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":dead", stringValue(DeliveryStatus.DEAD_LETTER.name()));
+            return scanByStatus("deliveryStatus = :dead", values, Integer.MAX_VALUE);
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Items still waiting for delivery, including claims whose lease ran out
+     * because the owning worker died, and scheduled items whose send time has
+     * passed without any instance releasing them.
+     */
+    public Flux<Notification> findPendingDeliveries() {
+        return Flux.defer(() -> {
+            long now = System.currentTimeMillis();
+            if (isIndexActive(Notification.OUTBOX_INDEX)) {
+                return Flux.concat(findInOutbox(DeliveryStatus.PENDING, now, Integer.MAX_VALUE),
+                        findInOutbox(DeliveryStatus.IN_FLIGHT, now - 1, Integer.MAX_VALUE),
+                        findInOutbox(DeliveryStatus.SCHEDULED, now, Integer.MAX_VALUE));
+            }
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":pending", stringValue(DeliveryStatus.PENDING.name()));
+            values.put(":inFlight", stringValue(DeliveryStatus.IN_FLIGHT.name()));
+            values.put(":scheduled", stringValue(DeliveryStatus.SCHEDULED.name()));
+            values.put(":now", numberValue(now));
+            return scanByStatus("deliveryStatus = :pending OR (deliveryStatus = :inFlight AND leaseExpiresAt < :now) "
+                    + "OR (deliveryStatus = :scheduled AND sendAtMillis <= :now)", values, Integer.MAX_VALUE);
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Open notifications in {@code status} that are due by {@code dueBy}, oldest
+     * first. A Query on the sparse outbox index, so the cost depends on the open
+     * work, not on the table size.
+     */
+    private Flux<Notification> findInOutbox(DeliveryStatus status, long dueBy, int limit) {
+        return Flux.fromStream(notificationTable.index(Notification.OUTBOX_INDEX)
+                        .query(QueryEnhancedRequest.builder()
+                                .queryConditional(QueryConditional.sortLessThanOrEqualTo(Key.builder()
+                                        .partitionValue(status.name())
+                                        .sortValue(dueBy)
+                                        .build()))
+                                .limit(Math.min(limit, QUERY_PAGE_SIZE))
+                                .build())
+                        .stream()
+                        .flatMap(page -> page.items().stream()))
+                .take(limit);
+    }
+
+    // Fallback until an index added to an existing table has been backfilled
+    private Flux<Notification> scanByStatus(String filterExpression, Map<String, AttributeValue> values,
+            int limit) {
+        Expression filter = Expression.builder()
+                .expression(filterExpression)
+                .expressionValues(values)
+                .build();
+        return Flux.fromStream(notificationTable.scan(ScanEnhancedRequest.builder()
+                        .filterExpression(filter)
+                        .build())
+                .items()
+                .stream()
+                .limit(limit));
+    }
+
+    /**
+     * Whether a global index can be queried. An index added to an existing table
+     * is unusable while DynamoDB backfills it, so callers fall back to a scan;
+     * the status is looked up at most every {@code INDEX_RECHECK_MILLIS}.
+     */
+    boolean isIndexActive(String indexName) {
+        if (activeIndexes.contains(indexName)) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        Long checkedAt = indexCheckedAt.get(indexName);
+        if (checkedAt != null && now - checkedAt < INDEX_RECHECK_MILLIS) {
+            return false;
+        }
+        indexCheckedAt.put(indexName, now);
+        try {
+            TableDescription table = dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .build()).table();
+            boolean active = table.hasGlobalSecondaryIndexes() && table.globalSecondaryIndexes().stream()
+                    .anyMatch(index -> indexName.equals(index.indexName())
+                            && index.indexStatus() == IndexStatus.ACTIVE
+                            && !Boolean.TRUE.equals(index.backfilling()));
+            if (active) {
+                activeIndexes.add(indexName);
+            }
+            return active;
+        } catch (RuntimeException e) {
+            LOG.warn("Could not check index {}: {}", indexName, e.getMessage());
+            return false;
+        }
+    }
+
+    private Mono<Boolean> updateIf(String id, String updateExpression, String conditionExpression,
+            Map<String, AttributeValue> values) {
+        return Mono.fromCallable(() -> {
+            try {
+                dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("id", stringValue(id)))
+                        .updateExpression(updateExpression)
+                        .conditionExpression(conditionExpression)
+                        .expressionAttributeValues(values)
+                        .build());
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                return false;
+            }
+        }).subscribeOn(blockingScheduler);
+    }
+
+    private static AttributeValue stringValue(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue numberValue(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
     }
 
     public Mono<Notification> findById(String id) {
         return Mono.fromCallable(() -> {
             Key key = Key.builder().partitionValue(id).build();
             return notificationTable.getItem(key);
-        }).subscribeOn(Schedulers.boundedElastic());
+        }).subscribeOn(blockingScheduler);
     }
 
     public Flux<Notification> findByUserIdAndPriority(UUID userId, NotificationPriority priority) {
-        return Flux.defer(() -> Flux.fromStream(
-            notificationTable.scan()
-                .items()
+        return findByUserId(userId)
+                .filter(notification -> notification.getPriority() == priority);
+    }
+
+    /**
+     * A user's notifications, newest first. A Query on the user index, so the
+     * cost depends on the user's notifications, not on the table size. While the
+     * index is still being backfilled it is a Scan instead, as the index would
+     * miss older notifications.
+     */
+    public Flux<Notification> findByUserId(UUID userId) {
+        return findByUserId(userId, List.of());
+    }
+
+    /**
+     * Same as {@link #findByUserId(UUID)} but only reads {@code attributes}, as a
+     * ProjectionExpression; the other properties of the emitted items are unset.
+     * An empty list reads every attribute.
+     */
+    public Flux<Notification> findByUserId(UUID userId, Collection<String> attributes) {
+        return Flux.defer(() -> isIndexActive(Notification.USER_INDEX)
+                        ? queryByUserId(userId, attributes)
+                        : scanByUserId(userId, attributes))
+                .subscribeOn(blockingScheduler);
+    }
+
+    private Flux<Notification> queryByUserId(UUID userId, Collection<String> attributes) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(userId.toString())
+                        .build()))
+                .scanIndexForward(false);
+        if (!attributes.isEmpty()) {
+            request.attributesToProject(attributes);
+        }
+        return Flux.fromStream(notificationTable.index(Notification.USER_INDEX)
+                .query(request.build())
                 .stream()
-               .filter(notification -> notification.getUserId() != null && notification.getUserId().equals(userId) &&
-                        notification.getPriority() == priority)
-        )).subscribeOn(Schedulers.boundedElastic());
+                .flatMap(page -> page.items().stream()));
+    }
+
+    private Flux<Notification> scanByUserId(UUID userId, Collection<String> attributes) {
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder()
+                .filterExpression(Expression.builder()
+                        .expression("userId = :userId")
+                        .expressionValues(Map.of(":userId", stringValue(userId.toString())))
+                        .build());
+        if (!attributes.isEmpty()) {
+            // Sorted on below, so read even if not asked for
+            List<String> projected = new ArrayList<>(attributes);
+            if (!projected.contains("createdAt")) {
+                projected.add("createdAt");
+            }
+            request.attributesToProject(projected);
+        }
+        List<Notification> notifications = notificationTable.scan(request.build()).items().stream()
+                .sorted(Comparator.comparing(Notification::getCreatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .collect(Collectors.toList());
+        return Flux.fromIterable(notifications);
+    }
+
+    /**
+     * Marks a notification read and emits its user's id; empty if it does not exist.
+     */
+    public Mono<UUID> markAsRead(String id) {
+        return Mono.fromCallable(() -> {
+            try {
+                Map<String, AttributeValue> item = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("id", stringValue(id)))
+                        .updateExpression("SET #read = :true")
+                        .conditionExpression("attribute_exists(id)")
+                        .expressionAttributeNames(Map.of("#read", "read"))
+                        .expressionAttributeValues(Map.of(":true", AttributeValue.builder().bool(true).build()))
+                        .returnValues(ReturnValue.ALL_NEW)
+                        .build()).attributes();
+                AttributeValue userId = item.get("userId");
+                return userId != null ? UUID.fromString(userId.s()) : null;
+            } catch (ConditionalCheckFailedException e) {
+                return null;
+            }
+        }).subscribeOn(blockingScheduler)
+                .flatMap(userId -> inboxChanged(userId).thenReturn(userId));
     }
 
     public Mono<Void> delete(Notification notification) {
         return Mono.fromRunnable(() -> {
             Key key = Key.builder().partitionValue(notification.getId()).build();
             notificationTable.deleteItem(key);
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        }).subscribeOn(blockingScheduler).then(inboxChanged(notification.getUserId()));
+    }
+
+    /**
+     * Moves the user's inbox to a new version, which the ETags of inbox reads
+     * are built from. Called after every write that changes what the user's
+     * inbox reads return.
+     */
+    private Mono<Void> inboxChanged(@Nullable UUID userId) {
+        if (userId == null) {
+            return Mono.empty();
+        }
+        return inboxVersionRepository.increment(userId)
+                .onErrorResume(e -> {
+                    // The write itself succeeded; clients holding the old tag see it with the user's next change
+                    LOG.error("Could not update the inbox version of user {}: {}", userId, e.getMessage());
+                    return Mono.empty();
+                });
     }
 
     public Flux<Notification> findAll() {
@@ -65,7 +699,7 @@ public class NotificationRepository {
             notificationTable.scan()
                 .items()
                 .stream()
-        )).subscribeOn(Schedulers.boundedElastic());
+        )).subscribeOn(blockingScheduler);
     }
 
     public Flux<Notification> findByPriority(NotificationPriority priority) {
@@ -74,44 +708,36 @@ public class NotificationRepository {
                 .items()
                 .stream()
                 .filter(notification -> notification.getPriority() == priority)
-        )).subscribeOn(Schedulers.boundedElastic());
+        )).subscribeOn(blockingScheduler);
     }
 
     public Mono<Page<Notification>> findAllBy(Pageable pageable) {
-        return findAll().collectList().map(allNotifications -> {
-            int total = allNotifications.size();
-            int pageNumber = pageable.getNumber();
-            int pageSize = pageable.getSize();
-            int fromIndex = pageNumber * pageSize;
-            int toIndex = Math.min(fromIndex + pageSize, total);
-
-            List<Notification> pageContent;
-            if (fromIndex >= total) {
-                pageContent = Collections.emptyList();
-            } else {
-                pageContent = allNotifications.subList(fromIndex, toIndex);
-            }
-
-            return Page.of(pageContent, pageable, (long) total);
-        });
+        return findAll().collectList().map(allNotifications -> page(allNotifications, pageable));
     }
 
     public Mono<Page<Notification>> findAllByUserId(Pageable pageable, UUID userId) {
-        return findAll().filter(notification -> notification.getUserId() != null && notification.getUserId().equals(userId)).collectList().map(allNotificationsByUserId -> {
-            int total = allNotificationsByUserId.size();
-            int pageNumber = pageable.getNumber();
-            int pageSize = pageable.getSize();
-            int fromIndex = pageNumber * pageSize;
-            int toIndex = Math.min(fromIndex + pageSize, total);
-
-            List<Notification> pageContent;
-            if (fromIndex >= total) {
-                pageContent = Collections.emptyList();
-            } else {
-                pageContent = allNotificationsByUserId.subList(fromIndex, toIndex);
-            }
+        return findAllByUserId(pageable, userId, List.of());
+    }
 
-            return Page.of(pageContent, pageable, (long) total);
-        });
+    public Mono<Page<Notification>> findAllByUserId(Pageable pageable, UUID userId, Collection<String> attributes) {
+        return findByUserId(userId, attributes).collectList()
+                .map(allNotificationsByUserId -> page(allNotificationsByUserId, pageable));
+    }
+
+    private static Page<Notification> page(List<Notification> notifications, Pageable pageable) {
+        int total = notifications.size();
+        int pageNumber = pageable.getNumber();
+        int pageSize = pageable.getSize();
+        int fromIndex = pageNumber * pageSize;
+        int toIndex = Math.min(fromIndex + pageSize, total);
+
+        List<Notification> pageContent;
+        if (fromIndex >= total) {
+            pageContent = Collections.emptyList();
+        } else {
+            pageContent = notifications.subList(fromIndex, toIndex);
+        }
+
+        return Page.of(pageContent, pageable, (long) total);
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,17 @@
 package com.yash.notification.service;
 
+import com.yash.notification.delivery.DeliveryContext;
+import com.yash.notification.dto.NotificationSummary;
+import com.yash.notification.dto.UserDto;
+import com.yash.notification.model.DeliveryStatus;
 import com.yash.notification.model.Notification;
 import com.yash.notification.model.NotificationPriority;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,6 +25,20 @@ import reactor.core.publisher.Mono;
 public interface NotificationService {
     Mono<Notification> createNotification(Notification notification);
 
+    /**
+     * Delivers an already persisted notification on this channel without
+     * saving it again. Used by the outbox dispatcher.
+     */
+    Mono<DeliveryStatus> deliver(Notification notification);
+
+    /**
+     * Same as {@link #deliver(Notification)} but reuses recipient lookups shared
+     * with the other channels of a multi-channel send.
+     */
+    default Mono<DeliveryStatus> deliver(Notification notification, DeliveryContext context) {
+        return deliver(notification);
+    }
+
     Flux<Notification> getAllNotifications();
 
     Mono<Page<Notification>> getAllNotifications(Pageable pageable);
@@ -27,6 +47,13 @@ public interface NotificationService {
 
     Mono<Page<Notification>> getNotificationsByUserId(Pageable pageable, UUID userId);
 
+    /**
+     * Same page as {@link #getNotificationsByUserId(Pageable, UUID)}, reading and
+     * returning only the given {@link NotificationSummary} fields.
+     */
+    Mono<Page<NotificationSummary>> getNotificationSummariesByUserId(Pageable pageable, UUID userId,
+            Set<String> fields);
+
     Flux<Notification> getNotificationsByUserIdAndPriority(UUID userId, NotificationPriority priority);
 
     Mono<Void> deleteNotification(String id);
@@ -43,6 +70,32 @@ public interface NotificationService {
 
     Mono<Void> broadcastNotification(String title, String message, NotificationPriority priority);
 
+    /**
+     * Broadcasts to one chunk of the audience and emits how many of those users
+     * were reached.
+     */
+    default Mono<Integer> broadcastToUsers(List<UserDto> users, String title, String message,
+            NotificationPriority priority) {
+        return broadcastToUsers(users, title, message, priority, null);
+    }
+
+    /**
+     * Same as {@link #broadcastToUsers(List, String, String, NotificationPriority)}
+     * for a broadcast job, which checkpoints after every chunk. Each user's
+     * notification gets the id {@code broadcastId-userId}, and users whose
+     * notification already has a delivered receipt are skipped and counted as
+     * reached, so a chunk resumed after an interruption is not sent twice.
+     */
+    Mono<Integer> broadcastToUsers(List<UserDto> users, String title, String message, NotificationPriority priority,
+            @Nullable String broadcastId);
+
+    /**
+     * Id of a user's notification in a broadcast job.
+     */
+    static String broadcastNotificationId(String broadcastId, UUID userId) {
+        return broadcastId + "-" + userId;
+    }
+
     // void broadcastNotification(String title, String message, NotificationPriority
     // priority, boolean useAI,String aiPrompt);
 
@@ -14,4 +14,5 @@ public interface UserService {
     Flux<UserDto> getUsersByRole(String role);
     Mono<UserDto> getUserByEmail(String email);
     Flux<UserDeviceDto> getUserDevices(UUID userId);
+    Mono<Void> invalidateDeviceTokens(List<String> fcmTokens);
 } 
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.yash.notification.service.impl;
+
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.yash.notification.config.PushConfig;
+import com.yash.notification.delivery.DeliveryReceipt;
+import com.yash.notification.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Negative cache of FCM tokens that FCM has reported as permanently invalid.
+ * Sends to these tokens are skipped, and the tokens are reported back to the
+ * user service in batches so they can be removed at the source.
+ */
+@Singleton
+public class DeadTokenRegistry {
+    private static final Logger log = LoggerFactory.getLogger(DeadTokenRegistry.class);
+
+    private final UserService userService;
+    private final int invalidationBatchSize;
+    private final long ttlMillis;
+    private final Map<String, Long> deadTokens;
+    private final Queue<String> pendingInvalidations = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private final Counter avoidedSends;
+    private final Counter invalidatedTokens;
+
+    public DeadTokenRegistry(UserService userService, PushConfig pushConfig, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.invalidationBatchSize = pushConfig.getInvalidationBatchSize();
+        this.ttlMillis = pushConfig.getDeadTokenTtl().toMillis();
+        int maxEntries = pushConfig.getDeadTokenCacheSize();
+        this.deadTokens = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.avoidedSends = Counter.builder("notification.push.device.sends.avoided")
+                .description("Push sends skipped because the FCM token is known to be invalid")
+                .register(meterRegistry);
+        this.invalidatedTokens = Counter.builder("notification.push.device.tokens.invalidated")
+                .description("FCM tokens classified as permanently invalid")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true for FCM error codes that will never succeed for the same token.
+     * Transient codes (UNAVAILABLE, INTERNAL, QUOTA_EXCEEDED) and credential
+     * problems (THIRD_PARTY_AUTH_ERROR) are not the token's fault, and neither is
+     * INVALID_ARGUMENT, which FCM also returns for a malformed message or payload.
+     */
+    public static boolean isPermanentFailure(FirebaseMessagingException e) {
+        MessagingErrorCode code = e.getMessagingErrorCode();
+        if (code == null) {
+            return false;
+        }
+        switch (code) {
+            case UNREGISTERED:
+            case SENDER_ID_MISMATCH:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks the negative cache and counts the send as avoided on a hit.
+     */
+    public boolean shouldSkip(String fcmToken) {
+        if (fcmToken == null || fcmToken.isBlank()) {
+            avoidedSends.increment();
+            return true;
+        }
+        Long expiresAt = deadTokens.get(fcmToken);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt < System.currentTimeMillis()) {
+            deadTokens.remove(fcmToken);
+            return false;
+        }
+        avoidedSends.increment();
+        return true;
+    }
+
+    public void markDead(String fcmToken, MessagingErrorCode code) {
+        if (deadTokens.put(fcmToken, System.currentTimeMillis() + ttlMillis) != null) {
+            return;
+        }
+        // Tokens are credentials for the device, so only their hash is logged
+        log.warn("[DEVICE HYGIENE] Token {} marked invalid ({})", DeliveryReceipt.deviceTarget(fcmToken), code);
+        invalidatedTokens.increment();
+        pendingInvalidations.add(fcmToken);
+        if (pendingInvalidations.size() >= invalidationBatchSize) {
+            flushInvalidations();
+        }
+    }
+
+    /**
+     * Reports everything pending, one batch after the other. A batch that fails
+     * is queued again for the next run.
+     */
+    @Scheduled(fixedDelay = "${notifications.push.invalidation-flush-interval:30s}")
+    public void flushInvalidations() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        // Only what is pending now, so a failed batch is not retried within the same run
+        List<List<String>> batches = new ArrayList<>();
+        int remaining = pendingInvalidations.size();
+        String token;
+        while (remaining > 0 && (token = pendingInvalidations.poll()) != null) {
+            if (batches.isEmpty() || batches.get(batches.size() - 1).size() >= invalidationBatchSize) {
+                batches.add(new ArrayList<>(invalidationBatchSize));
+            }
+            batches.get(batches.size() - 1).add(token);
+            remaining--;
+        }
+        if (batches.isEmpty()) {
+            flushing.set(false);
+            return;
+        }
+        Flux.fromIterable(batches)
+                .concatMap(batch -> {
+                    log.info("[DEVICE HYGIENE] Reporting {} invalid tokens to user service", batch.size());
+                    return userService.invalidateDeviceTokens(batch)
+                            .onErrorResume(e -> {
+                                log.error("[DEVICE HYGIENE] Failed to report invalid tokens, will retry: {}",
+                                        e.getMessage());
+                                pendingInvalidations.addAll(batch);
+                                return Mono.empty();
+                            });
+                })
+                .doFinally(signal -> flushing.set(false))
+                .subscribe(v -> { }, e -> { });
+    }
+}
@@ -0,0 +1,230 @@
+package com.yash.notification.service.impl;
+
+import com.yash.notification.config.DigestConfig;
+import com.yash.notification.config.OutboxConfig;
+import com.yash.notification.delivery.DeliveryReceiptRecorder;
+import com.yash.notification.delivery.RetryQueue;
+import com.yash.notification.exception.ResourceNotFoundException;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.model.NotificationPriority;
+import com.yash.notification.repository.NotificationRepository;
+import com.yash.notification.service.UserService;
+import com.yash.notification.template.CompiledTemplate;
+import com.yash.notification.template.EmailTemplateRegistry;
+import com.yash.notification.template.EmailTemplateType;
+import com.yash.notification.template.RenderedEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers LOW/MEDIUM email notifications per user and sends them as one summary
+ * email when the user's window expires or the buffer reaches {@code maxItems}.
+ * HIGH/URGENT (and unprioritised) notifications are never buffered.
+ * <p>
+ * Buffered items stay claimed in the outbox, with their lease extended past the
+ * window, and are only marked DIGESTED once the digest has been sent; a failed
+ * digest sends each item to the {@link RetryQueue}. If the instance dies first
+ * the leases run out and the outbox sweep delivers the items again.
+ */
+@Singleton
+public class EmailDigestBuffer {
+    private static final Logger log = LoggerFactory.getLogger(EmailDigestBuffer.class);
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Map<UUID, UserDigest> digests = new ConcurrentHashMap<>();
+    private final DigestConfig digestConfig;
+    private final UserService userService;
+    private final SendGridEmailService sendGridEmailService;
+    private final EmailTemplateRegistry emailTemplateRegistry;
+    private final DeliveryReceiptRecorder receiptRecorder;
+    private final NotificationRepository notificationRepository;
+    private final RetryQueue retryQueue;
+    private final OutboxConfig outboxConfig;
+    private final Counter bufferedItems;
+    private final Counter digestsSent;
+
+    public EmailDigestBuffer(DigestConfig digestConfig,
+            UserService userService,
+            SendGridEmailService sendGridEmailService,
+            EmailTemplateRegistry emailTemplateRegistry,
+            DeliveryReceiptRecorder receiptRecorder,
+            NotificationRepository notificationRepository,
+            RetryQueue retryQueue,
+            OutboxConfig outboxConfig,
+            MeterRegistry meterRegistry) {
+        this.digestConfig = digestConfig;
+        this.userService = userService;
+        this.sendGridEmailService = sendGridEmailService;
+        this.emailTemplateRegistry = emailTemplateRegistry;
+        this.receiptRecorder = receiptRecorder;
+        this.notificationRepository = notificationRepository;
+        this.retryQueue = retryQueue;
+        this.outboxConfig = outboxConfig;
+        this.bufferedItems = Counter.builder("notification.digest.items.buffered")
+                .description("Notifications coalesced into a digest instead of sent individually")
+                .register(meterRegistry);
+        this.digestsSent = Counter.builder("notification.digest.emails.sent")
+                .description("Digest emails sent")
+                .register(meterRegistry);
+    }
+
+    public boolean accepts(Notification notification) {
+        NotificationPriority priority = notification.getPriority();
+        return digestConfig.isEnabled()
+                && (priority == NotificationPriority.LOW || priority == NotificationPriority.MEDIUM);
+    }
+
+    /**
+     * Adds a notification claimed under its {@code leaseToken} to its user's
+     * digest and emits IN_FLIGHT: the item stays claimed until the digest is
+     * sent. Completes once the item is buffered, or once the digest is sent if
+     * this item filled it.
+     */
+    public Mono<DeliveryStatus> add(Notification notification) {
+        long leaseUntil = System.currentTimeMillis() + digestConfig.getWindow().toMillis()
+                + outboxConfig.getLease().toMillis();
+        return notificationRepository.extendLease(notification.getId(), notification.getLeaseToken(), leaseUntil)
+                .flatMap(extended -> {
+                    if (!extended) {
+                        log.warn("[DIGEST] Lost the claim on notification {}, not buffering it", notification.getId());
+                        return Mono.empty();
+                    }
+                    return buffer(notification);
+                })
+                .thenReturn(DeliveryStatus.IN_FLIGHT);
+    }
+
+    private Mono<Void> buffer(Notification notification) {
+        UUID userId = notification.getUserId();
+        UserDigest digest = digests.computeIfAbsent(userId, id -> new UserDigest());
+        boolean full;
+        synchronized (digest) {
+            if (digest.closed) {
+                // Raced with a flush; start a fresh window
+                return buffer(notification);
+            }
+            digest.items.add(notification);
+            full = digest.items.size() >= digestConfig.getMaxItems();
+        }
+        bufferedItems.increment();
+        return full ? flush(userId, digest) : Mono.empty();
+    }
+
+    @Scheduled(fixedDelay = "${notifications.digest.flush-check-interval:30s}")
+    public void flushDue() {
+        long cutoff = System.currentTimeMillis() - digestConfig.getWindow().toMillis();
+        Flux.fromIterable(new ArrayList<>(digests.entrySet()))
+                .filter(entry -> entry.getValue().openedAt <= cutoff)
+                .flatMap(entry -> flush(entry.getKey(), entry.getValue()))
+                .subscribe(v -> { }, e -> log.error("[DIGEST] Error flushing digests: {}", e.getMessage(), e));
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        Flux.fromIterable(new ArrayList<>(digests.entrySet()))
+                .flatMap(entry -> flush(entry.getKey(), entry.getValue()))
+                .then()
+                .block(SHUTDOWN_FLUSH_TIMEOUT);
+    }
+
+    private Mono<Void> flush(UUID userId, UserDigest digest) {
+        if (!digests.remove(userId, digest)) {
+            return Mono.empty();
+        }
+        List<Notification> items;
+        synchronized (digest) {
+            digest.closed = true;
+            items = new ArrayList<>(digest.items);
+        }
+        if (items.isEmpty()) {
+            return Mono.empty();
+        }
+        RenderedEmail content = render(items);
+        return userService.getUserById(userId)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("User not found with id: " + userId)))
+                .flatMap(user -> sendGridEmailService.sendEmailReceiptAsync(user.getEmail(),
+                        "You have " + summary(items.size()),
+                        content.getPlainText(),
+                        content.getHtml()))
+                .doOnNext(receipt -> {
+                    // Every item went out in the same email, so they share its receipt
+                    items.forEach(item -> receiptRecorder.record(item.getId(), List.of(receipt)));
+                    if (receipt.isDelivered()) {
+                        digestsSent.increment();
+                        log.info("[DIGEST] Sent digest of {} notifications to user {}", items.size(), userId);
+                    } else {
+                        log.warn("[DIGEST] Failed to send digest of {} notifications to user {}", items.size(), userId);
+                    }
+                })
+                .map(receipt -> receipt.isDelivered() ? "" : "Digest email failed: " + receipt.getReference())
+                .onErrorResume(e -> {
+                    log.error("[DIGEST] Error sending digest to user {}: {}", userId, e.getMessage(), e);
+                    return Mono.just(String.valueOf(e.getMessage()));
+                })
+                .flatMapMany(error -> Flux.fromIterable(items).concatMap(item -> settle(item, error)))
+                .then();
+    }
+
+    // An empty error means the digest went out
+    private Mono<DeliveryStatus> settle(Notification item, String error) {
+        if (error.isEmpty()) {
+            return notificationRepository.completeDelivery(item.getId(), item.getLeaseToken(), DeliveryStatus.DIGESTED)
+                    .thenReturn(DeliveryStatus.DIGESTED);
+        }
+        item.setLastError(error);
+        return retryQueue.recordFailure(item)
+                .onErrorResume(e -> {
+                    // Left claimed; the outbox sweep picks it up once the lease runs out
+                    log.error("[DIGEST] Could not record failure of notification {}: {}", item.getId(),
+                            e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // Items come from any producer, so only the text part carries them raw
+    RenderedEmail render(List<Notification> items) {
+        StringBuilder text = new StringBuilder();
+        StringBuilder html = new StringBuilder();
+        for (Notification item : items) {
+            text.append("- ").append(item.getTitle()).append(": ").append(item.getMessage()).append('\n');
+            html.append("<li><strong>").append(CompiledTemplate.escapeHtml(item.getTitle())).append("</strong>: ")
+                    .append(CompiledTemplate.escapeHtml(item.getMessage())).append("</li>");
+        }
+        Map<String, String> textValues = new HashMap<>();
+        textValues.put("count", String.valueOf(items.size()));
+        textValues.put("summary", summary(items.size()));
+        textValues.put("items", text.toString());
+        Map<String, String> htmlValues = new HashMap<>(textValues);
+        htmlValues.put("items", html.toString());
+        return new RenderedEmail(
+                emailTemplateRegistry.render(EmailTemplateType.DIGEST, textValues).getPlainText(),
+                emailTemplateRegistry.render(EmailTemplateType.DIGEST, htmlValues).getHtml());
+    }
+
+    static String summary(int count) {
+        return count == 1 ? "1 new notification" : count + " new notifications";
+    }
+
+    private static final class UserDigest {
+        final long openedAt = System.currentTimeMillis();
+        final List<Notification> items = new ArrayList<>();
+        boolean closed;
+    }
+}
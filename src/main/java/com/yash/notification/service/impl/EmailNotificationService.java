@@ -1,26 +1,47 @@
 package com.yash.notification.service.impl;
 
 import com.yash.notification.exception.ResourceNotFoundException;
+import com.yash.notification.exception.StaleDeliveryException;
+import com.yash.notification.delivery.DeliveryContext;
+import com.yash.notification.delivery.DeliveryReceipt;
+import com.yash.notification.delivery.DeliveryReceiptRecorder;
+import com.yash.notification.delivery.DeliveryScheduler;
+import com.yash.notification.delivery.DeliveryTracker;
+import com.yash.notification.delivery.InboxHub;
+import com.yash.notification.delivery.SendAtScheduler;
+import com.yash.notification.model.DeliveryStatus;
 import com.yash.notification.model.Notification;
 import com.yash.notification.model.NotificationPriority;
+import com.yash.notification.dto.EmailRecipient;
+import com.yash.notification.dto.NotificationSummary;
 import com.yash.notification.dto.UserDto;
 import com.yash.notification.repository.NotificationRepository;
 import com.yash.notification.service.NotificationService;
 import com.yash.notification.service.UserService;
+import io.micronaut.core.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import com.yash.notification.config.RetryConfig;
 import com.yash.notification.config.SendGridConfig;
 import com.yash.notification.service.impl.SendGridEmailService;
 import com.yash.notification.service.GeminiService;
+import com.yash.notification.template.EmailTemplateRegistry;
+import com.yash.notification.template.EmailTemplateType;
+import com.yash.notification.template.RenderedEmail;
 import jakarta.inject.Named;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 @Named("email")
 public class EmailNotificationService implements NotificationService {
@@ -34,18 +55,42 @@ public class EmailNotificationService implements NotificationService {
     private final SendGridEmailService sendGridEmailService;
     private final SendGridConfig sendGridConfig;
     private final GeminiService geminiService;
+    private final EmailTemplateRegistry emailTemplateRegistry;
+    private final EmailDigestBuffer emailDigestBuffer;
+    private final SendAtScheduler sendAtScheduler;
+    private final DeliveryScheduler deliveryScheduler;
+    private final DeliveryReceiptRecorder receiptRecorder;
+    private final InboxHub inboxHub;
+    private final DeliveryTracker deliveryTracker;
+    private final RetryConfig retryConfig;
 
     public EmailNotificationService(
             NotificationRepository notificationRepository,
             UserService userService,
             SendGridEmailService sendGridEmailService,
             SendGridConfig sendGridConfig,
-            GeminiService geminiService) {
+            GeminiService geminiService,
+            EmailTemplateRegistry emailTemplateRegistry,
+            EmailDigestBuffer emailDigestBuffer,
+            SendAtScheduler sendAtScheduler,
+            DeliveryScheduler deliveryScheduler,
+            DeliveryReceiptRecorder receiptRecorder,
+            InboxHub inboxHub,
+            DeliveryTracker deliveryTracker,
+            RetryConfig retryConfig) {
         this.notificationRepository = notificationRepository;
         this.userService = userService;
         this.sendGridEmailService = sendGridEmailService;
         this.sendGridConfig = sendGridConfig;
         this.geminiService = geminiService;
+        this.emailTemplateRegistry = emailTemplateRegistry;
+        this.emailDigestBuffer = emailDigestBuffer;
+        this.sendAtScheduler = sendAtScheduler;
+        this.deliveryScheduler = deliveryScheduler;
+        this.receiptRecorder = receiptRecorder;
+        this.inboxHub = inboxHub;
+        this.deliveryTracker = deliveryTracker;
+        this.retryConfig = retryConfig;
     }
 
     @Override
@@ -54,30 +99,47 @@ public class EmailNotificationService implements NotificationService {
         notification.setId(UUID.randomUUID().toString());
         notification.setRead(false);
         notification.setCreatedAt(java.time.LocalDateTime.now());
+        notification.setChannel("email");
+        sendAtScheduler.prepare(notification);
         return notificationRepository.save(notification)
-            .flatMap(saved ->
-                userService.getUserById(notification.getUserId())
-                    .flatMap(user -> Mono.fromCallable(() -> {
-                        String subject = notification.getTitle();
-                        String textContent = notification.getMessage();
-                        String htmlContent = "<p>" + notification.getMessage() + "</p>";
-                        boolean emailSent = sendGridEmailService.sendEmail(
-                                user.getEmail(),
-                                subject,
-                                textContent,
-                                htmlContent);
-                        if (emailSent) {
+            .doOnNext(sendAtScheduler::submit);
+    }
+
+    @Override
+    public Mono<DeliveryStatus> deliver(Notification notification) {
+        // Only claimed outbox items are digested: the claim is what keeps them
+        // recoverable until the digest goes out
+        if (notification.getLeaseToken() != null && emailDigestBuffer.accepts(notification)) {
+            return emailDigestBuffer.add(notification);
+        }
+        return deliver(notification, DeliveryContext.forUser(notification.getUserId(), userService));
+    }
+
+    @Override
+    public Mono<DeliveryStatus> deliver(Notification notification, DeliveryContext context) {
+        return context.user()
+            .switchIfEmpty(Mono.error(new ResourceNotFoundException("User not found with id: " + notification.getUserId())))
+            .flatMap(user -> {
+                // A resend after an interrupted delivery must not email the user twice
+                String target = DeliveryReceipt.emailTarget(user.getEmail());
+                if (DeliveryReceipt.deliveredTo(notification.getReceipts(), target)) {
+                    log.info("Email for notification {} already delivered, not resending", notification.getId());
+                    return Mono.just(DeliveryStatus.SENT);
+                }
+                RenderedEmail content = emailTemplateRegistry.render(EmailTemplateType.NOTIFICATION,
+                        Collections.singletonMap("message", notification.getMessage()));
+                return sendGridEmailService.sendEmailReceiptAsync(user.getEmail(), notification.getTitle(),
+                        content.getPlainText(), content.getHtml())
+                    .map(receipt -> {
+                        receiptRecorder.record(notification.getId(), List.of(receipt));
+                        if (receipt.isDelivered()) {
                             log.info("[DEBUG] Email sent to user: {}", user.getEmail());
-                        } else {
-                            log.warn("[DEBUG] Failed to send email to user: {}", user.getEmail());
+                            return DeliveryStatus.SENT;
                         }
-                        return saved;
-                    }).subscribeOn(Schedulers.boundedElastic()))
-                    .onErrorResume(e -> {
-                        log.error("[DEBUG] Error sending email for notification to userId: {}", notification.getUserId(), e);
-                        return Mono.just(saved);
-                    })
-            );
+                        log.warn("[DEBUG] Failed to send email to user: {}", user.getEmail());
+                        return DeliveryStatus.FAILED;
+                    });
+            });
     }
 
     @Override
@@ -99,6 +161,15 @@ public class EmailNotificationService implements NotificationService {
             .then(notificationRepository.findAllByUserId(pageable, userId));
     }
 
+    @Override
+    public Mono<Page<NotificationSummary>> getNotificationSummariesByUserId(Pageable pageable, UUID userId,
+            Set<String> fields) {
+        return userService.getUserById(userId)
+            .switchIfEmpty(Mono.error(new ResourceNotFoundException("User not found with id: " + userId)))
+            .then(notificationRepository.findAllByUserId(pageable, userId, NotificationSummary.attributesFor(fields)))
+            .map(page -> page.map(notification -> NotificationSummary.from(notification, fields)));
+    }
+
     @Override
     public Flux<Notification> getNotificationsByUserIdAndPriority(UUID userId, NotificationPriority priority) {
         return userService.getUserById(userId)
@@ -110,7 +181,8 @@ public class EmailNotificationService implements NotificationService {
     public Mono<Void> deleteNotification(String id) {
         log.info("Deleting notification with id: {}", id);
         return notificationRepository.findById(id)
-            .flatMap(notificationRepository::delete)
+            .flatMap(notification -> notificationRepository.delete(notification)
+                .doOnSuccess(v -> inboxHub.notificationDeleted(notification.getUserId(), notification.getId())))
             .then();
     }
 
@@ -128,25 +200,23 @@ public class EmailNotificationService implements NotificationService {
                 notification.setRead(false);
                 notification.setCreatedAt(java.time.LocalDateTime.now());
                 return notificationRepository.save(notification)
-                    .then(Mono.fromCallable(() -> {
-                        String plainTextBody = "Welcome to User Management System!\n\n" +
-                                "Your account has been created successfully.\n" +
-                                "Your temporary password is: " + password + "\n\n" +
-                                "Please change your password after first login.";
-                        String htmlBody = "<h2>Welcome to User Management System</h2><br>" +
-                                "<p>Your account has been created successfully.</p>" +
-                                "<p>Your temporary password is: <strong>" + password + "</strong></p>" +
-                                "<p>Please change your password after first login.</p>";
-                        boolean emailSent = sendGridEmailService.sendEmail(
+                    .doOnNext(inboxHub::notificationCreated)
+                    .then(deliveryTracker.track("welcome email",
+                            retried("welcome email", deliveryScheduler.schedule(NotificationPriority.HIGH,
+                                    Mono.defer(() -> {
+                        RenderedEmail content = emailTemplateRegistry.render(EmailTemplateType.WELCOME,
+                                Collections.singletonMap("password", password));
+                        return sendGridEmailService.sendEmailAsync(
                                 user.getEmail(),
                                 "Welcome to User Management System",
-                                plainTextBody,
-                                htmlBody);
-                        if (!emailSent) {
-                            log.warn("Failed to send welcome email to user: {}", user.getEmail());
-                        }
-                        return true;
-                    }).subscribeOn(Schedulers.boundedElastic()));
+                                content.getPlainText(),
+                                content.getHtml());
+                    })))
+                            .doOnNext(emailSent -> {
+                                if (!emailSent) {
+                                    log.warn("Failed to send welcome email to user: {}", user.getEmail());
+                                }
+                            })));
             })
             .then();
     }
@@ -165,6 +235,7 @@ public class EmailNotificationService implements NotificationService {
                 notification.setRead(false);
                 notification.setCreatedAt(java.time.LocalDateTime.now());
                 return notificationRepository.save(notification)
+                    .doOnNext(inboxHub::notificationCreated)
                     .thenMany(userService.getUsersByRole("ADMIN"))
                     .flatMap(admin -> {
                         Notification adminNotification = new Notification();
@@ -175,22 +246,19 @@ public class EmailNotificationService implements NotificationService {
                         adminNotification.setPriority(NotificationPriority.HIGH);
                         adminNotification.setRead(false);
                         adminNotification.setCreatedAt(java.time.LocalDateTime.now());
-                        return notificationRepository.save(adminNotification);
+                        return notificationRepository.save(adminNotification)
+                            .doOnNext(inboxHub::notificationCreated);
                     })
-                    .then(Mono.fromCallable(() -> {
-                        String subject = "Password Reset Request";
-                        String textContent = "A password reset has been requested for your account.\n" +
-                                "Please wait for admin approval.";
-                        String htmlContent = "<h3>Password Reset Request</h3><br>" +
-                                "<p>A password reset has been requested for your account.</p><br>" +
-                                "<p>Please wait for admin approval.</p>";
-                        sendGridEmailService.sendEmail(
+                    .then(deliveryTracker.track("password reset email",
+                            retried("password reset email", deliveryScheduler.schedule(
+                                    NotificationPriority.HIGH, Mono.defer(() -> {
+                        RenderedEmail content = emailTemplateRegistry.render(EmailTemplateType.PASSWORD_RESET_REQUEST);
+                        return sendGridEmailService.sendEmailAsync(
                                 user.getEmail(),
-                                subject,
-                                textContent,
-                                htmlContent);
-                        return true;
-                    }).subscribeOn(Schedulers.boundedElastic()));
+                                "Password Reset Request",
+                                content.getPlainText(),
+                                content.getHtml());
+                    })))));
             })
             .then();
     }
@@ -216,9 +284,26 @@ public class EmailNotificationService implements NotificationService {
     @Override
     public Mono<Void> broadcastNotification(String title, String message, NotificationPriority priority) {
         log.info("Broadcasting email notification: {}", title);
-        return userService.getAllUsers()
+        return deliveryTracker.track("email broadcast", userService.getAllUsers()
+            .buffer(SendGridEmailService.MAX_PERSONALIZATIONS)
+            .concatMap(users -> broadcastToUsers(users, title, message, priority))
+            .then());
+    }
+
+    @Override
+    public Mono<Integer> broadcastToUsers(List<UserDto> users, String title, String message,
+            NotificationPriority priority, @Nullable String broadcastId) {
+        RenderedEmail content = emailTemplateRegistry.renderShared(EmailTemplateType.NOTIFICATION,
+                Collections.singletonMap("message", message));
+        List<UserDto> audience = users.stream().filter(user -> user.getEmail() != null).toList();
+        return alreadyReached(audience, broadcastId).flatMap(reached -> Flux.fromIterable(audience)
+            .filter(user -> broadcastId == null || !reached.contains(broadcastNotificationId(broadcastId, user)))
             .flatMap(user -> {
                 Notification notification = new Notification();
+                String id = broadcastNotificationId(broadcastId, user);
+                if (id != null) {
+                    notification.setId(id);
+                }
                 notification.setUserId(user.getId());
                 notification.setTitle(title);
                 notification.setMessage(message);
@@ -226,16 +311,81 @@ public class EmailNotificationService implements NotificationService {
                 notification.setRead(false);
                 notification.setCreatedAt(java.time.LocalDateTime.now());
                 return notificationRepository.save(notification)
-                    .then(Mono.fromCallable(() -> {
-                        sendGridEmailService.sendEmail(
-                                user.getEmail(),
-                                title,
-                                message,
-                                "<p>" + message + "</p>");
-                        return true;
-                    }).subscribeOn(Schedulers.boundedElastic()));
+                    .doOnNext(inboxHub::notificationCreated)
+                    .thenReturn(Map.entry(notification.getId(), toRecipient(user)));
             })
-            .then();
+            .buffer(SendGridEmailService.MAX_PERSONALIZATIONS)
+            .concatMap(batch -> {
+                List<EmailRecipient> recipients = batch.stream().map(Map.Entry::getValue).toList();
+                return deliveryScheduler.schedule(priority, sendGridEmailService
+                        .sendBatchEmailReceiptsAsync(recipients, title, content.getPlainText(), content.getHtml()))
+                    .onErrorResume(StaleDeliveryException.class, e -> {
+                        log.warn("Dropping stale broadcast email batch of {} recipients", recipients.size());
+                        return Mono.just(List.of());
+                    })
+                    .map(receipts -> {
+                        // One receipt per personalization, in recipient order
+                        for (int i = 0; i < receipts.size(); i++) {
+                            receiptRecorder.record(batch.get(i).getKey(), List.of(receipts.get(i)));
+                        }
+                        int sent = (int) receipts.stream().filter(DeliveryReceipt::isDelivered).count();
+                        if (sent < recipients.size()) {
+                            log.warn("Failed to send broadcast email to {} of {} recipients",
+                                    recipients.size() - sent, recipients.size());
+                        }
+                        return sent;
+                    });
+            })
+            .reduce(reached.size(), Integer::sum));
+    }
+
+    // Users of a resumed broadcast chunk that were reached before the interruption
+    private Mono<Set<String>> alreadyReached(List<UserDto> users, @Nullable String broadcastId) {
+        if (broadcastId == null) {
+            return Mono.just(Set.of());
+        }
+        return notificationRepository.findDelivered(users.stream()
+                .filter(user -> user.getId() != null)
+                .map(user -> broadcastNotificationId(broadcastId, user))
+                .toList());
+    }
+
+    @Nullable
+    private static String broadcastNotificationId(@Nullable String broadcastId, UserDto user) {
+        return broadcastId != null && user.getId() != null
+                ? NotificationService.broadcastNotificationId(broadcastId, user.getId())
+                : null;
+    }
+
+    /**
+     * Retries a send made directly for a request, outside the outbox, with
+     * backoff. Its content stays in memory (the welcome email carries the
+     * initial password), so it is not handed to the persistent retry queue.
+     * Emits false once the attempts are used up. Every attempt goes through the
+     * lane again, and sends that outlive the lane TTL are not retried.
+     */
+    private Mono<Boolean> retried(String name, Mono<Boolean> send) {
+        return send
+            .flatMap(sent -> sent
+                ? Mono.just(true)
+                : Mono.<Boolean>error(new IllegalStateException(name + " was not accepted by SendGrid")))
+            .retryWhen(Retry.backoff(retryConfig.getDirectMaxAttempts() - 1L, retryConfig.getDirectInitialBackoff())
+                .maxBackoff(retryConfig.getDirectMaxBackoff())
+                .filter(e -> !(e instanceof StaleDeliveryException))
+                .doBeforeRetry(signal -> log.warn("Retrying {} (attempt {}): {}", name,
+                        signal.totalRetries() + 2, signal.failure().getMessage())))
+            .onErrorResume(e -> !(e instanceof StaleDeliveryException), e -> {
+                log.error("Giving up on {}: {}", name, e.getMessage());
+                return Mono.just(false);
+            });
+    }
+
+    private static EmailRecipient toRecipient(UserDto user) {
+        Map<String, String> substitutions = new HashMap<>();
+        substitutions.put("{{firstName}}", user.getFirstName() != null ? user.getFirstName() : "");
+        substitutions.put("{{lastName}}", user.getLastName() != null ? user.getLastName() : "");
+        substitutions.put("{{email}}", user.getEmail());
+        return new EmailRecipient(user.getEmail(), substitutions);
     }
 
     @Override
@@ -252,20 +402,22 @@ public class EmailNotificationService implements NotificationService {
                 notification.setRead(false);
                 notification.setCreatedAt(java.time.LocalDateTime.now());
                 return notificationRepository.save(notification)
-                    .then(Mono.fromCallable(() -> {
-                        String subject = "Account Deleted";
-                        String plainTextBody = "Your account has been deleted. If this was not you, please contact support.";
-                        String htmlBody = "<h2>Account Deleted</h2><p>Your account has been deleted. If this was not you, please contact support.</p>";
-                        boolean emailSent = sendGridEmailService.sendEmail(
+                    .doOnNext(inboxHub::notificationCreated)
+                    .then(deliveryTracker.track("account deletion email",
+                            retried("account deletion email", deliveryScheduler.schedule(
+                                    NotificationPriority.HIGH, Mono.defer(() -> {
+                        RenderedEmail content = emailTemplateRegistry.render(EmailTemplateType.ACCOUNT_DELETION);
+                        return sendGridEmailService.sendEmailAsync(
                                 email,
-                                subject,
-                                plainTextBody,
-                                htmlBody);
-                        if (!emailSent) {
-                            log.warn("Failed to send account deletion email to user: {}", email);
-                        }
-                        return true;
-                    }).subscribeOn(Schedulers.boundedElastic()));
+                                "Account Deleted",
+                                content.getPlainText(),
+                                content.getHtml());
+                    })))
+                            .doOnNext(emailSent -> {
+                                if (!emailSent) {
+                                    log.warn("Failed to send account deletion email to user: {}", email);
+                                }
+                            })));
             })
             .then();
     }
@@ -273,7 +425,9 @@ public class EmailNotificationService implements NotificationService {
     @Override
     public Mono<Void> markNotificationAsRead(String id) {
         log.info("Marking notification as read: {}", id);
-        return Mono.empty();
+        return notificationRepository.markAsRead(id)
+            .doOnNext(userId -> inboxHub.notificationRead(userId, id))
+            .then();
     }
 
     @Override
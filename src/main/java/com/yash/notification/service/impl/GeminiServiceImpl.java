@@ -1,9 +1,12 @@
 package com.yash.notification.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yash.notification.config.GeminiConfig;
+import com.yash.notification.dto.GeminiResponse;
 import com.yash.notification.service.GeminiService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.MediaType;
 import io.micronaut.http.client.HttpClient;
@@ -12,31 +15,122 @@ import jakarta.inject.Singleton;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import io.micronaut.scheduling.annotation.ExecuteOn;
-import io.micronaut.scheduling.TaskExecutors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
 import reactor.core.publisher.Mono;
 
+/**
+ * Generates messages with Gemini.
+ * <p>
+ * Results are cached by a hash of the prompt with whitespace normalised, so
+ * the same template prompt is only generated once per {@code cacheTtl}, and
+ * identical prompts that arrive while one is being generated share that call.
+ * At most {@code maxInFlight} calls run at once and each is cut off after
+ * {@code timeout}. A prompt that cannot be generated, for either reason or
+ * because Gemini fails, gets its last generated message even if expired, or
+ * the error message if there is none.
+ */
 @Singleton
 public class GeminiServiceImpl implements GeminiService {
     private static final Logger LOG = LoggerFactory.getLogger(GeminiServiceImpl.class);
+    private static final String GEMINI_URL = "/v1beta/models/gemini-1.5-flash-latest:generateContent?key=";
+    private static final String UNABLE = "AI is unable to generate message. Error: ";
+
     private final GeminiConfig geminiConfig;
     private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
-    private static final String GEMINI_URL = "/v1beta/models/gemini-1.5-flash-latest:generateContent?key=";
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CachedMessage> cache;
+    private final Map<String, Mono<String>> inFlight = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter staleServed;
+    private final Counter rejected;
 
     @Inject
     public GeminiServiceImpl(GeminiConfig geminiConfig,
             @Client("https://generativelanguage.googleapis.com") HttpClient httpClient,
-            ObjectMapper objectMapper) {
+            MeterRegistry meterRegistry) {
         this.geminiConfig = geminiConfig;
         this.httpClient = httpClient;
-        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        int cacheSize = geminiConfig.getCacheSize();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedMessage> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.permits = new Semaphore(geminiConfig.getMaxInFlight());
+        this.cacheHits = cacheCounter("hit", meterRegistry);
+        this.cacheMisses = cacheCounter("miss", meterRegistry);
+        this.staleServed = cacheCounter("stale", meterRegistry);
+        this.rejected = Counter.builder("notification.ai.rejected")
+                .description("AI generations not sent to Gemini because maxInFlight calls were running")
+                .register(meterRegistry);
+        Gauge.builder("notification.ai.cache.size", cache, Map::size)
+                .description("Generated messages held in the AI cache")
+                .register(meterRegistry);
+    }
+
+    private static Counter cacheCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("notification.ai.cache")
+                .description("AI generation requests by cache result; stale means an expired entry was the fallback")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @Override
     public Mono<String> generateMessage(String prompt) {
+        String key = cacheKey(prompt);
+        CachedMessage cached = cache.get(key);
+        if (cached != null && cached.expiresAtMillis > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return Mono.just(cached.message);
+        }
+        cacheMisses.increment();
+        return inFlight.computeIfAbsent(key, k -> generate(k, prompt));
+    }
+
+    private Mono<String> generate(String key, String prompt) {
+        return Mono.defer(() -> {
+            if (!permits.tryAcquire()) {
+                rejected.increment();
+                return fallback(key, "Too many AI generations in progress");
+            }
+            long start = System.nanoTime();
+            return callGemini(prompt)
+                    .timeout(geminiConfig.getTimeout())
+                    .doOnNext(message -> {
+                        recordLatency("success", start);
+                        cache.put(key, new CachedMessage(message,
+                                System.currentTimeMillis() + geminiConfig.getCacheTtl().toMillis()));
+                    })
+                    .onErrorResume(e -> {
+                        boolean timedOut = e instanceof TimeoutException;
+                        recordLatency(timedOut ? "timeout" : "error", start);
+                        LOG.error("Error calling Gemini API: {}", e.getMessage(), e);
+                        return fallback(key, timedOut ? "Timed out" : "Unexpected error");
+                    })
+                    .doFinally(signal -> permits.release());
+        })
+                .doFinally(signal -> inFlight.remove(key))
+                // Shared by every caller of the same prompt until it completes
+                .cache();
+    }
+
+    private Mono<String> callGemini(String prompt) {
         String url = GEMINI_URL + geminiConfig.getApiKey();
         Map<String, Object> part = new HashMap<>();
         part.put("text", prompt);
@@ -47,26 +141,54 @@ public class GeminiServiceImpl implements GeminiService {
 
         HttpRequest<Map<String, Object>> request = HttpRequest.POST(url, body)
                 .contentType(MediaType.APPLICATION_JSON_TYPE);
-        return Mono.from(httpClient.retrieve(request, String.class))
-                .map(response -> {
-                    try {
-                        JsonNode jsonResponse = objectMapper.readTree(response);
-                        return jsonResponse
-                                .path("candidates")
-                                .path(0)
-                                .path("content")
-                                .path("parts")
-                                .path(0)
-                                .path("text")
-                                .asText("AI is unable to generate message.");
-                    } catch (Exception e) {
-                        LOG.error("Error parsing Gemini API response: {}", e.getMessage(), e);
-                        return "AI is unable to generate message. Error: " + e.getMessage();
-                    }
-                })
-                .onErrorResume(e -> {
-                    LOG.error("Error calling Gemini API: {}", e.getMessage(), e);
-                    return Mono.just("AI is unable to generate message. Error: Unexpected error");
+        // Decoded straight into the few fields used rather than into a tree
+        return Mono.from(httpClient.retrieve(request, GeminiResponse.class))
+                .flatMap(response -> {
+                    String text = response.firstText();
+                    return text != null
+                            ? Mono.just(text)
+                            : Mono.error(new IllegalStateException("Gemini returned no text"));
                 });
     }
-}
\ No newline at end of file
+
+    private Mono<String> fallback(String key, String reason) {
+        CachedMessage stale = cache.get(key);
+        if (stale != null) {
+            staleServed.increment();
+            return Mono.just(stale.message);
+        }
+        return Mono.just(UNABLE + reason);
+    }
+
+    private void recordLatency(String outcome, long startNanos) {
+        Timer.builder("notification.ai.upstream.latency")
+                .description("Gemini generateContent latency by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * SHA-256 of the prompt with surrounding whitespace removed and inner runs
+     * collapsed; case is kept since it can change what is generated.
+     */
+    static String cacheKey(String prompt) {
+        String normalized = prompt.strip().replaceAll("\\s+", " ");
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedMessage {
+        final String message;
+        final long expiresAtMillis;
+
+        CachedMessage(String message, long expiresAtMillis) {
+            this.message = message;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.yash.notification.service.impl;
+
+import com.google.firebase.messaging.AndroidConfig;
+import com.google.firebase.messaging.ApnsConfig;
+import com.google.firebase.messaging.Aps;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.Notification;
+import com.yash.notification.config.LaneConfig;
+import com.yash.notification.model.NotificationPriority;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * FCM payload built once per notification or broadcast. Only the token is
+ * set per device. URGENT/HIGH are delivered immediately with high priority;
+ * LOW/MEDIUM go out at normal priority with a collapse key and TTL so FCM
+ * and the device keep only the latest of a series of superseded messages.
+ * The TTL is the lane TTL of the priority, so FCM drops a message when the
+ * delivery scheduler would have expired it.
+ */
+public final class PushMessageTemplate {
+
+    private final Notification notification;
+    private final AndroidConfig androidConfig;
+    private final ApnsConfig apnsConfig;
+
+    private PushMessageTemplate(Notification notification, AndroidConfig androidConfig, ApnsConfig apnsConfig) {
+        this.notification = notification;
+        this.androidConfig = androidConfig;
+        this.apnsConfig = apnsConfig;
+    }
+
+    public static PushMessageTemplate of(String title, String body, NotificationPriority priority,
+            LaneConfig laneConfig) {
+        Notification notification = Notification.builder()
+                .setTitle(title)
+                .setBody(body)
+                .build();
+
+        NotificationPriority effective = priority != null ? priority : NotificationPriority.MEDIUM;
+        AndroidConfig.Builder android = AndroidConfig.builder();
+        ApnsConfig.Builder apns = ApnsConfig.builder().setAps(Aps.builder().build());
+
+        if (effective == NotificationPriority.URGENT || effective == NotificationPriority.HIGH) {
+            android.setPriority(AndroidConfig.Priority.HIGH);
+            apns.putHeader("apns-priority", "10");
+        } else {
+            Duration ttl = effective == NotificationPriority.LOW
+                    ? laneConfig.getLowTtl()
+                    : laneConfig.getMediumTtl();
+            String collapseKey = collapseKey(title, effective);
+            android.setPriority(AndroidConfig.Priority.NORMAL)
+                    .setCollapseKey(collapseKey)
+                    .setTtl(ttl.toMillis());
+            apns.putHeader("apns-priority", "5")
+                    .putHeader("apns-collapse-id", collapseKey)
+                    .putHeader("apns-expiration",
+                            String.valueOf(Instant.now().plus(ttl).getEpochSecond()));
+        }
+        return new PushMessageTemplate(notification, android.build(), apns.build());
+    }
+
+    private static String collapseKey(String title, NotificationPriority priority) {
+        return priority.name().toLowerCase() + "-" + Integer.toHexString(String.valueOf(title).hashCode());
+    }
+
+    public Message forToken(String fcmToken) {
+        return Message.builder()
+                .setNotification(notification)
+                .setAndroidConfig(androidConfig)
+                .setApnsConfig(apnsConfig)
+                .setToken(fcmToken)
+                .build();
+    }
+}
@@ -3,13 +3,29 @@ package com.yash.notification.service.impl;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
+import com.yash.notification.config.BlockingSchedulerFactory;
+import com.yash.notification.config.LaneConfig;
+import com.yash.notification.delivery.AdaptiveConcurrencyLimiter;
+import com.yash.notification.delivery.DeliveryContext;
+import com.yash.notification.delivery.DeliveryLimiters;
+import com.yash.notification.delivery.DeliveryProvider;
+import com.yash.notification.delivery.DeliveryReceipt;
+import com.yash.notification.delivery.DeliveryReceiptRecorder;
+import com.yash.notification.delivery.DeliveryScheduler;
+import com.yash.notification.delivery.DeliveryTracker;
+import com.yash.notification.delivery.InboxHub;
+import com.yash.notification.delivery.SendAtScheduler;
+import com.yash.notification.model.DeliveryStatus;
 import com.yash.notification.model.Notification;
 import com.yash.notification.model.NotificationPriority;
+import com.yash.notification.dto.NotificationSummary;
 import com.yash.notification.dto.UserDto;
 import com.yash.notification.dto.UserDeviceDto;
+import com.yash.notification.exception.StaleDeliveryException;
 import com.yash.notification.repository.NotificationRepository;
 import com.yash.notification.service.NotificationService;
 import com.yash.notification.service.UserService;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.model.Page;
 import io.micronaut.data.model.Pageable;
 import jakarta.inject.Named;
@@ -19,60 +35,143 @@ import java.util.*;
 import java.util.UUID;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 import io.micronaut.retry.annotation.CircuitBreaker;
 import io.micronaut.retry.annotation.Recoverable;
 
 @Recoverable
 @Named("push")
 public class PushNotificationService implements NotificationService {
+
     private static final Logger log = LoggerFactory.getLogger(PushNotificationService.class);
 
+    private static final int BROADCAST_CHUNK_SIZE = 500;
+
     private final FirebaseMessaging firebaseMessaging;
     private final NotificationRepository notificationRepository;
     private final UserService userService;
+    private final DeadTokenRegistry deadTokenRegistry;
+    private final LaneConfig laneConfig;
+    private final AdaptiveConcurrencyLimiter fcmLimiter;
+    private final DeliveryScheduler deliveryScheduler;
+    private final Scheduler blockingScheduler;
+    private final SendAtScheduler sendAtScheduler;
+    private final DeliveryReceiptRecorder receiptRecorder;
+    private final InboxHub inboxHub;
+    private final DeliveryTracker deliveryTracker;
 
     public PushNotificationService(FirebaseMessaging firebaseMessaging,
             NotificationRepository notificationRepository,
-            UserService userService) {
+            UserService userService,
+            DeadTokenRegistry deadTokenRegistry,
+            LaneConfig laneConfig,
+            DeliveryLimiters deliveryLimiters,
+            DeliveryScheduler deliveryScheduler,
+            @Named(BlockingSchedulerFactory.BLOCKING_IO) Scheduler blockingScheduler,
+            SendAtScheduler sendAtScheduler,
+            DeliveryReceiptRecorder receiptRecorder,
+            InboxHub inboxHub,
+            DeliveryTracker deliveryTracker) {
         this.firebaseMessaging = firebaseMessaging;
         this.notificationRepository = notificationRepository;
         this.userService = userService;
+        this.deadTokenRegistry = deadTokenRegistry;
+        this.laneConfig = laneConfig;
+        this.fcmLimiter = deliveryLimiters.get(DeliveryProvider.FCM);
+        this.deliveryScheduler = deliveryScheduler;
+        this.blockingScheduler = blockingScheduler;
+        this.sendAtScheduler = sendAtScheduler;
+        this.receiptRecorder = receiptRecorder;
+        this.inboxHub = inboxHub;
+        this.deliveryTracker = deliveryTracker;
     }
 
     @Override
     @CircuitBreaker(attempts = "3", reset = "30s", delay = "2s", multiplier = "2")
     public Mono<Notification> createNotification(Notification notification) {
         log.info("Creating push notification for user {}", notification.getUserId());
+        notification.setChannel("push");
+        sendAtScheduler.prepare(notification);
         return notificationRepository.save(notification)
-                .flatMap(savedNotification -> userService.getUserDevices(notification.getUserId())
-                        .collectList()
-                        .flatMapMany(userDevices -> {
-                            if (userDevices.isEmpty()) {
-                                log.warn("No devices found for user {}. Cannot send push notification.",
-                                        notification.getUserId());
-                                return Flux.empty();
-                            }
-                            return Flux.fromIterable(userDevices)
-                                    .flatMap(device -> Mono.fromCallable(() -> {
-                                        Message message = Message.builder()
-                                                .setNotification(com.google.firebase.messaging.Notification.builder()
-                                                        .setTitle(savedNotification.getTitle())
-                                                        .setBody(savedNotification.getMessage())
-                                                        .build())
-                                                .setToken(device.getFcmToken())
-                                                .build();
-                                        try {
-                                            String response = firebaseMessaging.send(message);
-                                            log.info("Successfully sent message to device {}: {}", device.getFcmToken(),
-                                                    response);
-                                        } catch (FirebaseMessagingException e) {
-                                            log.error("Failed to send message to device {}", device.getFcmToken(), e);
-                                        }
-                                        return true;
-                                    }).subscribeOn(Schedulers.boundedElastic()));
-                        })
-                        .then(Mono.just(savedNotification)));
+                .doOnNext(sendAtScheduler::submit);
+    }
+
+    @Override
+    public Mono<DeliveryStatus> deliver(Notification notification) {
+        return deliver(notification, DeliveryContext.forUser(notification.getUserId(), userService));
+    }
+
+    @Override
+    public Mono<DeliveryStatus> deliver(Notification notification, DeliveryContext context) {
+        return context.devices()
+                .flatMap(userDevices -> {
+                    if (userDevices.isEmpty()) {
+                        // Retrying cannot help until the user registers a device
+                        log.warn("No devices found for user {}. Skipping push notification.",
+                                notification.getUserId());
+                        return Mono.just(DeliveryStatus.SKIPPED);
+                    }
+                    // A resend after an interrupted delivery skips devices that already have it
+                    List<UserDeviceDto> pending = userDevices.stream()
+                            .filter(device -> !DeliveryReceipt.deliveredTo(notification.getReceipts(),
+                                    DeliveryReceipt.deviceTarget(device.getFcmToken())))
+                            .toList();
+                    if (pending.isEmpty()) {
+                        return Mono.just(DeliveryStatus.SENT);
+                    }
+                    PushMessageTemplate template = PushMessageTemplate.of(notification.getTitle(),
+                            notification.getMessage(), notification.getPriority(), laneConfig);
+                    return sendToDevices(notification.getId(), template, pending)
+                            .map(anySent -> anySent ? DeliveryStatus.SENT : DeliveryStatus.FAILED);
+                });
+    }
+
+    /**
+     * Sends to every device, hands the receipts to the recorder and emits
+     * whether at least one device accepted the message.
+     */
+    private Mono<Boolean> sendToDevices(String notificationId, PushMessageTemplate template,
+            List<UserDeviceDto> devices) {
+        return Flux.fromIterable(devices)
+                .flatMap(device -> sendToDevice(template, device.getFcmToken()))
+                .collectList()
+                .map(receipts -> {
+                    receiptRecorder.record(notificationId, receipts);
+                    return receipts.stream().anyMatch(DeliveryReceipt::isDelivered);
+                });
+    }
+
+    private Mono<DeliveryReceipt> sendToDevice(PushMessageTemplate template, String fcmToken) {
+        String target = DeliveryReceipt.deviceTarget(fcmToken);
+        if (deadTokenRegistry.shouldSkip(fcmToken)) {
+            log.debug("Skipping send to invalid device token {}", target);
+            return Mono.just(DeliveryReceipt.failed(target, "SKIPPED_DEAD_TOKEN"));
+        }
+        Mono<DeliveryReceipt> send = Mono.fromCallable(() -> {
+            Message message = template.forToken(fcmToken);
+            try {
+                String response = firebaseMessaging.send(message);
+                log.info("Successfully sent message to device {}: {}", target, response);
+                // FCM answers with projects/<project>/messages/<id>
+                return DeliveryReceipt.delivered(target, response.substring(response.lastIndexOf('/') + 1));
+            } catch (FirebaseMessagingException e) {
+                if (DeadTokenRegistry.isPermanentFailure(e)) {
+                    deadTokenRegistry.markDead(fcmToken, e.getMessagingErrorCode());
+                    return DeliveryReceipt.failed(target, String.valueOf(e.getMessagingErrorCode()));
+                }
+                // Rethrown so the limiter can back off on quota/unavailable errors
+                throw e;
+            }
+        }).subscribeOn(blockingScheduler);
+        return fcmLimiter.execute(send)
+                .onErrorResume(e -> {
+                    log.error("Failed to send message to device {}", target, e);
+                    String reason = e instanceof FirebaseMessagingException messagingException
+                            && messagingException.getMessagingErrorCode() != null
+                            ? messagingException.getMessagingErrorCode().name()
+                            : e.getClass().getSimpleName();
+                    return Mono.just(DeliveryReceipt.failed(target, reason));
+                });
     }
 
     public Mono<Notification> createNotificationFallback(Notification notification, Throwable t) {
@@ -96,6 +195,13 @@ public class PushNotificationService implements NotificationService {
         return notificationRepository.findAllByUserId(pageable, userId);
     }
 
+    @Override
+    public Mono<Page<NotificationSummary>> getNotificationSummariesByUserId(Pageable pageable, UUID userId,
+            Set<String> fields) {
+        return notificationRepository.findAllByUserId(pageable, userId, NotificationSummary.attributesFor(fields))
+                .map(page -> page.map(notification -> NotificationSummary.from(notification, fields)));
+    }
+
     @Override
     public Flux<Notification> getNotificationsByUserIdAndPriority(UUID userId, NotificationPriority priority) {
         return notificationRepository.findByUserIdAndPriority(userId, priority);
@@ -140,62 +246,69 @@ public class PushNotificationService implements NotificationService {
     @Override
     public Mono<Void> broadcastNotification(String title, String message, NotificationPriority priority) {
         log.info("Broadcasting push notification: {}", title);
-        return userService.getAllUsers()
-                .collectList()
-                .doOnNext(users -> log.info("[BROADCAST] Full user list received: {}", users))
-                .flatMapMany(users -> Flux.fromIterable(users)
-                        .filter(user -> user.getId() != null)
-                        .doOnNext(user -> log.info("[BROADCAST] Iterating user: {}", user.getId()))
-                        .flatMap(user -> {
-                            Notification notification = new Notification();
-                            notification.setUserId(user.getId());
-                            notification.setTitle(title);
-                            notification.setMessage(message);
-                            notification.setPriority(priority);
-                            notification.setRead(false);
-                            notification.setCreatedAt(java.time.LocalDateTime.now());
-                            log.info("[BROADCAST] Creating notification for user: {}", user.getId());
-                            return notificationRepository.save(notification)
-                                    .thenMany(userService.getUserDevices(user.getId())
+        return deliveryTracker.track("push broadcast", userService.getAllUsers()
+                .buffer(BROADCAST_CHUNK_SIZE)
+                .concatMap(users -> broadcastToUsers(users, title, message, priority))
+                .doOnError(e -> log.error("[BROADCAST] Error in broadcastNotification: {}", e.getMessage(), e))
+                .then());
+    }
+
+    @Override
+    public Mono<Integer> broadcastToUsers(List<UserDto> users, String title, String message,
+            NotificationPriority priority, @Nullable String broadcastId) {
+        PushMessageTemplate template = PushMessageTemplate.of(title, message, priority, laneConfig);
+        List<UserDto> audience = users.stream().filter(user -> user.getId() != null).toList();
+        return alreadyReached(audience, broadcastId).flatMap(reached -> Flux.fromIterable(audience)
+                .filter(user -> broadcastId == null
+                        || !reached.contains(NotificationService.broadcastNotificationId(broadcastId, user.getId())))
+                .flatMap(user -> {
+                    Notification notification = new Notification();
+                    if (broadcastId != null) {
+                        notification.setId(NotificationService.broadcastNotificationId(broadcastId, user.getId()));
+                    }
+                    notification.setUserId(user.getId());
+                    notification.setTitle(title);
+                    notification.setMessage(message);
+                    notification.setPriority(priority);
+                    notification.setRead(false);
+                    notification.setCreatedAt(java.time.LocalDateTime.now());
+                    log.info("[BROADCAST] Creating notification for user: {}", user.getId());
+                    return deliveryScheduler.schedule(priority, notificationRepository.save(notification)
+                                    .doOnNext(inboxHub::notificationCreated)
+                                    .then(userService.getUserDevices(user.getId())
                                             .collectList()
                                             .doOnNext(devices -> log.info("[BROADCAST] Devices for user {}: {}",
                                                     user.getId(), devices))
-                                            .flatMapMany(devices -> {
+                                            .flatMap(devices -> {
                                                 if (devices.isEmpty()) {
                                                     log.warn("[BROADCAST] No devices found for user {}", user.getId());
-                                                    return Flux.empty();
+                                                    return Mono.just(false);
                                                 }
-                                                return Flux.fromIterable(devices)
-                                                        .flatMap(device -> Mono.fromCallable(() -> {
-                                                            log.info("[BROADCAST] Attempting to send to device: {}",
-                                                                    device.getFcmToken());
-                                                            Message fcmMessage = Message.builder()
-                                                                    .setNotification(
-                                                                            com.google.firebase.messaging.Notification
-                                                                                    .builder()
-                                                                                    .setTitle(title)
-                                                                                    .setBody(message)
-                                                                                    .build())
-                                                                    .setToken(device.getFcmToken())
-                                                                    .build();
-                                                            try {
-                                                                String response = firebaseMessaging.send(fcmMessage);
-                                                                log.info(
-                                                                        "Successfully sent broadcast message to device {}: {}",
-                                                                        device.getFcmToken(), response);
-                                                            } catch (FirebaseMessagingException e) {
-                                                                log.error(
-                                                                        "Failed to send broadcast message to device {}",
-                                                                        device.getFcmToken(), e);
-                                                            }
-                                                            return true;
-                                                        }).subscribeOn(Schedulers.boundedElastic()));
-                                            }))
-                                    .doOnError(e -> log.error("[BROADCAST] Error in notification chain for user {}: {}",
-                                            user.getId(), e.getMessage(), e));
-                        }))
-                .doOnError(e -> log.error("[BROADCAST] Error in broadcastNotification: {}", e.getMessage(), e))
-                .then();
+                                                return sendToDevices(notification.getId(), template, devices);
+                                            })))
+                            .onErrorResume(StaleDeliveryException.class, e -> {
+                                log.warn("[BROADCAST] Dropping stale push for user {}", user.getId());
+                                return Mono.just(false);
+                            })
+                            .onErrorResume(e -> {
+                                log.error("[BROADCAST] Error in notification chain for user {}: {}",
+                                        user.getId(), e.getMessage(), e);
+                                return Mono.just(false);
+                            });
+                })
+                .filter(sent -> sent)
+                .count()
+                .map(sent -> reached.size() + sent.intValue()));
+    }
+
+    // Users of a resumed broadcast chunk that were reached before the interruption
+    private Mono<Set<String>> alreadyReached(List<UserDto> users, @Nullable String broadcastId) {
+        if (broadcastId == null) {
+            return Mono.just(Set.of());
+        }
+        return notificationRepository.findDelivered(users.stream()
+                .map(user -> NotificationService.broadcastNotificationId(broadcastId, user.getId()))
+                .toList());
     }
 
     @Override
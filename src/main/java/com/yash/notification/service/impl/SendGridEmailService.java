@@ -1,65 +1,180 @@
 package com.yash.notification.service.impl;
 
-import com.sendgrid.Method;
-import com.sendgrid.Request;
-import com.sendgrid.Response;
-import com.sendgrid.SendGrid;
-import com.sendgrid.helpers.mail.Mail;
-import com.sendgrid.helpers.mail.objects.Content;
-import com.sendgrid.helpers.mail.objects.Email;
 import com.yash.notification.config.SendGridConfig;
+import com.yash.notification.delivery.AdaptiveConcurrencyLimiter;
+import com.yash.notification.delivery.DeliveryLimiters;
+import com.yash.notification.delivery.DeliveryProvider;
+import com.yash.notification.delivery.DeliveryReceipt;
+import com.yash.notification.dto.EmailRecipient;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.json.JsonMapper;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.io.IOException;
-import io.github.resilience4j.micronaut.annotation.CircuitBreaker;
-import io.micronaut.retry.annotation.Recoverable;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends mail through SendGrid's v3 mail/send endpoint on the pooled Netty
+ * client, so concurrency is bounded by the connection pool and the SendGrid
+ * limiter rather than by worker threads. Every call goes through the
+ * {@code sendGrid} circuit breaker.
+ */
 @Singleton
 public class SendGridEmailService {
 
     private static final Logger LOG = LoggerFactory.getLogger(SendGridEmailService.class);
 
-    private final SendGrid sendGridClient;
+    /** SendGrid's limit on personalizations in a single mail/send request. */
+    public static final int MAX_PERSONALIZATIONS = 1000;
+
+    private static final String MAIL_SEND_PATH = "/v3/mail/send";
+    private static final String MESSAGE_ID_HEADER = "X-Message-Id";
+
     private final String fromEmail;
+    private final String apiKey;
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimiter sendGridLimiter;
 
-    public SendGridEmailService(SendGridConfig sendGridConfig) {
-        this.sendGridClient = new SendGrid(sendGridConfig.getApiKey());
+    public SendGridEmailService(SendGridConfig sendGridConfig,
+            @Client(id = "sendgrid") HttpClient httpClient,
+            JsonMapper jsonMapper,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            DeliveryLimiters deliveryLimiters) {
         this.fromEmail = "en20cs301184@medicaps.ac.in"; // Use the from email from your application.yml
+        this.apiKey = sendGridConfig.getApiKey();
+        this.httpClient = httpClient;
+        this.jsonMapper = jsonMapper;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("sendGrid");
+        this.sendGridLimiter = deliveryLimiters.get(DeliveryProvider.SENDGRID);
+    }
+
+    public Mono<Boolean> sendEmailAsync(String to, String subject, String bodyPlainText, String bodyHtmlText) {
+        return sendEmailReceiptAsync(to, subject, bodyPlainText, bodyHtmlText)
+                .map(DeliveryReceipt::isDelivered);
+    }
+
+    /**
+     * Same as {@link #sendEmailAsync}, returning SendGrid's answer as a receipt:
+     * the message id on success, the status code or error otherwise.
+     */
+    public Mono<DeliveryReceipt> sendEmailReceiptAsync(String to, String subject, String bodyPlainText,
+            String bodyHtmlText) {
+        String target = DeliveryReceipt.emailTarget(to);
+        return Mono.fromCallable(() -> mail(subject, bodyPlainText, bodyHtmlText, List.of(personalization(to))))
+                .flatMap(this::post)
+                .map(reference -> DeliveryReceipt.delivered(target, reference))
+                .onErrorResume(t -> {
+                    LOG.error("[SENDGRID] Send failed for to: {} subject: {}. Reason: {}", to, subject,
+                            t.getMessage());
+                    return Mono.just(DeliveryReceipt.failed(target, failureReason(t)));
+                });
+    }
+
+    /**
+     * Sends one mail/send request with a personalization per recipient, so each
+     * recipient only sees their own address. Substitution keys in the subject and
+     * bodies (e.g. {@code {{firstName}}}) are replaced per recipient by SendGrid.
+     * Emits one receipt per personalization in the order of {@code recipients}.
+     * SendGrid accepts or rejects a mail/send request as a whole, so the receipts
+     * share its message id, or its status code or error.
+     */
+    public Mono<List<DeliveryReceipt>> sendBatchEmailReceiptsAsync(List<EmailRecipient> recipients, String subject,
+            String bodyPlainText, String bodyHtmlText) {
+        return Mono.fromCallable(() -> buildBatchMail(recipients, subject, bodyPlainText, bodyHtmlText))
+                .flatMap(this::post)
+                .map(reference -> recipients.stream()
+                        .map(recipient -> DeliveryReceipt.delivered(DeliveryReceipt.emailTarget(recipient.getEmail()),
+                                reference))
+                        .toList())
+                .onErrorResume(t -> {
+                    LOG.error("[SENDGRID] Batch send failed for {} recipients subject: {}. Reason: {}",
+                            recipients.size(), subject, t.getMessage());
+                    String reason = failureReason(t);
+                    return Mono.just(recipients.stream()
+                            .map(recipient -> DeliveryReceipt.failed(DeliveryReceipt.emailTarget(recipient.getEmail()),
+                                    reason))
+                            .toList());
+                });
     }
 
-    @CircuitBreaker(name = "sendGrid", fallbackMethod = "sendEmailFallback")
-    public boolean sendEmail(String to, String subject, String bodyPlainText, String bodyHtmlText) {
-        Email from = new Email(fromEmail);
-        Email toEmail = new Email(to);
-        Content contentPlainText = new Content("text/plain", bodyPlainText);
-        Content contentHtmlText = new Content("text/html", bodyHtmlText);
-
-        Mail mail = new Mail(from, subject, toEmail, contentHtmlText); // Prefer HTML
-
-        Request request = new Request();
-        try {
-            request.setMethod(Method.POST);
-            request.setEndpoint("mail/send");
-            request.setBody(mail.build());
-            Response response = sendGridClient.api(request);
-
-            LOG.info("SendGrid email sent. Status code: {}", response.getStatusCode());
-            if (response.getStatusCode() >= 200 && response.getStatusCode() < 300) {
-                return true;
-            } else {
-                throw new RuntimeException("SendGrid returned status code: " + response.getStatusCode());
+    /**
+     * Emits SendGrid's message id for the send, or the status code if the
+     * response carried none.
+     */
+    private Mono<String> post(Map<String, Object> mail) {
+        Mono<String> call = Mono.fromCallable(() -> jsonMapper.writeValueAsString(mail))
+                .flatMap(body -> Mono.from(httpClient.exchange(HttpRequest.POST(MAIL_SEND_PATH, body)
+                        .bearerAuth(apiKey)
+                        .contentType(MediaType.APPLICATION_JSON_TYPE))))
+                .map(response -> {
+                    LOG.info("SendGrid email sent. Status code: {}", response.code());
+                    String messageId = response.header(MESSAGE_ID_HEADER);
+                    return messageId != null ? messageId : String.valueOf(response.code());
+                });
+        return sendGridLimiter.execute(call)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private static String failureReason(Throwable t) {
+        if (t instanceof HttpClientResponseException responseException) {
+            return String.valueOf(responseException.getStatus().getCode());
+        }
+        return t.getClass().getSimpleName();
+    }
+
+    private Map<String, Object> buildBatchMail(List<EmailRecipient> recipients, String subject, String bodyPlainText,
+            String bodyHtmlText) {
+        if (recipients.size() > MAX_PERSONALIZATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_PERSONALIZATIONS
+                    + " recipients per batch, got " + recipients.size());
+        }
+        List<Map<String, Object>> personalizations = new ArrayList<>(recipients.size());
+        for (EmailRecipient recipient : recipients) {
+            Map<String, Object> personalization = personalization(recipient.getEmail());
+            if (!recipient.getSubstitutions().isEmpty()) {
+                personalization.put("substitutions", recipient.getSubstitutions());
             }
+            personalizations.add(personalization);
+        }
+        return mail(subject, bodyPlainText, bodyHtmlText, personalizations);
+    }
 
-        } catch (IOException e) {
-            LOG.error("Failed to send email via SendGrid", e);
-            throw new RuntimeException("Failed to send email via SendGrid", e);
+    /**
+     * The mail/send request body.
+     */
+    private Map<String, Object> mail(String subject, String bodyPlainText, String bodyHtmlText,
+            List<Map<String, Object>> personalizations) {
+        List<Map<String, String>> content = new ArrayList<>(2);
+        // SendGrid requires text/plain to precede text/html, and rejects empty values
+        if (bodyPlainText != null && !bodyPlainText.isEmpty()) {
+            content.add(Map.of("type", "text/plain", "value", bodyPlainText));
         }
+        content.add(Map.of("type", "text/html", "value", bodyHtmlText));
+        Map<String, Object> mail = new LinkedHashMap<>();
+        mail.put("personalizations", personalizations);
+        mail.put("from", Map.of("email", fromEmail));
+        mail.put("subject", subject);
+        mail.put("content", content);
+        return mail;
     }
 
-    public boolean sendEmailFallback(String to, String subject, String bodyPlainText, String bodyHtmlText, Throwable t) {
-        LOG.error("[CIRCUIT BREAKER] SendGrid fallback triggered for to: {} subject: {}. Reason: {}", to, subject,
-                t.getMessage());
-        return false;
+    private static Map<String, Object> personalization(String to) {
+        Map<String, Object> personalization = new LinkedHashMap<>();
+        personalization.put("to", List.of(Map.of("email", to)));
+        return personalization;
     }
-}
\ No newline at end of file
+}
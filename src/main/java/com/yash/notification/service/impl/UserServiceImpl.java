@@ -1,10 +1,12 @@
 package com.yash.notification.service.impl;
 
 import com.yash.notification.client.UserClient;
+import com.yash.notification.dto.DeviceTokenInvalidationRequest;
 import com.yash.notification.dto.UserDeviceDto;
 import com.yash.notification.dto.UserDto;
 import com.yash.notification.dto.UserPage;
 import com.yash.notification.service.UserService;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.context.ServerRequestContext;
 import jakarta.inject.Singleton;
@@ -23,15 +25,20 @@ public class UserServiceImpl implements UserService {
     
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
     private final UserClient userClient;
+    private final String serviceAuthorization;
     
-    public UserServiceImpl(UserClient userClient) {
+    public UserServiceImpl(UserClient userClient,
+            @Value("${user.service.authorization:}") String serviceAuthorization) {
         this.userClient = userClient;
+        this.serviceAuthorization = serviceAuthorization;
     }
     
+    // Background work (outbox dispatch, schedulers) runs outside any request,
+    // so fall back to the configured service credential there.
     private String getAuthorizationHeader() {
         return ServerRequestContext.currentRequest()
                 .map(request -> request.getHeaders().get(HttpHeaders.AUTHORIZATION))
-                .orElse(null);
+                .orElse(serviceAuthorization.isEmpty() ? null : serviceAuthorization);
     }
     
     @Override
@@ -88,4 +95,16 @@ public class UserServiceImpl implements UserService {
             return Flux.error(e);
         }
     }
+
+    @Override
+    public Mono<Void> invalidateDeviceTokens(List<String> fcmTokens) {
+        log.debug("Reporting {} invalid device tokens", fcmTokens.size());
+        try {
+            return userClient.invalidateDeviceTokens(new DeviceTokenInvalidationRequest(fcmTokens),
+                    getAuthorizationHeader());
+        } catch (Exception e) {
+            log.error("Error reporting invalid device tokens", e);
+            return Mono.error(e);
+        }
+    }
 } 
\ No newline at end of file
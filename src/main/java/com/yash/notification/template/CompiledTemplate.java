@@ -0,0 +1,96 @@
+package com.yash.notification.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template split once into literal and {@code {{variable}}} segments.
+ * Rendering is a single pass over the segments with no parsing. Variables
+ * without a value are written back as {@code {{name}}}, which leaves
+ * SendGrid per-recipient substitution tags intact for the provider to fill.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;
+    private final String[] variables;
+    private final int sizeHint;
+    private final String staticOutput;
+
+    private CompiledTemplate(String[] literals, String[] variables) {
+        this.literals = literals;
+        this.variables = variables;
+        int size = 0;
+        for (String literal : literals) {
+            size += literal.length();
+        }
+        this.sizeHint = size + variables.length * 16;
+        this.staticOutput = variables.length == 0 ? literals[0] : null;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, pos);
+            int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                literals.add(source.substring(pos));
+                break;
+            }
+            literals.add(source.substring(pos, open));
+            variables.add(source.substring(open + OPEN.length(), close).trim());
+            pos = close + CLOSE.length();
+        }
+        return new CompiledTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    public boolean isStatic() {
+        return staticOutput != null;
+    }
+
+    public String render(Map<String, String> values) {
+        if (staticOutput != null) {
+            return staticOutput;
+        }
+        StringBuilder out = new StringBuilder(sizeHint);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(variables[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append(OPEN).append(variables[i]).append(CLOSE);
+            }
+        }
+        out.append(literals[variables.length]);
+        return out.toString();
+    }
+
+    /**
+     * Escapes {@code value} for use as HTML text or attribute content. Values are
+     * inserted as-is by {@link #render}, so callers escape what they did not write.
+     */
+    public static String escapeHtml(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.yash.notification.template;
+
+import io.micronaut.context.annotation.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles every email template under {@code classpath:templates/email} once at
+ * startup. Templates without variables are rendered once and served as-is;
+ * {@link #renderShared} additionally caches output whose variables are the same
+ * for every recipient (e.g. broadcast bodies), so the hot path only handles
+ * per-recipient values.
+ */
+@Context
+public class EmailTemplateRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(EmailTemplateRegistry.class);
+
+    private static final String TEMPLATE_PATH = "templates/email/";
+    private static final int SHARED_CACHE_SIZE = 256;
+
+    private final Map<EmailTemplateType, CompiledTemplate> plainTextTemplates = new EnumMap<>(EmailTemplateType.class);
+    private final Map<EmailTemplateType, CompiledTemplate> htmlTemplates = new EnumMap<>(EmailTemplateType.class);
+    private final Map<EmailTemplateType, RenderedEmail> staticEmails = new EnumMap<>(EmailTemplateType.class);
+    private final Map<List<Object>, RenderedEmail> sharedCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, RenderedEmail> eldest) {
+                    return size() > SHARED_CACHE_SIZE;
+                }
+            });
+
+    public EmailTemplateRegistry() throws IOException {
+        for (EmailTemplateType type : EmailTemplateType.values()) {
+            CompiledTemplate plainText = CompiledTemplate.compile(load(type.getResourceName() + ".txt"));
+            CompiledTemplate html = CompiledTemplate.compile(load(type.getResourceName() + ".html"));
+            plainTextTemplates.put(type, plainText);
+            htmlTemplates.put(type, html);
+            if (plainText.isStatic() && html.isStatic()) {
+                staticEmails.put(type, new RenderedEmail(plainText.render(Collections.emptyMap()),
+                        html.render(Collections.emptyMap())));
+            }
+        }
+        LOG.info("Compiled {} email templates ({} static)", plainTextTemplates.size(), staticEmails.size());
+    }
+
+    public RenderedEmail render(EmailTemplateType type, Map<String, String> values) {
+        RenderedEmail prerendered = staticEmails.get(type);
+        if (prerendered != null) {
+            return prerendered;
+        }
+        return new RenderedEmail(plainTextTemplates.get(type).render(values), htmlTemplates.get(type).render(values));
+    }
+
+    public RenderedEmail render(EmailTemplateType type) {
+        return render(type, Collections.emptyMap());
+    }
+
+    /**
+     * Same as {@link #render} but memoizes the result. Use only when the values
+     * are shared across many sends; per-recipient values would just churn the cache.
+     */
+    public RenderedEmail renderShared(EmailTemplateType type, Map<String, String> values) {
+        RenderedEmail prerendered = staticEmails.get(type);
+        if (prerendered != null) {
+            return prerendered;
+        }
+        return sharedCache.computeIfAbsent(List.of(type, new HashMap<>(values)), key -> render(type, values));
+    }
+
+    private String load(String name) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(TEMPLATE_PATH + name)) {
+            if (in == null) {
+                LOG.error("Could not find email template at: {}", TEMPLATE_PATH + name);
+                throw new IOException("Resource not found: " + TEMPLATE_PATH + name);
+            }
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return source.endsWith("\n") ? source.substring(0, source.length() - 1) : source;
+        }
+    }
+}
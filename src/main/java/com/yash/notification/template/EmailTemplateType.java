@@ -0,0 +1,19 @@
+package com.yash.notification.template;
+
+public enum EmailTemplateType {
+    WELCOME("welcome"),
+    PASSWORD_RESET_REQUEST("password-reset-request"),
+    ACCOUNT_DELETION("account-deletion"),
+    NOTIFICATION("notification"),
+    DIGEST("digest");
+
+    private final String resourceName;
+
+    EmailTemplateType(String resourceName) {
+        this.resourceName = resourceName;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+}
@@ -0,0 +1,19 @@
+package com.yash.notification.template;
+
+public class RenderedEmail {
+    private final String plainText;
+    private final String html;
+
+    public RenderedEmail(String plainText, String html) {
+        this.plainText = plainText;
+        this.html = html;
+    }
+
+    public String getPlainText() {
+        return plainText;
+    }
+
+    public String getHtml() {
+        return html;
+    }
+}
@@ -0,0 +1,72 @@
+package com.yash.notification.controller;
+
+import com.yash.notification.delivery.BatchIngestor;
+import com.yash.notification.dto.BatchItemResult;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.security.authentication.Authentication;
+import io.micronaut.security.token.jwt.generator.JwtTokenGenerator;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Posts the same batch as a JSON array and as NDJSON. Starts the application,
+ * so it runs against DynamoDB Local via {@code ./gradlew dynamodbLocalTest}.
+ */
+@MicronautTest
+@Tag("dynamodb-local")
+class NotificationBatchTest {
+
+    @Inject
+    @Client("/")
+    HttpClient client;
+
+    @Inject
+    JwtTokenGenerator tokenGenerator;
+
+    @Test
+    void testJsonArrayBody() {
+        List<BatchItemResult> results = post(MediaType.APPLICATION_JSON_TYPE,
+                "[" + item("first") + "," + item("") + "," + item("third") + "]");
+
+        assertResults(results);
+    }
+
+    @Test
+    void testNdjsonBody() {
+        List<BatchItemResult> results = post(MediaType.of(BatchIngestor.NDJSON),
+                item("first") + "\n" + item("") + "\n" + item("third") + "\n");
+
+        assertResults(results);
+    }
+
+    private static void assertResults(List<BatchItemResult> results) {
+        Assertions.assertEquals(List.of(BatchItemResult.Status.ACCEPTED, BatchItemResult.Status.REJECTED,
+                BatchItemResult.Status.ACCEPTED), results.stream().map(BatchItemResult::getStatus).toList());
+        Assertions.assertEquals(List.of(0L, 1L, 2L), results.stream().map(BatchItemResult::getIndex).toList());
+        Assertions.assertNotNull(results.get(0).getId());
+        Assertions.assertTrue(results.get(1).getError().contains("title"));
+    }
+
+    private List<BatchItemResult> post(MediaType contentType, String body) {
+        String token = tokenGenerator.generateToken(Authentication.build("batch-test"), 60).orElseThrow();
+        return client.toBlocking().retrieve(HttpRequest.POST("/api/notifications/batch", body)
+                        .contentType(contentType)
+                        .accept(MediaType.APPLICATION_JSON_TYPE)
+                        .bearerAuth(token),
+                Argument.listOf(BatchItemResult.class));
+    }
+
+    private static String item(String title) {
+        return "{\"userId\":\"" + UUID.randomUUID() + "\",\"title\":\"" + title + "\",\"message\":\"Hello\"}";
+    }
+}
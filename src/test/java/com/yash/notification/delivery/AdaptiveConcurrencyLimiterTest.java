@@ -0,0 +1,68 @@
+package com.yash.notification.delivery;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testInFlightNeverExceedsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 2, 2, 0.5, 2.0, e -> false);
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        Flux.range(0, 10)
+                .flatMap(i -> limiter.execute(Mono.delay(Duration.ofMillis(20))
+                        .doOnSubscribe(s -> peak.accumulateAndGet(current.incrementAndGet(), Math::max))
+                        .doFinally(signal -> current.decrementAndGet())))
+                .blockLast(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(2, peak.get());
+        Assertions.assertEquals(0, limiter.getInFlight());
+        Assertions.assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void testOverloadErrorCutsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 100, 0.5, 2.0,
+                e -> e instanceof TimeoutException);
+
+        limiter.execute(Mono.error(new TimeoutException())).onErrorResume(e -> Mono.empty()).block();
+        Assertions.assertEquals(5, limiter.getLimit());
+
+        limiter.execute(Mono.error(new IllegalArgumentException())).onErrorResume(e -> Mono.empty()).block();
+        Assertions.assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testConcurrentOverloadErrorsCutLimitOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 16, 2, 100, 0.5, 2.0,
+                e -> e instanceof TimeoutException);
+
+        Flux.range(0, 4)
+                .flatMap(i -> limiter.execute(Mono.delay(Duration.ofMillis(20))
+                                .then(Mono.error(new TimeoutException())))
+                        .onErrorResume(e -> Mono.empty()))
+                .blockLast(Duration.ofSeconds(5));
+        Assertions.assertEquals(8, limiter.getLimit());
+
+        // A call started after the decrease belongs to the next window
+        limiter.execute(Mono.error(new TimeoutException())).onErrorResume(e -> Mono.empty()).block();
+        Assertions.assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void testDroppedResultCutsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 2, 100, 0.5, 2.0, e -> false);
+
+        limiter.execute(Mono.just(false), sent -> !sent).block();
+
+        Assertions.assertEquals(4, limiter.getLimit());
+    }
+}
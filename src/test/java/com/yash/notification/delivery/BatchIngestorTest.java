@@ -0,0 +1,194 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.BatchConfig;
+import com.yash.notification.config.DigestConfig;
+import com.yash.notification.config.LimiterConfig;
+import com.yash.notification.config.RateLimitConfig;
+import com.yash.notification.config.SendAtConfig;
+import com.yash.notification.dto.BatchItemResult;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.InboxVersionRepository;
+import com.yash.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.json.tree.JsonNode;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs without DynamoDB: the repository's batch write is replaced, so each test
+ * decides which items come back unprocessed.
+ */
+class BatchIngestorTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.createDefault();
+    private final List<Notification> submitted = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DynamoDbClient dynamoDbClient;
+    private SendAtScheduler sendAtScheduler;
+    private Predicate<Notification> unprocessed = notification -> false;
+
+    @BeforeEach
+    void createScheduler() {
+        // Never called: every write goes through the replaced saveAll
+        dynamoDbClient = DynamoDbClient.builder()
+                .endpointOverride(URI.create("http://localhost:8000"))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy")))
+                .build();
+        sendAtScheduler = new SendAtScheduler(null, null, null, new SendAtConfig(), meterRegistry) {
+            @Override
+            public void submit(Notification notification) {
+                submitted.add(notification);
+            }
+        };
+    }
+
+    @AfterEach
+    void closeScheduler() {
+        sendAtScheduler.stop();
+        dynamoDbClient.close();
+    }
+
+    @Test
+    void testUnprocessedItemsAreRejectedAndTheRestAccepted() {
+        unprocessed = notification -> notification.getTitle().equals("second");
+
+        List<BatchItemResult> results = ingestor(new BatchConfig())
+                .ingest(Flux.just(item("first"), item("second"), item("third")))
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(List.of(BatchItemResult.Status.ACCEPTED, BatchItemResult.Status.REJECTED,
+                BatchItemResult.Status.ACCEPTED), results.stream().map(BatchItemResult::getStatus).toList());
+        Assertions.assertEquals(List.of(0L, 1L, 2L), results.stream().map(BatchItemResult::getIndex).toList());
+        Assertions.assertNull(results.get(1).getId());
+        // Only stored items are handed to the outbox
+        Assertions.assertEquals(List.of("first", "third"), submitted.stream().map(Notification::getTitle).toList());
+        Assertions.assertEquals(List.of(results.get(0).getId(), results.get(2).getId()),
+                submitted.stream().map(Notification::getId).toList());
+    }
+
+    @Test
+    void testItemsPastMaxItemsAreNotRead() {
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.setMaxItems(3);
+        AtomicInteger read = new AtomicInteger();
+
+        List<BatchItemResult> results = ingestor(batchConfig)
+                .ingest(Flux.range(0, 10).map(i -> item("item " + i)).doOnNext(item -> read.incrementAndGet()))
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(4, results.size());
+        Assertions.assertTrue(results.subList(0, 3).stream()
+                .allMatch(result -> result.getStatus() == BatchItemResult.Status.ACCEPTED));
+        Assertions.assertEquals(BatchItemResult.Status.REJECTED, results.get(3).getStatus());
+        Assertions.assertEquals(3L, results.get(3).getIndex());
+        // The item reported as over the limit is the last one read
+        Assertions.assertEquals(4, read.get());
+        Assertions.assertEquals(3, submitted.size());
+    }
+
+    @Test
+    void testMultiChannelItemsGetServerAssignedIds() {
+        JsonNode item = node("{\"id\":\"client-chosen\",\"userId\":\"" + UUID.randomUUID()
+                + "\",\"title\":\"Report ready\",\"message\":\"Your report is ready\","
+                + "\"channels\":[\"email\",\"push\"]}");
+
+        List<BatchItemResult> results = ingestor(new BatchConfig())
+                .ingest(Flux.just(item, item))
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(2, results.size());
+        Set<String> ids = Set.of(results.get(0).getId(), results.get(1).getId());
+        Assertions.assertEquals(2, ids.size());
+        Assertions.assertFalse(ids.contains("client-chosen"));
+        Assertions.assertEquals(List.of("email", "push"), submitted.get(0).getChannels());
+    }
+
+    @Test
+    void testPostedDeliveryStateIsDropped() {
+        JsonNode item = node("{\"userId\":\"" + UUID.randomUUID() + "\",\"title\":\"Report ready\","
+                + "\"message\":\"Your report is ready\",\"deliveryAttempts\":99,\"leaseToken\":\"stolen\","
+                + "\"receipts\":{\"email:abc\":\"DELIVERED msg-1\"},\"deliveryOutcome\":\"DELIVERED\"}");
+
+        List<BatchItemResult> results = ingestor(new BatchConfig())
+                .ingest(Flux.just(item))
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(BatchItemResult.Status.ACCEPTED, results.get(0).getStatus());
+        Notification stored = submitted.get(0);
+        Assertions.assertEquals(0, stored.getDeliveryAttempts());
+        Assertions.assertNull(stored.getLeaseToken());
+        Assertions.assertNull(stored.getReceipts());
+        Assertions.assertNull(stored.getDeliveryOutcome());
+    }
+
+    private BatchIngestor ingestor(BatchConfig batchConfig) {
+        Validator validator = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+        // Keeps whatever id the item carried, so the ingestor has to assign its own
+        ChannelRouter channelRouter = new ChannelRouter(null, null, null, sendAtScheduler) {
+            @Override
+            public void prepare(Notification notification, Collection<String> channels) {
+                notification.setChannel(null);
+                notification.setChannels(channels.stream().sorted().toList());
+                sendAtScheduler.prepare(notification);
+            }
+        };
+        NotificationRepository repository = new NotificationRepository(
+                DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build(), dynamoDbClient,
+                new DeliveryLimiters(new LimiterConfig(), meterRegistry), Schedulers.boundedElastic(),
+                new InboxVersionRepository(dynamoDbClient, Schedulers.boundedElastic())) {
+            @Override
+            public Mono<List<Notification>> saveAll(List<Notification> notifications) {
+                return Mono.just(notifications.stream().filter(unprocessed).toList());
+            }
+        };
+        return new BatchIngestor(jsonMapper, validator,
+                new UserRateLimiter(new RateLimitConfig(), new DigestConfig(), meterRegistry),
+                channelRouter, sendAtScheduler, repository, batchConfig, meterRegistry);
+    }
+
+    private JsonNode item(String title) {
+        return node("{\"userId\":\"" + UUID.randomUUID() + "\",\"title\":\"" + title
+                + "\",\"message\":\"Hello\"}");
+    }
+
+    private JsonNode node(String json) {
+        try {
+            return jsonMapper.readValue(json, JsonNode.class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.BlockingIoConfig;
+import com.yash.notification.config.BlockingSchedulerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulated broadcast of blocking provider calls on each blocking-io mode.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark -PjavaVersion=21}.
+ */
+@Tag("benchmark")
+class BlockingIoBenchmark {
+
+    private static final int SENDS = 5_000;
+    private static final int CONCURRENCY = 1_000;
+    private static final Duration CALL_LATENCY = Duration.ofMillis(50);
+
+    @Test
+    void boundedElastic() {
+        run(BlockingIoConfig.Mode.BOUNDED_ELASTIC);
+    }
+
+    @Test
+    void virtualThreads() {
+        Assumptions.assumeTrue(BlockingSchedulerFactory.virtualThreadsAvailable(), "Needs Java 21");
+        run(BlockingIoConfig.Mode.VIRTUAL_THREADS);
+    }
+
+    private void run(BlockingIoConfig.Mode mode) {
+        Scheduler scheduler = BlockingSchedulerFactory.create(mode);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        threads.resetPeakThreadCount();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peakHeap = new AtomicLong(heapBefore);
+        try {
+            long start = System.nanoTime();
+            long completed = Flux.range(0, SENDS)
+                    .flatMap(i -> Mono.fromCallable(() -> {
+                        Thread.sleep(CALL_LATENCY.toMillis());
+                        peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                        return i;
+                    }).subscribeOn(scheduler), CONCURRENCY)
+                    .count()
+                    .block(Duration.ofMinutes(5));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Assertions.assertEquals(SENDS, completed);
+            System.out.printf("%s: %d sends in %.2fs (%.0f/s), peak platform threads %d, heap growth %d KiB%n",
+                    mode, SENDS, seconds, SENDS / seconds, threads.getPeakThreadCount(),
+                    (peakHeap.get() - heapBefore) / 1024);
+        } finally {
+            scheduler.dispose();
+        }
+    }
+}
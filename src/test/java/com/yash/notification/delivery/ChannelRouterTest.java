@@ -0,0 +1,154 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.LimiterConfig;
+import com.yash.notification.config.SendAtConfig;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.InboxVersionRepository;
+import com.yash.notification.repository.NotificationRepository;
+import com.yash.notification.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.context.BeanContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs without DynamoDB: channels are stubs that answer with a fixed status,
+ * and recorded channel statuses are kept in memory.
+ */
+class ChannelRouterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, NotificationService> channels = new HashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Map<String, DeliveryStatus> recorded = new ConcurrentHashMap<>();
+    private DynamoDbClient dynamoDbClient;
+    private SendAtScheduler sendAtScheduler;
+    private ChannelRouter router;
+
+    @BeforeEach
+    void createRouter() {
+        // Never called: channel statuses go through the replaced recordChannelStatuses
+        dynamoDbClient = DynamoDbClient.builder()
+                .endpointOverride(URI.create("http://localhost:8000"))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy")))
+                .build();
+        NotificationRepository repository = new NotificationRepository(
+                DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build(), dynamoDbClient,
+                new DeliveryLimiters(new LimiterConfig(), meterRegistry), Schedulers.boundedElastic(),
+                new InboxVersionRepository(dynamoDbClient, Schedulers.boundedElastic())) {
+            @Override
+            public Mono<Void> recordChannelStatuses(String id, Map<String, DeliveryStatus> statuses) {
+                recorded.putAll(statuses);
+                return Mono.empty();
+            }
+        };
+        sendAtScheduler = new SendAtScheduler(null, null, null, new SendAtConfig(), meterRegistry);
+        router = new ChannelRouter(repository, null, beanContext(), sendAtScheduler);
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        sendAtScheduler.stop();
+        dynamoDbClient.close();
+    }
+
+    @Test
+    void testChannelWithoutTargetsDoesNotFailTheItem() {
+        channel("email", DeliveryStatus.SENT);
+        channel("push", DeliveryStatus.SKIPPED);
+
+        DeliveryStatus status = router.deliver(notification("email", "push")).block();
+
+        Assertions.assertEquals(DeliveryStatus.SENT, status);
+        Assertions.assertEquals(Map.of("email", DeliveryStatus.SENT, "push", DeliveryStatus.SKIPPED), recorded);
+    }
+
+    @Test
+    void testSkippedChannelIsNotDeliveredAgain() {
+        channel("email", DeliveryStatus.SENT);
+        channel("push", DeliveryStatus.SKIPPED);
+        Notification notification = notification("email", "push");
+        notification.setChannelStatuses(Map.of("email", DeliveryStatus.FAILED, "push", DeliveryStatus.SKIPPED));
+
+        DeliveryStatus status = router.deliver(notification).block();
+
+        Assertions.assertEquals(DeliveryStatus.SENT, status);
+        Assertions.assertEquals(1, calls.get("email").get());
+        Assertions.assertEquals(0, calls.get("push").get());
+    }
+
+    @Test
+    void testOnlySkippedChannelsSettleAsSkipped() {
+        channel("push", DeliveryStatus.SKIPPED);
+
+        Assertions.assertEquals(DeliveryStatus.SKIPPED, router.deliver(notification("push")).block());
+    }
+
+    @Test
+    void testFailedChannelStillFailsTheItem() {
+        channel("email", DeliveryStatus.FAILED);
+        channel("push", DeliveryStatus.SKIPPED);
+
+        Assertions.assertEquals(DeliveryStatus.FAILED, router.deliver(notification("email", "push")).block());
+    }
+
+    private Notification notification(String... names) {
+        Notification notification = new Notification();
+        notification.setUserId(UUID.randomUUID());
+        notification.setTitle("Report ready");
+        notification.setMessage("Your report is ready");
+        notification.setChannels(List.of(names));
+        return notification;
+    }
+
+    /**
+     * A channel whose deliveries all end in {@code status}.
+     */
+    private void channel(String name, DeliveryStatus status) {
+        AtomicInteger count = calls.computeIfAbsent(name, key -> new AtomicInteger());
+        channels.put(name, (NotificationService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {NotificationService.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("deliver")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    count.incrementAndGet();
+                    return Mono.just(status);
+                }));
+    }
+
+    // Only the channel lookups the router makes are answered
+    private BeanContext beanContext() {
+        return (BeanContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {BeanContext.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getBean") || args.length != 2) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return channels.entrySet().stream()
+                            .filter(entry -> Qualifiers.byName(entry.getKey()).equals(args[1]))
+                            .map(Map.Entry::getValue)
+                            .findFirst()
+                            .orElseThrow();
+                });
+    }
+}
@@ -0,0 +1,143 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.LimiterConfig;
+import com.yash.notification.config.ReceiptConfig;
+import com.yash.notification.dto.DeliveryReportResponse;
+import com.yash.notification.dto.ReceiptResponse;
+import com.yash.notification.model.DeliveryOutcome;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.InboxVersionRepository;
+import com.yash.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs against DynamoDB Local ({@code -Ddynamodb.endpoint}, default
+ * http://localhost:8000) via {@code ./gradlew dynamodbLocalTest}. Recreates the
+ * notifications table.
+ */
+@Tag("dynamodb-local")
+class DeliveryReceiptRecorderTest {
+
+    private DynamoDbClient dynamoDbClient;
+    private NotificationRepository repository;
+
+    @BeforeEach
+    void createTable() {
+        dynamoDbClient = DynamoDbClient.builder()
+                .endpointOverride(URI.create(System.getProperty("dynamodb.endpoint", "http://localhost:8000")))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy")))
+                .build();
+        dropTable();
+        dynamoDbClient.createTable(builder -> builder
+                .tableName(NotificationRepository.TABLE_NAME)
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder()
+                        .attributeName("id")
+                        .attributeType(ScalarAttributeType.S)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        repository = new NotificationRepository(
+                DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build(), dynamoDbClient,
+                new DeliveryLimiters(new LimiterConfig(), meterRegistry), Schedulers.boundedElastic(),
+                new InboxVersionRepository(dynamoDbClient, Schedulers.boundedElastic()));
+    }
+
+    @AfterEach
+    void dropTable() {
+        try {
+            dynamoDbClient.deleteTable(builder -> builder.tableName(NotificationRepository.TABLE_NAME));
+        } catch (ResourceNotFoundException e) {
+            // Already gone
+        }
+    }
+
+    @Test
+    void testFlushMergesReceiptsPerNotification() {
+        Notification notification = saved();
+        DeliveryReceiptRecorder recorder = recorder();
+        String alice = DeliveryReceipt.emailTarget("alice@example.com");
+        String bob = DeliveryReceipt.emailTarget("bob@example.com");
+
+        recorder.record(notification.getId(), List.of(DeliveryReceipt.failed(alice, "503")));
+        recorder.record(notification.getId(), List.of(DeliveryReceipt.delivered(bob, "msg-1")));
+        // A later receipt for the same target replaces the earlier one
+        recorder.record(notification.getId(), List.of(DeliveryReceipt.delivered(alice, "msg-2")));
+        recorder.flush();
+
+        Notification stored = repository.findById(notification.getId()).block();
+        Assertions.assertEquals(2, stored.getReceipts().size());
+        Assertions.assertTrue(DeliveryReceipt.deliveredTo(stored.getReceipts(), alice));
+        Assertions.assertTrue(DeliveryReceipt.deliveredTo(stored.getReceipts(), bob));
+        Assertions.assertEquals(DeliveryOutcome.DELIVERED, stored.getDeliveryOutcome());
+    }
+
+    @Test
+    void testDeliveryReportCountsStoredReceipts() {
+        Notification notification = saved();
+        DeliveryReceiptRecorder recorder = recorder();
+        String device = DeliveryReceipt.deviceTarget("token-1");
+        String email = DeliveryReceipt.emailTarget("Alice@Example.com ");
+
+        recorder.record(notification.getId(), List.of(DeliveryReceipt.delivered(device, "projects/p/messages/1"),
+                DeliveryReceipt.failed(email, "400")));
+        recorder.flush();
+
+        DeliveryReportResponse report = DeliveryReportResponse.from(
+                repository.findById(notification.getId()).block());
+        Assertions.assertEquals(notification.getId(), report.getNotificationId());
+        Assertions.assertEquals(DeliveryOutcome.PARTIAL, report.getOutcome());
+        Assertions.assertEquals(1, report.getDelivered());
+        Assertions.assertEquals(1, report.getFailed());
+        Assertions.assertEquals(List.of(device, email), report.getReceipts().stream()
+                .map(ReceiptResponse::getTarget)
+                .toList());
+        // Addresses are only stored hashed, and match whatever their case
+        Assertions.assertEquals(DeliveryReceipt.emailTarget("alice@example.com"), email);
+        Assertions.assertFalse(email.contains("alice"));
+    }
+
+    @Test
+    void testReceiptsForMissingNotificationAreDropped() {
+        DeliveryReceiptRecorder recorder = recorder();
+
+        recorder.record("missing", List.of(DeliveryReceipt.delivered(DeliveryReceipt.deviceTarget("t"), "m")));
+        recorder.flush();
+
+        Assertions.assertNull(repository.findById("missing").block());
+    }
+
+    private DeliveryReceiptRecorder recorder() {
+        return new DeliveryReceiptRecorder(repository, new ReceiptConfig(), new SimpleMeterRegistry());
+    }
+
+    private Notification saved() {
+        Notification notification = new Notification();
+        notification.setUserId(UUID.randomUUID());
+        notification.setTitle("Report ready");
+        notification.setMessage("Your report is ready");
+        return repository.save(notification).block();
+    }
+}
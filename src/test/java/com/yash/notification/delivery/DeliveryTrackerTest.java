@@ -0,0 +1,76 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.ReceiptConfig;
+import com.yash.notification.config.ShutdownConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class DeliveryTrackerTest {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private DeliveryTracker tracker;
+
+    @BeforeEach
+    void createTracker() {
+        ShutdownConfig shutdownConfig = new ShutdownConfig();
+        shutdownConfig.setDrainTimeout(Duration.ofMillis(100));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DeliveryReceiptRecorder recorder = new DeliveryReceiptRecorder(null, new ReceiptConfig(), meterRegistry) {
+            @Override
+            public void flush() {
+                events.add("flushed");
+            }
+        };
+        tracker = new DeliveryTracker(shutdownConfig, recorder, meterRegistry);
+    }
+
+    @Test
+    void testUnfinishedWorkIsReleasedAfterReceiptsAreFlushed() {
+        Assertions.assertTrue(tracker.submit("stuck", Mono.never(),
+                () -> Mono.fromRunnable(() -> events.add("released"))));
+
+        tracker.drain();
+
+        Assertions.assertEquals(List.of("flushed", "released"), events);
+    }
+
+    @Test
+    void testFinishedWorkIsNotReleased() {
+        tracker.submit("quick", Mono.delay(Duration.ofMillis(10)),
+                () -> Mono.fromRunnable(() -> events.add("released")));
+
+        tracker.drain();
+
+        Assertions.assertEquals(List.of(), events);
+    }
+
+    @Test
+    void testWorkIsRefusedWhileDraining() {
+        tracker.drain();
+
+        Assertions.assertFalse(tracker.isAccepting());
+        Assertions.assertFalse(tracker.submit("late", Mono.just(1),
+                () -> Mono.fromRunnable(() -> events.add("released"))));
+        Assertions.assertEquals(List.of(), events);
+    }
+
+    @Test
+    void testTrackedSendFailsAtDrainDeadline() {
+        Mono<Object> send = tracker.track("send", Mono.never()).cache();
+        send.subscribe(v -> { }, e -> { });
+
+        tracker.drain();
+
+        IllegalStateException error = Assertions.assertThrows(IllegalStateException.class,
+                () -> send.block(Duration.ofSeconds(1)));
+        Assertions.assertTrue(error.getMessage().contains("send"));
+        Assertions.assertEquals(List.of("flushed"), events);
+    }
+}
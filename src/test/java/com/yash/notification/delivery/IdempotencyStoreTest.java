@@ -0,0 +1,139 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.IdempotencyConfig;
+import com.yash.notification.exception.ValidationException;
+import com.yash.notification.model.Notification;
+import com.yash.notification.model.NotificationPriority;
+import com.yash.notification.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs against DynamoDB Local ({@code -Ddynamodb.endpoint}, default
+ * http://localhost:8000) via {@code ./gradlew dynamodbLocalTest}. Recreates the
+ * idempotency_keys table.
+ */
+@Tag("dynamodb-local")
+class IdempotencyStoreTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private DynamoDbClient dynamoDbClient;
+    private IdempotencyRepository repository;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void createTable() {
+        dynamoDbClient = DynamoDbClient.builder()
+                .endpointOverride(URI.create(System.getProperty("dynamodb.endpoint", "http://localhost:8000")))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy")))
+                .build();
+        dropTable();
+        dynamoDbClient.createTable(builder -> builder
+                .tableName(IdempotencyRepository.TABLE_NAME)
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder()
+                        .attributeName("id")
+                        .attributeType(ScalarAttributeType.S)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST));
+        repository = new IdempotencyRepository(
+                DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build(), dynamoDbClient,
+                Schedulers.boundedElastic());
+    }
+
+    @AfterEach
+    void dropTable() {
+        try {
+            dynamoDbClient.deleteTable(builder -> builder.tableName(IdempotencyRepository.TABLE_NAME));
+        } catch (ResourceNotFoundException e) {
+            // Already gone
+        }
+    }
+
+    @Test
+    void testReplayedCreateReturnsFirstResponse() {
+        IdempotencyStore store = store();
+        // Every bound request gets its own generated id and timestamps
+        HttpResponse<Notification> first = create(store, request("Hello"));
+        HttpResponse<Notification> fromCache = create(store, request("Hello"));
+        HttpResponse<Notification> fromStore = create(store(), request("Hello"));
+
+        Assertions.assertEquals(1, runs.get());
+        Assertions.assertEquals(HttpStatus.CREATED, fromCache.getStatus());
+        Assertions.assertEquals(first.body().getId(), fromCache.body().getId());
+        Assertions.assertEquals("true", fromCache.header(IdempotencyStore.REPLAYED_HEADER));
+        Assertions.assertEquals(HttpStatus.CREATED, fromStore.getStatus());
+        Assertions.assertEquals(first.body().getId(), fromStore.body().getId());
+        Assertions.assertEquals("true", fromStore.header(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        create(store(), request("Hello"));
+
+        Assertions.assertThrows(ValidationException.class, () -> create(store(), request("Goodbye")));
+        Assertions.assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testCompleteNeedsTheLockItTook() {
+        long now = System.currentTimeMillis();
+        Assertions.assertTrue(repository.lock("create:k", "first", "hash", now, now - 1, now + 60_000).block());
+        // The first attempt's lock has run out and a second attempt takes the key
+        Assertions.assertTrue(repository.lock("create:k", "second", "hash", now, now + 60_000, now + 60_000)
+                .block());
+
+        Assertions.assertFalse(repository.complete("create:k", "first", 201, "{}").block());
+        repository.release("create:k", "first").block();
+        Assertions.assertTrue(repository.complete("create:k", "second", 201, "{}").block());
+        Assertions.assertTrue(repository.findById("create:k").block().isCompleted());
+    }
+
+    private IdempotencyStore store() {
+        return new IdempotencyStore(repository, new IdempotencyConfig(), JsonMapper.createDefault(),
+                new SimpleMeterRegistry());
+    }
+
+    private HttpResponse<Notification> create(IdempotencyStore store, Notification notification) {
+        return store.execute("create", "key-1", IdempotencyStore.fingerprint(notification), Notification.class,
+                () -> Mono.fromCallable(() -> {
+                    runs.incrementAndGet();
+                    return HttpResponse.created(notification);
+                })).block();
+    }
+
+    private static Notification request(String title) {
+        Notification notification = new Notification();
+        notification.setUserId(USER_ID);
+        notification.setTitle(title);
+        notification.setMessage("Your report is ready");
+        notification.setPriority(NotificationPriority.HIGH);
+        return notification;
+    }
+}
@@ -0,0 +1,125 @@
+package com.yash.notification.delivery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs against DynamoDB Local ({@code -Ddynamodb.endpoint}, default
+ * http://localhost:8000) via {@code ./gradlew dynamodbLocalTest}. Recreates the
+ * partition_leases table.
+ */
+@Tag("dynamodb-local")
+class PartitionLeaseManagerTest {
+
+    private static final int PARTITIONS = 8;
+    private static final long LEASE_MILLIS = 2_000;
+
+    private DynamoDbClient dynamoDbClient;
+
+    @BeforeEach
+    void createTable() {
+        dynamoDbClient = DynamoDbClient.builder()
+                .endpointOverride(URI.create(System.getProperty("dynamodb.endpoint", "http://localhost:8000")))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy")))
+                .build();
+        dropTable();
+        dynamoDbClient.createTable(builder -> builder
+                .tableName(PartitionLeaseManager.TABLE_NAME)
+                .keySchema(KeySchemaElement.builder().attributeName("id").keyType(KeyType.HASH).build())
+                .attributeDefinitions(AttributeDefinition.builder()
+                        .attributeName("id")
+                        .attributeType(ScalarAttributeType.S)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST));
+    }
+
+    @AfterEach
+    void dropTable() {
+        try {
+            dynamoDbClient.deleteTable(builder -> builder.tableName(PartitionLeaseManager.TABLE_NAME));
+        } catch (ResourceNotFoundException e) {
+            // Already gone
+        }
+    }
+
+    @Test
+    void testRebalancesAsInstancesJoinAndLeave() {
+        PartitionLeaseManager a = manager("a");
+        PartitionLeaseManager b = manager("b");
+        PartitionLeaseManager c = manager("c");
+
+        converge(a);
+        Assertions.assertEquals(PARTITIONS, a.ownedPartitions().size());
+
+        converge(a, b);
+        assertExclusiveCover(List.of(a, b));
+        Assertions.assertEquals(4, a.ownedPartitions().size());
+
+        converge(a, b, c);
+        assertExclusiveCover(List.of(a, b, c));
+        Assertions.assertTrue(c.ownedPartitions().size() >= 2);
+
+        b.leave();
+        converge(a, c);
+        assertExclusiveCover(List.of(a, c));
+    }
+
+    @Test
+    void testTakesOverAfterInstanceStopsHeartbeating() throws InterruptedException {
+        PartitionLeaseManager a = manager("a");
+        PartitionLeaseManager b = manager("b");
+        converge(a, b);
+        Set<Integer> orphaned = b.ownedPartitions();
+        Assertions.assertFalse(orphaned.isEmpty());
+
+        // b dies without releasing anything
+        Thread.sleep(LEASE_MILLIS + 500);
+        a.heartbeat();
+
+        Assertions.assertEquals(PARTITIONS, a.ownedPartitions().size());
+    }
+
+    private PartitionLeaseManager manager(String instanceId) {
+        return new PartitionLeaseManager(dynamoDbClient, instanceId, PARTITIONS, LEASE_MILLIS);
+    }
+
+    // A few rounds let every instance register, shed and claim
+    private static void converge(PartitionLeaseManager... managers) {
+        for (int round = 0; round < 3; round++) {
+            for (PartitionLeaseManager manager : managers) {
+                manager.heartbeat();
+            }
+        }
+    }
+
+    private static void assertExclusiveCover(List<PartitionLeaseManager> managers) {
+        Set<Integer> seen = new HashSet<>();
+        int fairShare = (PARTITIONS + managers.size() - 1) / managers.size();
+        for (PartitionLeaseManager manager : managers) {
+            for (Integer partition : manager.ownedPartitions()) {
+                Assertions.assertTrue(seen.add(partition), "partition " + partition + " owned twice");
+            }
+            Assertions.assertTrue(manager.ownedPartitions().size() <= fairShare);
+        }
+        Assertions.assertEquals(PARTITIONS, seen.size());
+    }
+}
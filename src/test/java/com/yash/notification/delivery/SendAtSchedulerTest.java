@@ -0,0 +1,63 @@
+package com.yash.notification.delivery;
+
+import com.yash.notification.config.SendAtConfig;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+
+class SendAtSchedulerTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.createDefault();
+    private SendAtScheduler sendAtScheduler;
+
+    @BeforeEach
+    void createScheduler() {
+        sendAtScheduler = new SendAtScheduler(null, null, null, new SendAtConfig(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        sendAtScheduler.stop();
+    }
+
+    @Test
+    void testPostedDeliveryStateIsDropped() throws IOException {
+        Notification notification = jsonMapper.readValue("{\"userId\":\"" + UUID.randomUUID() + "\","
+                + "\"title\":\"Report ready\",\"message\":\"Your report is ready\","
+                + "\"deliveryAttempts\":99,\"leaseToken\":\"stolen\",\"leaseExpiresAt\":4102444800000,"
+                + "\"deliveryStatus\":\"SENT\",\"lastError\":\"boom\",\"deliveryOutcome\":\"DELIVERED\"}",
+                Notification.class);
+
+        sendAtScheduler.prepare(notification);
+
+        Assertions.assertEquals(0, notification.getDeliveryAttempts());
+        Assertions.assertNull(notification.getLeaseToken());
+        Assertions.assertNull(notification.getLeaseExpiresAt());
+        Assertions.assertNull(notification.getLastError());
+        Assertions.assertNull(notification.getDeliveryOutcome());
+        Assertions.assertEquals(DeliveryStatus.PENDING, notification.getDeliveryStatus());
+    }
+
+    @Test
+    void testLeaseIsNotSerialized() throws IOException {
+        Notification notification = new Notification();
+        notification.setLeaseToken("token-1");
+        notification.setLeaseExpiresAt(System.currentTimeMillis());
+        notification.setDeliveryAttempts(2);
+
+        String json = jsonMapper.writeValueAsString(notification);
+
+        Assertions.assertFalse(json.contains("leaseToken"));
+        Assertions.assertFalse(json.contains("leaseExpiresAt"));
+        // Read-only state is still shown
+        Assertions.assertTrue(json.contains("\"deliveryAttempts\":2"));
+    }
+}
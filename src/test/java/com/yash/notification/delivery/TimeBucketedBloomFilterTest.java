@@ -0,0 +1,46 @@
+package com.yash.notification.delivery;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class TimeBucketedBloomFilterTest {
+
+    private static final long WINDOW = 600_000;
+
+    @Test
+    void testRemembersForWholeWindowThenForgets() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(WINDOW, 4, 1000, 0.01);
+        Random random = new Random(42);
+        long[][] keys = new long[1000][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new long[] {random.nextLong(), random.nextLong()};
+            filter.put(keys[i][0], keys[i][1], 1_000 + i);
+        }
+
+        for (long[] key : keys) {
+            Assertions.assertTrue(filter.mightContain(key[0], key[1], 1_000 + WINDOW));
+        }
+        for (long[] key : keys) {
+            Assertions.assertFalse(filter.mightContain(key[0], key[1], 1_000 + 2 * WINDOW));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateNearTarget() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(WINDOW, 4, 10_000, 0.01);
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(random.nextLong(), random.nextLong(), 0);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(random.nextLong(), random.nextLong(), 0)) {
+                falsePositives++;
+            }
+        }
+        Assertions.assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
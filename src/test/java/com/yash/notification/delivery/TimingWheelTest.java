@@ -0,0 +1,58 @@
+package com.yash.notification.delivery;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class TimingWheelTest {
+
+    @Test
+    void testItemsFireOnTheFirstTickAfterTheirDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 3, 1_000);
+
+        Assertions.assertTrue(wheel.add(1_005, 1_005L));
+        Assertions.assertTrue(wheel.add(1_700, 1_700L));
+
+        Assertions.assertEquals(List.of(), wheel.advance(1_009));
+        Assertions.assertEquals(List.of(1_005L), wheel.advance(1_010));
+        Assertions.assertEquals(List.of(), wheel.advance(1_700));
+        Assertions.assertEquals(List.of(1_700L), wheel.advance(1_710));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlineIsRejected() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 1_000);
+
+        Assertions.assertFalse(wheel.add(990, "late"));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCascadedItemsNeverFireEarlyOrGetLost() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, 3, 1_000_003);
+        Random random = new Random(42);
+        List<Long> added = new ArrayList<>();
+        List<Long> fired = new ArrayList<>();
+        long now = 1_000_003;
+
+        for (int step = 0; step < 5_000; step++) {
+            long deadline = now + random.nextInt((int) wheel.getSpanMillis());
+            if (wheel.add(deadline, deadline)) {
+                added.add(deadline);
+            }
+            now += random.nextInt(25);
+            for (long due : wheel.advance(now)) {
+                Assertions.assertTrue(due <= now, "fired early: " + due + " at " + now);
+                fired.add(due);
+            }
+        }
+        fired.addAll(wheel.advance(now + wheel.getSpanMillis() + 100));
+
+        Assertions.assertEquals(added.size(), fired.size());
+        Assertions.assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.yash.notification.delivery;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class TokenBucketStoreTest {
+
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(60);
+
+    @Test
+    void testBurstThenRefill() {
+        TokenBucketStore<String> store = new TokenBucketStore<>(4, 100, new int[] {3, 10}, PERIOD);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, store.tryAcquire("user", 0, 0));
+        }
+        long wait = store.tryAcquire("user", 0, 0);
+        Assertions.assertEquals(TimeUnit.SECONDS.toNanos(20), wait);
+        // Other slots of the same key are independent
+        Assertions.assertEquals(0, store.tryAcquire("user", 1, 0));
+
+        Assertions.assertEquals(0, store.tryAcquire("user", 0, wait));
+        Assertions.assertTrue(store.tryAcquire("user", 0, wait) > 0);
+    }
+
+    @Test
+    void testIdleAndOverflowEviction() {
+        TokenBucketStore<Integer> store = new TokenBucketStore<>(1, 2, new int[] {1}, PERIOD);
+
+        store.tryAcquire(1, 0, 0);
+        store.tryAcquire(2, 0, 10);
+        store.tryAcquire(3, 0, 20);
+        Assertions.assertEquals(2, store.size());
+
+        Assertions.assertEquals(1, store.evictIdle(15));
+        Assertions.assertEquals(1, store.size());
+        // Key 1 was dropped as least recently used, so it starts with a full bucket
+        Assertions.assertEquals(0, store.tryAcquire(1, 0, 30));
+    }
+}
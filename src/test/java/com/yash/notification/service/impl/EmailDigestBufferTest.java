@@ -0,0 +1,39 @@
+package com.yash.notification.service.impl;
+
+import com.yash.notification.config.DigestConfig;
+import com.yash.notification.config.OutboxConfig;
+import com.yash.notification.model.Notification;
+import com.yash.notification.template.EmailTemplateRegistry;
+import com.yash.notification.template.RenderedEmail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class EmailDigestBufferTest {
+
+    @Test
+    void testHtmlPartEscapesItems() throws Exception {
+        EmailDigestBuffer buffer = new EmailDigestBuffer(new DigestConfig(), null, null, new EmailTemplateRegistry(),
+                null, null, null, new OutboxConfig(), new SimpleMeterRegistry());
+
+        RenderedEmail email = buffer.render(List.of(item("<b>Sale</b>", "Tom & Jerry say \"1 < 2\""),
+                item("Report ready", "<script>alert('x')</script>")));
+
+        Assertions.assertTrue(email.getHtml().contains(
+                "<li><strong>&lt;b&gt;Sale&lt;/b&gt;</strong>: Tom &amp; Jerry say &quot;1 &lt; 2&quot;</li>"));
+        Assertions.assertTrue(email.getHtml().contains("&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;"));
+        Assertions.assertFalse(email.getHtml().contains("<script>"));
+        Assertions.assertTrue(email.getHtml().startsWith("<h3>You have 2 new notifications</h3>"));
+        // The text part is not HTML and keeps the items as written
+        Assertions.assertTrue(email.getPlainText().contains("- <b>Sale</b>: Tom & Jerry say \"1 < 2\""));
+    }
+
+    private static Notification item(String title, String message) {
+        Notification notification = new Notification();
+        notification.setTitle(title);
+        notification.setMessage(message);
+        return notification;
+    }
+}
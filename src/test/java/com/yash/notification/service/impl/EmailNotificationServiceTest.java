@@ -0,0 +1,172 @@
+package com.yash.notification.service.impl;
+
+import com.yash.notification.config.LimiterConfig;
+import com.yash.notification.config.ReceiptConfig;
+import com.yash.notification.config.SendAtConfig;
+import com.yash.notification.config.SendGridConfig;
+import com.yash.notification.delivery.DeliveryContext;
+import com.yash.notification.delivery.DeliveryLimiters;
+import com.yash.notification.delivery.DeliveryReceipt;
+import com.yash.notification.delivery.DeliveryReceiptRecorder;
+import com.yash.notification.delivery.SendAtScheduler;
+import com.yash.notification.dto.UserDeviceDto;
+import com.yash.notification.dto.UserDto;
+import com.yash.notification.model.DeliveryStatus;
+import com.yash.notification.model.Notification;
+import com.yash.notification.repository.InboxVersionRepository;
+import com.yash.notification.repository.NotificationRepository;
+import com.yash.notification.service.UserService;
+import com.yash.notification.template.EmailTemplateRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs without DynamoDB or SendGrid: saves and sends are replaced, and the
+ * sends are counted.
+ */
+class EmailNotificationServiceTest {
+
+    private static final String EMAIL = "alice@example.com";
+
+    private final JsonMapper jsonMapper = JsonMapper.createDefault();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger sends = new AtomicInteger();
+    private final UUID userId = UUID.randomUUID();
+    private DynamoDbClient dynamoDbClient;
+    private SendAtScheduler sendAtScheduler;
+    private EmailNotificationService service;
+
+    @BeforeEach
+    void createService() throws Exception {
+        // Never called: saves go through the replaced save
+        dynamoDbClient = DynamoDbClient.builder()
+                .endpointOverride(URI.create("http://localhost:8000"))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy")))
+                .build();
+        NotificationRepository repository = new NotificationRepository(
+                DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build(), dynamoDbClient,
+                new DeliveryLimiters(new LimiterConfig(), meterRegistry), Schedulers.boundedElastic(),
+                new InboxVersionRepository(dynamoDbClient, Schedulers.boundedElastic())) {
+            @Override
+            public Mono<Notification> save(Notification notification) {
+                return Mono.just(notification);
+            }
+        };
+        sendAtScheduler = new SendAtScheduler(null, null, null, new SendAtConfig(), meterRegistry) {
+            @Override
+            public void submit(Notification notification) {
+                // Delivered by the test itself
+            }
+        };
+        SendGridEmailService sendGridEmailService = new SendGridEmailService(new SendGridConfig(), null, jsonMapper,
+                CircuitBreakerRegistry.ofDefaults(), new DeliveryLimiters(new LimiterConfig(), meterRegistry)) {
+            @Override
+            public Mono<DeliveryReceipt> sendEmailReceiptAsync(String to, String subject, String bodyPlainText,
+                    String bodyHtmlText) {
+                sends.incrementAndGet();
+                return Mono.just(DeliveryReceipt.delivered(DeliveryReceipt.emailTarget(to), "msg-" + sends.get()));
+            }
+        };
+        DeliveryReceiptRecorder receiptRecorder = new DeliveryReceiptRecorder(null, new ReceiptConfig(),
+                meterRegistry) {
+            @Override
+            public void record(String notificationId, Collection<DeliveryReceipt> receipts) {
+                // Not stored
+            }
+        };
+        service = new EmailNotificationService(repository, new SingleUserService(), sendGridEmailService,
+                new SendGridConfig(), null, new EmailTemplateRegistry(), null, sendAtScheduler, null,
+                receiptRecorder, null, null, null);
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        sendAtScheduler.stop();
+        dynamoDbClient.close();
+    }
+
+    @Test
+    void testPostedReceiptsDoNotSuppressDelivery() throws Exception {
+        Notification posted = jsonMapper.readValue("{\"userId\":\"" + userId + "\","
+                + "\"title\":\"Report ready\",\"message\":\"Your report is ready\","
+                + "\"receipts\":{\"" + DeliveryReceipt.emailTarget(EMAIL) + "\":\"D|forged|0\"},"
+                + "\"deliveryOutcome\":\"DELIVERED\"}", Notification.class);
+
+        Notification created = service.createNotification(posted).block();
+        DeliveryStatus status = service.deliver(created, DeliveryContext.forUser(userId, new SingleUserService()))
+                .block();
+
+        Assertions.assertEquals(DeliveryStatus.SENT, status);
+        Assertions.assertEquals(1, sends.get());
+    }
+
+    @Test
+    void testStoredReceiptSuppressesResend() {
+        Notification created = new Notification();
+        created.setUserId(userId);
+        created.setTitle("Report ready");
+        created.setMessage("Your report is ready");
+        created = service.createNotification(created).block();
+        // As written by the receipt recorder after the first send
+        created.setReceipts(Map.of(DeliveryReceipt.emailTarget(EMAIL), "D|msg-1|0"));
+
+        DeliveryStatus status = service.deliver(created, DeliveryContext.forUser(userId, new SingleUserService()))
+                .block();
+
+        Assertions.assertEquals(DeliveryStatus.SENT, status);
+        Assertions.assertEquals(0, sends.get());
+    }
+
+    private final class SingleUserService implements UserService {
+        @Override
+        public Mono<UserDto> getUserById(UUID id) {
+            return Mono.just(new UserDto(id, "Alice", "Example", EMAIL, "USER"));
+        }
+
+        @Override
+        public Flux<UserDto> getAllUsers() {
+            return Flux.empty();
+        }
+
+        @Override
+        public Flux<UserDto> getUsersByRole(String role) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<UserDto> getUserByEmail(String email) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Flux<UserDeviceDto> getUserDevices(UUID userId) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<Void> invalidateDeviceTokens(List<String> fcmTokens) {
+            return Mono.empty();
+        }
+    }
+}
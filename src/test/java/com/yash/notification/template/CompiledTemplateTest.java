@@ -0,0 +1,35 @@
+package com.yash.notification.template;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+class CompiledTemplateTest {
+
+    @Test
+    void testRendersVariables() {
+        CompiledTemplate template = CompiledTemplate.compile("<p>Hi {{ name }}, {{message}}</p>");
+
+        Assertions.assertFalse(template.isStatic());
+        Assertions.assertEquals("<p>Hi Ana, welcome</p>",
+                template.render(Map.of("name", "Ana", "message", "welcome")));
+    }
+
+    @Test
+    void testKeepsUnboundVariablesForProviderSubstitution() {
+        CompiledTemplate template = CompiledTemplate.compile("Hello {{firstName}}: {{message}}");
+
+        Assertions.assertEquals("Hello {{firstName}}: update",
+                template.render(Collections.singletonMap("message", "update")));
+    }
+
+    @Test
+    void testStaticTemplate() {
+        CompiledTemplate template = CompiledTemplate.compile("<h2>Account Deleted</h2>{{unterminated");
+
+        Assertions.assertTrue(template.isStatic());
+        Assertions.assertEquals("<h2>Account Deleted</h2>{{unterminated", template.render(Collections.emptyMap()));
+    }
+}